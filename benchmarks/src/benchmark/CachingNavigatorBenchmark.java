@@ -0,0 +1,122 @@
+package benchmark;
+
+import navigator.CachingNavigator;
+import navigator.Navigator;
+import navigator.NavigatorImpl;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import route.Route;
+
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class CachingNavigatorBenchmark {
+    private static final int QUERIES = 1 << 16;
+
+    @Param({"100000"})
+    private int routeCount;
+
+    @Param({"1000"})
+    private int locationCount;
+
+    @Param({"10000"})
+    private int distinctQueries;
+
+    @Param({"1.0"})
+    private double querySkew;
+
+    @Param({"1000"})
+    private int cacheCapacity;
+
+    @Param({"100"})
+    private int choosePerMille;
+
+    private Navigator plain;
+    private CachingNavigator cached;
+    private String[] startPoints;
+    private String[] endPoints;
+    private String[] chosenIds;
+    private int cursor;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        System.setOut(new PrintStream(OutputStream.nullOutputStream()));
+
+        List<Route> routes = new RouteGenerator(routeCount, 8, locationCount, 1.0, 42).routes();
+        plain = new NavigatorImpl();
+        plain.addRoutes(routes);
+        NavigatorImpl inner = new NavigatorImpl();
+        inner.addRoutes(routes);
+        cached = new CachingNavigator(inner, cacheCapacity);
+
+        Random random = new Random(7);
+        String[][] pairs = new String[distinctQueries][];
+        for (int i = 0; i < distinctQueries; i++) {
+            Route route = routes.get(random.nextInt(routes.size()));
+            List<String> points = route.getLocationPoints();
+            pairs[i] = new String[] {points.get(0), points.get(points.size() - 1)};
+        }
+        ZipfDistribution zipf = new ZipfDistribution(distinctQueries, querySkew);
+        startPoints = new String[QUERIES];
+        endPoints = new String[QUERIES];
+        chosenIds = new String[QUERIES];
+        for (int i = 0; i < QUERIES; i++) {
+            String[] pair = pairs[zipf.sample(random)];
+            startPoints[i] = pair[0];
+            endPoints[i] = pair[1];
+            chosenIds[i] = (random.nextInt(1000) < choosePerMille) ? routes.get(random.nextInt(routes.size())).getId() : null;
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void reportHitRate() {
+        if (cached.hitCount() + cached.missCount() > 0) {
+            System.err.printf("cache hit rate %.3f, reranks %d%n", cached.hitRate(), cached.rerankCount());
+        }
+    }
+
+    private int next() {
+        cursor = (cursor + 1) & (QUERIES - 1);
+        return cursor;
+    }
+
+    @Benchmark
+    public void uncachedSearch(Blackhole blackhole) {
+        query(plain, next(), blackhole);
+    }
+
+    @Benchmark
+    public void cachedSearch(Blackhole blackhole) {
+        query(cached, next(), blackhole);
+    }
+
+    private void query(Navigator navigator, int i, Blackhole blackhole) {
+        if (chosenIds[i] != null) {
+            navigator.chooseRoute(chosenIds[i]);
+        }
+        for (Route route : navigator.searchRoutes(startPoints[i], endPoints[i], 0, 20)) {
+            blackhole.consume(route);
+        }
+    }
+}
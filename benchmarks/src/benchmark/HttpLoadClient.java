@@ -0,0 +1,169 @@
+package benchmark;
+
+import metrics.Histogram;
+import navigator.ConcurrentNavigator;
+import route.Route;
+import server.NavigatorServer;
+
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.net.URLEncoder;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.IntFunction;
+
+public class HttpLoadClient {
+    private static final int QUERIES = 4096;
+
+    private final HttpClient client;
+    private final int concurrency;
+    private final Histogram latencies;
+    private final LongAdder errors;
+
+    HttpLoadClient(int concurrency) {
+        this.client = HttpClient.newBuilder().version(HttpClient.Version.HTTP_1_1).build();
+        this.concurrency = concurrency;
+        this.latencies = new Histogram();
+        this.errors = new LongAdder();
+    }
+
+    public static void main(String[] args) throws Exception {
+        String url = null;
+        int routeCount = 100_000;
+        int concurrency = 256;
+        int seconds = 30;
+        for (int i = 0; i + 1 < args.length; i += 2) {
+            switch (args[i]) {
+                case "--url":
+                    url = args[i + 1];
+                    break;
+                case "--routes":
+                    routeCount = Integer.parseInt(args[i + 1]);
+                    break;
+                case "--concurrency":
+                    concurrency = Integer.parseInt(args[i + 1]);
+                    break;
+                case "--seconds":
+                    seconds = Integer.parseInt(args[i + 1]);
+                    break;
+                default:
+                    throw new IllegalArgumentException("unknown argument: " + args[i]);
+            }
+        }
+
+        List<Route> routes = new RouteGenerator(routeCount, 8, 1000, 1.0, 42).routes();
+        HttpLoadClient load = new HttpLoadClient(concurrency);
+        NavigatorServer server = null;
+        if (url == null) {
+            ConcurrentNavigator navigator = new ConcurrentNavigator();
+            navigator.setQuiet(true);
+            navigator.addRoutes(routes);
+            server = new NavigatorServer(navigator, new InetSocketAddress(InetAddress.getLoopbackAddress(), 0), 0);
+            server.start();
+            url = "http://127.0.0.1:" + server.port();
+        } else {
+            String base = url;
+            load.run(index -> addRequest(base, routes.get(index)), routes.size(), Long.MAX_VALUE);
+            load.report("populate", 0);
+        }
+
+        HttpRequest[] requests = queries(url, routes, new Random(7));
+        long start = System.nanoTime();
+        long sent = load.run(index -> requests[index % QUERIES], Long.MAX_VALUE,
+                start + TimeUnit.SECONDS.toNanos(seconds));
+        load.report("query", System.nanoTime() - start);
+        System.err.printf("sent %d requests with %d in flight%n", sent, concurrency);
+
+        if (server != null) {
+            server.stop(0);
+        }
+    }
+
+    long run(IntFunction<HttpRequest> requests, long count, long deadline) throws InterruptedException {
+        latencies.reset();
+        errors.reset();
+        Semaphore permits = new Semaphore(concurrency);
+        long sent = 0;
+        while (sent < count && System.nanoTime() < deadline) {
+            permits.acquire();
+            HttpRequest request = requests.apply((int) sent);
+            long start = System.nanoTime();
+            client.sendAsync(request, HttpResponse.BodyHandlers.discarding()).whenComplete((response, error) -> {
+                latencies.record(System.nanoTime() - start);
+                if (error != null || response.statusCode() >= 400) {
+                    errors.increment();
+                }
+                permits.release();
+            });
+            sent++;
+        }
+        permits.acquire(concurrency);
+        return sent;
+    }
+
+    void report(String phase, long elapsedNanos) {
+        long count = latencies.count();
+        double throughput = (elapsedNanos == 0) ? 0 : count * 1e9 / elapsedNanos;
+        System.err.printf("%s: %d requests, %.0f req/s, errors %d, latency us p50 %d p99 %d p99.9 %d max %d%n",
+                phase, count, throughput, errors.sum(),
+                latencies.percentile(50) / 1000, latencies.percentile(99) / 1000,
+                latencies.percentile(99.9) / 1000, latencies.max() / 1000);
+    }
+
+    private static HttpRequest[] queries(String url, List<Route> routes, Random random) {
+        HttpRequest[] requests = new HttpRequest[QUERIES];
+        for (int i = 0; i < QUERIES; i++) {
+            Route route = routes.get(random.nextInt(routes.size()));
+            List<String> points = route.getLocationPoints();
+            int kind = random.nextInt(10);
+            if (kind < 7) {
+                int start = random.nextInt(points.size() - 1);
+                int end = start + 1 + random.nextInt(points.size() - start - 1);
+                requests[i] = get(url + "/routes/search?start=" + encode(points.get(start))
+                        + "&end=" + encode(points.get(end)) + "&limit=20");
+            } else if (kind == 7) {
+                requests[i] = get(url + "/routes/favorites?destination=" + encode(points.get(points.size() - 1)) + "&limit=20");
+            } else if (kind == 8) {
+                requests[i] = get(url + "/routes/top");
+            } else {
+                requests[i] = post(url + "/routes/choose", "id=" + encode(route.getId()));
+            }
+        }
+        return requests;
+    }
+
+    private static HttpRequest addRequest(String url, Route route) {
+        StringBuilder form = new StringBuilder()
+                .append("id=").append(encode(route.getId()))
+                .append("&distance=").append(route.getDistance())
+                .append("&popularity=").append(route.getPopularity())
+                .append("&favorite=").append(route.isFavorite());
+        for (String point : route.getLocationPoints()) {
+            form.append("&point=").append(encode(point));
+        }
+        return post(url + "/routes", form.toString());
+    }
+
+    private static HttpRequest get(String uri) {
+        return HttpRequest.newBuilder(URI.create(uri)).GET().build();
+    }
+
+    private static HttpRequest post(String uri, String form) {
+        return HttpRequest.newBuilder(URI.create(uri))
+                .header("Content-Type", "application/x-www-form-urlencoded")
+                .POST(HttpRequest.BodyPublishers.ofString(form))
+                .build();
+    }
+
+    private static String encode(String value) {
+        return URLEncoder.encode(value, StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,389 @@
+package benchmark;
+
+import metrics.Histogram;
+import navigator.ConcurrentNavigator;
+import navigator.Navigator;
+import navigator.PopularityWindow;
+import navigator.ShardedNavigator;
+import navigator.WindowedNavigator;
+import route.Route;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryPoolMXBean;
+import java.lang.management.MemoryType;
+import java.lang.management.MemoryUsage;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.Locale;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+
+public class LoadHarness {
+    private static final long SPIN_THRESHOLD_NANOS = 50_000;
+
+    enum Operation {
+        ADD, REMOVE, CHOOSE, SEARCH, FAVORITES, TOP;
+
+        String label() {
+            return name().toLowerCase(Locale.ROOT);
+        }
+    }
+
+    private static final Operation[] OPERATIONS = Operation.values();
+
+    private final Navigator navigator;
+    private final List<Route> routes;
+    private final long[][] boardings;
+    private final RouteGenerator generator;
+    private final ZipfDistribution routeRanks;
+    private final ZipfDistribution locationRanks;
+    private final int[] mix;
+    private final Histogram[] latencies;
+    private final Histogram serviceTimes;
+    private final Histogram window;
+    private final LongAdder completed;
+    private final LongAdder errors;
+    private volatile boolean recording;
+
+    LoadHarness(Navigator navigator, List<Route> routes, RouteGenerator generator, int locationCount,
+                double skew, int[] weights) {
+        this.navigator = navigator;
+        this.routes = routes;
+        this.boardings = boardings(routes, locationCount);
+        this.generator = generator;
+        this.routeRanks = new ZipfDistribution(routes.size(), skew);
+        this.locationRanks = new ZipfDistribution(locationCount, skew);
+        this.mix = cumulative(weights);
+        this.latencies = new Histogram[OPERATIONS.length];
+        for (int i = 0; i < OPERATIONS.length; i++) {
+            latencies[i] = new Histogram();
+        }
+        this.serviceTimes = new Histogram();
+        this.window = new Histogram();
+        this.completed = new LongAdder();
+        this.errors = new LongAdder();
+    }
+
+    public static void main(String[] args) throws InterruptedException {
+        String kind = "concurrent";
+        int routeCount = 100_000;
+        int locationCount = 1000;
+        int threads = 4;
+        int shards = 4;
+        double rate = 20_000;
+        double skew = 1.0;
+        int warmupSeconds = 10;
+        int seconds = 60;
+        int reportSeconds = 10;
+        String mix = "add=2,remove=2,choose=20,search=60,favorites=10,top=6";
+        for (int i = 0; i + 1 < args.length; i += 2) {
+            switch (args[i]) {
+                case "--navigator":
+                    kind = args[i + 1];
+                    break;
+                case "--routes":
+                    routeCount = Integer.parseInt(args[i + 1]);
+                    break;
+                case "--locations":
+                    locationCount = Integer.parseInt(args[i + 1]);
+                    break;
+                case "--threads":
+                    threads = Integer.parseInt(args[i + 1]);
+                    break;
+                case "--shards":
+                    shards = Integer.parseInt(args[i + 1]);
+                    break;
+                case "--rate":
+                    rate = Double.parseDouble(args[i + 1]);
+                    break;
+                case "--skew":
+                    skew = Double.parseDouble(args[i + 1]);
+                    break;
+                case "--warmup":
+                    warmupSeconds = Integer.parseInt(args[i + 1]);
+                    break;
+                case "--seconds":
+                    seconds = Integer.parseInt(args[i + 1]);
+                    break;
+                case "--report":
+                    reportSeconds = Integer.parseInt(args[i + 1]);
+                    break;
+                case "--mix":
+                    mix = args[i + 1];
+                    break;
+                default:
+                    throw new IllegalArgumentException("unknown argument: " + args[i]);
+            }
+        }
+        if (threads <= 0 || rate <= 0 || reportSeconds <= 0) {
+            throw new IllegalArgumentException("threads, rate and report interval must be positive");
+        }
+
+        RouteGenerator generator = new RouteGenerator(routeCount, 8, locationCount, skew, 42);
+        List<Route> routes = generator.routes();
+        Navigator navigator = navigator(kind, shards);
+        navigator.addRoutes(routes);
+
+        LoadHarness harness = new LoadHarness(navigator, routes, generator, locationCount, skew, weights(mix));
+        System.err.printf("%s navigator, %d routes, %d locations, %d threads, %.0f ops/s offered, mix %s%n",
+                kind, routeCount, locationCount, threads, rate, mix);
+        if (warmupSeconds > 0) {
+            harness.run(threads, rate, warmupSeconds, warmupSeconds, false);
+        }
+        harness.run(threads, rate, seconds, reportSeconds, true);
+    }
+
+    private static Navigator navigator(String kind, int shards) {
+        switch (kind) {
+            case "concurrent": {
+                ConcurrentNavigator navigator = new ConcurrentNavigator();
+                navigator.setQuiet(true);
+                return navigator;
+            }
+            case "sharded": {
+                ShardedNavigator navigator = new ShardedNavigator(shards);
+                navigator.setQuiet(true);
+                return navigator;
+            }
+            case "windowed": {
+                ConcurrentNavigator navigator = new ConcurrentNavigator();
+                navigator.setQuiet(true);
+                return new WindowedNavigator(navigator, PopularityWindow.sliding(TimeUnit.HOURS.toMillis(1), 60));
+            }
+            default:
+                throw new IllegalArgumentException("unknown navigator: " + kind);
+        }
+    }
+
+    void run(int threads, double rate, int seconds, int reportSeconds, boolean record) throws InterruptedException {
+        for (Histogram histogram : latencies) {
+            histogram.reset();
+        }
+        serviceTimes.reset();
+        window.reset();
+        completed.reset();
+        errors.reset();
+        recording = record;
+
+        long interval = (long) (TimeUnit.SECONDS.toNanos(1) * threads / rate);
+        long start = System.nanoTime();
+        long deadline = start + TimeUnit.SECONDS.toNanos(seconds);
+        Thread[] clients = new Thread[threads];
+        for (int i = 0; i < threads; i++) {
+            int client = i;
+            long firstArrival = start + interval * client / threads;
+            String prefix = (record ? "M" : "W") + client + "-";
+            clients[i] = new Thread(() -> drive(client, prefix, firstArrival, interval, deadline), "load-client-" + i);
+            clients[i].setDaemon(true);
+            clients[i].start();
+        }
+
+        long firstHeap = -1;
+        long lastHeap = -1;
+        long previousCompleted = 0;
+        long previousReport = start;
+        while (true) {
+            long now = System.nanoTime();
+            long nextReport = Math.min(deadline, previousReport + TimeUnit.SECONDS.toNanos(reportSeconds));
+            if (now < nextReport) {
+                TimeUnit.NANOSECONDS.sleep(nextReport - now);
+                continue;
+            }
+            if (record) {
+                long done = completed.sum();
+                long retained = retainedHeap();
+                if (firstHeap < 0) firstHeap = retained;
+                lastHeap = retained;
+                System.err.printf("%6.0fs %9.0f ops/s  p50 %7d  p99 %7d  p99.9 %7d  max %8d us  heap %5d MB  after gc %5d MB%n",
+                        (nextReport - start) / 1e9, (done - previousCompleted) * 1e9 / (nextReport - previousReport),
+                        window.percentile(50) / 1000, window.percentile(99) / 1000,
+                        window.percentile(99.9) / 1000, window.max() / 1000,
+                        usedHeap() >> 20, retained >> 20);
+                window.reset();
+                previousCompleted = done;
+            }
+            previousReport = nextReport;
+            if (nextReport >= deadline) break;
+        }
+        for (Thread client : clients) {
+            client.join();
+        }
+        if (record) {
+            report(System.nanoTime() - start, rate, firstHeap, lastHeap);
+        }
+    }
+
+    private void drive(int client, String prefix, long firstArrival, long interval, long deadline) {
+        Random random = new Random(7 + client);
+        Deque<String> added = new ArrayDeque<>();
+        long sequence = 0;
+        long arrival = firstArrival;
+        while (arrival < deadline) {
+            long now = System.nanoTime();
+            if (now < arrival) {
+                if (arrival - now > SPIN_THRESHOLD_NANOS) {
+                    LockSupport.parkNanos(arrival - now - SPIN_THRESHOLD_NANOS);
+                } else {
+                    Thread.onSpinWait();
+                }
+                continue;
+            }
+            Operation operation = operation(random);
+            long begin = System.nanoTime();
+            try {
+                execute(operation, random, added, prefix + sequence++);
+            } catch (RuntimeException e) {
+                errors.increment();
+            }
+            long end = System.nanoTime();
+            if (recording) {
+                latencies[operation.ordinal()].record(end - arrival);
+                window.record(end - arrival);
+                serviceTimes.record(end - begin);
+            }
+            completed.increment();
+            arrival += interval;
+        }
+    }
+
+    private Operation operation(Random random) {
+        int ticket = random.nextInt(mix[mix.length - 1]);
+        for (int i = 0; i < mix.length; i++) {
+            if (ticket < mix[i]) return OPERATIONS[i];
+        }
+        throw new IllegalStateException("empty operation mix");
+    }
+
+    private void execute(Operation operation, Random random, Deque<String> added, String newId) {
+        switch (operation) {
+            case ADD: {
+                Route route = generator.route(newId, random, 1 + routeRanks.sample(random));
+                navigator.addRoute(route);
+                added.addLast(newId);
+                break;
+            }
+            case REMOVE:
+                if (!added.isEmpty()) {
+                    navigator.removeRoute(added.removeFirst());
+                }
+                break;
+            case CHOOSE:
+                navigator.chooseRoute(routes.get(routeRanks.sample(random)).getId());
+                break;
+            case SEARCH: {
+                long[] candidates = boardings[locationRanks.sample(random)];
+                if (candidates.length == 0) break;
+                long boarding = candidates[random.nextInt(candidates.length)];
+                Route route = routes.get((int) (boarding >>> 32));
+                int from = (int) boarding;
+                int to = from + 1 + random.nextInt(route.getPointCount() - from - 1);
+                consume(navigator.searchRoutes(route.getLocationPoints().get(from),
+                        route.getLocationPoints().get(to), 0, 20));
+                break;
+            }
+            case FAVORITES:
+                consume(navigator.getFavoriteRoutes(RouteGenerator.location(locationRanks.sample(random)), 0, 20));
+                break;
+            case TOP:
+                consume(navigator.getTop3Routes());
+                break;
+        }
+    }
+
+    private static void consume(Iterable<Route> result) {
+        for (Route route : result) {
+            if (route == null) throw new IllegalStateException("null route in result");
+        }
+    }
+
+    private void report(long elapsedNanos, double rate, long firstHeap, long lastHeap) {
+        long total = completed.sum();
+        System.err.printf("%n%d operations in %.1f s: %.0f ops/s achieved of %.0f offered, errors %d%n",
+                total, elapsedNanos / 1e9, total * 1e9 / elapsedNanos, rate, errors.sum());
+        System.err.printf("%-10s %10s %9s %9s %9s %10s  (us; operations from intended start, service from actual start)%n",
+                "operation", "count", "p50", "p99", "p99.9", "max");
+        for (Operation operation : OPERATIONS) {
+            Histogram histogram = latencies[operation.ordinal()];
+            if (histogram.count() == 0) continue;
+            printRow(operation.label(), histogram);
+        }
+        printRow("service", serviceTimes);
+        if (firstHeap >= 0) {
+            double minutes = elapsedNanos / 6e10;
+            System.err.printf("retained heap after gc: %d MB -> %d MB (%+.2f MB/min)%n",
+                    firstHeap >> 20, lastHeap >> 20, (lastHeap - firstHeap) / 1048576.0 / Math.max(minutes, 1e-9));
+        }
+    }
+
+    private static void printRow(String label, Histogram histogram) {
+        System.err.printf("%-10s %10d %9d %9d %9d %10d%n", label, histogram.count(),
+                histogram.percentile(50) / 1000, histogram.percentile(99) / 1000,
+                histogram.percentile(99.9) / 1000, histogram.max() / 1000);
+    }
+
+    private static long usedHeap() {
+        return ManagementFactory.getMemoryMXBean().getHeapMemoryUsage().getUsed();
+    }
+
+    private static long retainedHeap() {
+        long used = 0;
+        for (MemoryPoolMXBean pool : ManagementFactory.getMemoryPoolMXBeans()) {
+            MemoryUsage afterGc = pool.getCollectionUsage();
+            if (pool.getType() == MemoryType.HEAP && afterGc != null) {
+                used += afterGc.getUsed();
+            }
+        }
+        return used;
+    }
+
+    private static long[][] boardings(List<Route> routes, int locationCount) {
+        List<List<Long>> byLocation = new ArrayList<>(locationCount);
+        for (int i = 0; i < locationCount; i++) {
+            byLocation.add(new ArrayList<>());
+        }
+        for (int i = 0; i < routes.size(); i++) {
+            List<String> points = routes.get(i).getLocationPoints();
+            for (int position = 0; position < points.size() - 1; position++) {
+                int location = Integer.parseInt(points.get(position).substring(1));
+                byLocation.get(location).add((long) i << 32 | position);
+            }
+        }
+        long[][] result = new long[locationCount][];
+        for (int i = 0; i < locationCount; i++) {
+            result[i] = byLocation.get(i).stream().mapToLong(Long::longValue).toArray();
+        }
+        return result;
+    }
+
+    private static int[] weights(String mix) {
+        int[] weights = new int[OPERATIONS.length];
+        for (String part : mix.split(",")) {
+            String[] pair = part.split("=");
+            if (pair.length != 2) {
+                throw new IllegalArgumentException("mix entries must look like name=weight: " + part);
+            }
+            weights[Operation.valueOf(pair[0].trim().toUpperCase(Locale.ROOT)).ordinal()] = Integer.parseInt(pair[1].trim());
+        }
+        return weights;
+    }
+
+    private static int[] cumulative(int[] weights) {
+        int[] cumulative = new int[weights.length];
+        int sum = 0;
+        for (int i = 0; i < weights.length; i++) {
+            if (weights[i] < 0) {
+                throw new IllegalArgumentException("mix weights must not be negative: " + weights[i]);
+            }
+            sum += weights[i];
+            cumulative[i] = sum;
+        }
+        if (sum == 0) {
+            throw new IllegalArgumentException("mix must contain at least one positive weight");
+        }
+        return cumulative;
+    }
+}
@@ -0,0 +1,233 @@
+package benchmark;
+
+import navigator.Connection;
+import navigator.Navigator;
+import navigator.NavigatorImpl;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import route.Route;
+
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class NavigatorBenchmark {
+    private static final int QUERIES = 1024;
+    private static final int RANGE_WIDTH = 100;
+
+    @Param({"10000", "100000"})
+    private int routeCount;
+
+    @Param({"8"})
+    private int pointsPerRoute;
+
+    @Param({"1000"})
+    private int locationCount;
+
+    @Param({"1.0"})
+    private double popularitySkew;
+
+    @Param({"10"})
+    private int topK;
+
+    @Param({"20"})
+    private int pageSize;
+
+    @Param({"1"})
+    private int maxTransfers;
+
+    private List<Route> routes;
+    private Navigator navigator;
+    private Route[] queryRoutes;
+    private Route[] extraRoutes;
+    private String[] startPoints;
+    private String[] endPoints;
+    private int[] rangeStarts;
+    private int cursor;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        System.setOut(new PrintStream(OutputStream.nullOutputStream()));
+
+        RouteGenerator generator = new RouteGenerator(routeCount, pointsPerRoute, locationCount, popularitySkew, 42);
+        routes = generator.routes();
+        navigator = new NavigatorImpl();
+        navigator.addRoutes(routes);
+
+        Random random = new Random(7);
+        queryRoutes = new Route[QUERIES];
+        extraRoutes = new Route[QUERIES];
+        startPoints = new String[QUERIES];
+        endPoints = new String[QUERIES];
+        rangeStarts = new int[QUERIES];
+        for (int i = 0; i < QUERIES; i++) {
+            Route route = routes.get(random.nextInt(routes.size()));
+            int start = random.nextInt(route.getPointCount() - 1);
+            int end = start + 1 + random.nextInt(route.getPointCount() - start - 1);
+            queryRoutes[i] = route;
+            startPoints[i] = route.getLocationPoints().get(start);
+            endPoints[i] = route.getLocationPoints().get(end);
+            rangeStarts[i] = random.nextInt(routeCount);
+            extraRoutes[i] = generator.route("X" + i, random, 1 + random.nextInt(routeCount));
+        }
+    }
+
+    private int next() {
+        cursor = (cursor + 1) & (QUERIES - 1);
+        return cursor;
+    }
+
+    @Benchmark
+    public void addAndRemoveRoute() {
+        Route route = extraRoutes[next()];
+        navigator.addRoute(route);
+        navigator.removeRoute(route.getId());
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.AverageTime)
+    public Navigator addRoutes() {
+        Navigator loaded = new NavigatorImpl();
+        loaded.addRoutes(routes);
+        return loaded;
+    }
+
+    @Benchmark
+    public boolean contains() {
+        return navigator.contains(queryRoutes[next()]);
+    }
+
+    @Benchmark
+    public int size() {
+        return navigator.size();
+    }
+
+    @Benchmark
+    public Route getRoute() {
+        return navigator.getRoute(queryRoutes[next()].getId());
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.AverageTime)
+    public void getRoutes(Blackhole blackhole) {
+        for (Route route : navigator.getRoutes()) {
+            blackhole.consume(route);
+        }
+    }
+
+    @Benchmark
+    public void getRoutesByIdPrefix(Blackhole blackhole) {
+        String id = queryRoutes[next()].getId();
+        for (Route route : navigator.getRoutesByIdPrefix(id.substring(0, id.length() - 2))) {
+            blackhole.consume(route);
+        }
+    }
+
+    @Benchmark
+    public void getRoutesByIdRange(Blackhole blackhole) {
+        int from = rangeStarts[next()];
+        for (Route route : navigator.getRoutesByIdRange(RouteGenerator.routeId(from), RouteGenerator.routeId(from + RANGE_WIDTH))) {
+            blackhole.consume(route);
+        }
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.AverageTime)
+    public void findRoutes(Blackhole blackhole) {
+        int query = next();
+        String startPoint = startPoints[query];
+        String endPoint = endPoints[query];
+        for (Route route : navigator.findRoutes(route -> route.containsPoint(startPoint) || route.containsPoint(endPoint))) {
+            blackhole.consume(route);
+        }
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.AverageTime)
+    public void findRoutesSequentialScan(Blackhole blackhole) {
+        int query = next();
+        String startPoint = startPoints[query];
+        String endPoint = endPoints[query];
+        for (Route route : navigator.getRoutes()) {
+            if (route.containsPoint(startPoint) || route.containsPoint(endPoint)) {
+                blackhole.consume(route);
+            }
+        }
+    }
+
+    @Benchmark
+    public void chooseRoute() {
+        navigator.chooseRoute(queryRoutes[next()].getId());
+    }
+
+    @Benchmark
+    public void searchRoutes(Blackhole blackhole) {
+        int i = next();
+        for (Route route : navigator.searchRoutes(startPoints[i], endPoints[i])) {
+            blackhole.consume(route);
+        }
+    }
+
+    @Benchmark
+    public void getFavoriteRoutes(Blackhole blackhole) {
+        for (Route route : navigator.getFavoriteRoutes(endPoints[next()])) {
+            blackhole.consume(route);
+        }
+    }
+
+    @Benchmark
+    public void searchRoutesPage(Blackhole blackhole) {
+        int i = next();
+        for (Route route : navigator.searchRoutes(startPoints[i], endPoints[i], 0, pageSize)) {
+            blackhole.consume(route);
+        }
+    }
+
+    @Benchmark
+    public void getFavoriteRoutesPage(Blackhole blackhole) {
+        for (Route route : navigator.getFavoriteRoutes(endPoints[next()], 0, pageSize)) {
+            blackhole.consume(route);
+        }
+    }
+
+    @Benchmark
+    public void searchConnections(Blackhole blackhole) {
+        int i = next();
+        for (Connection connection : navigator.searchConnections(startPoints[i], endPoints[(i + 1) & (QUERIES - 1)], maxTransfers)) {
+            blackhole.consume(connection);
+        }
+    }
+
+    @Benchmark
+    public void getTop3Routes(Blackhole blackhole) {
+        for (Route route : navigator.getTop3Routes()) {
+            blackhole.consume(route);
+        }
+    }
+
+    @Benchmark
+    public void getTopKRoutes(Blackhole blackhole) {
+        for (Route route : navigator.getTopKRoutes(topK)) {
+            blackhole.consume(route);
+        }
+    }
+}
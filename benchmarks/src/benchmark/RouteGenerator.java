@@ -0,0 +1,64 @@
+package benchmark;
+
+import route.Route;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+
+public class RouteGenerator {
+    private static final int MAX_POPULARITY = 100_000;
+
+    private final int routeCount;
+    private final int pointsPerRoute;
+    private final int locationCount;
+    private final double popularitySkew;
+    private final long seed;
+
+    public RouteGenerator(int routeCount, int pointsPerRoute, int locationCount, double popularitySkew, long seed) {
+        if (pointsPerRoute > locationCount) {
+            throw new IllegalArgumentException("pointsPerRoute " + pointsPerRoute + " exceeds locationCount " + locationCount);
+        }
+        this.routeCount = routeCount;
+        this.pointsPerRoute = pointsPerRoute;
+        this.locationCount = locationCount;
+        this.popularitySkew = popularitySkew;
+        this.seed = seed;
+    }
+
+    public List<Route> routes() {
+        Random random = new Random(seed);
+        List<Integer> ranks = new ArrayList<>(routeCount);
+        for (int i = 1; i <= routeCount; i++) {
+            ranks.add(i);
+        }
+        Collections.shuffle(ranks, random);
+
+        List<Route> routes = new ArrayList<>(routeCount);
+        for (int i = 0; i < routeCount; i++) {
+            routes.add(route(routeId(i), random, ranks.get(i)));
+        }
+        return routes;
+    }
+
+    public Route route(String routeId, Random random, int popularityRank) {
+        Route route = new Route();
+        route.setId(routeId);
+        for (int location : random.ints(0, locationCount).distinct().limit(pointsPerRoute).sorted().toArray()) {
+            route.addPoint(location(location));
+        }
+        route.setDistance(10 + random.nextInt(5_000) / 10.0);
+        route.setPopularity((int) (MAX_POPULARITY / Math.pow(popularityRank, popularitySkew)));
+        route.setFavorite(random.nextInt(10) == 0);
+        return route;
+    }
+
+    public static String routeId(int index) {
+        return String.format("R%09d", index);
+    }
+
+    public static String location(int index) {
+        return "L" + index;
+    }
+}
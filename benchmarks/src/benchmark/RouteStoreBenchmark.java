@@ -0,0 +1,116 @@
+package benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import route.LocationDictionary;
+import route.Route;
+import route.RouteStore;
+import treemap.TreeMap;
+
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class RouteStoreBenchmark {
+    private static final int QUERIES = 1024;
+
+    @Param({"100000", "1000000"})
+    private int routeCount;
+
+    @Param({"8"})
+    private int pointsPerRoute;
+
+    @Param({"1000"})
+    private int locationCount;
+
+    private TreeMap<String, Route> heap;
+    private RouteStore store;
+    private RouteStore.View view;
+    private String[] queryIds;
+    private int[] queryPoints;
+    private int cursor;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        List<Route> routes = new RouteGenerator(routeCount, pointsPerRoute, locationCount, 1.0, 42).routes();
+        heap = new TreeMap<>();
+        store = new RouteStore();
+        for (Route route : routes) {
+            heap.putIfAbsent(route.getId(), route);
+            store.put(route);
+        }
+        view = store.view();
+
+        Random random = new Random(7);
+        queryIds = new String[QUERIES];
+        queryPoints = new int[QUERIES];
+        for (int i = 0; i < QUERIES; i++) {
+            queryIds[i] = routes.get(random.nextInt(routes.size())).getId();
+            queryPoints[i] = LocationDictionary.global().find(RouteGenerator.location(random.nextInt(locationCount)));
+        }
+    }
+
+    private int next() {
+        cursor = (cursor + 1) & (QUERIES - 1);
+        return cursor;
+    }
+
+    @Benchmark
+    public int heapChooseRoute() {
+        Route route = heap.get(queryIds[next()]);
+        route.setPopularity(route.getPopularity() + 1);
+        return route.getPopularity();
+    }
+
+    @Benchmark
+    public boolean storeChooseRoute() {
+        return store.addPopularity(queryIds[next()], 1);
+    }
+
+    @Benchmark
+    public double storeFind() {
+        return store.find(queryIds[next()], view) ? view.getDistance() : 0;
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.AverageTime)
+    public int heapScan() {
+        int pointId = queryPoints[next()];
+        int count = 0;
+        for (Route route : heap.values()) {
+            if (route.containsPointId(pointId)) {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.AverageTime)
+    public int storeScan() {
+        int pointId = queryPoints[next()];
+        int[] count = {0};
+        store.forEach(route -> {
+            if (route.containsPointId(pointId)) {
+                count[0]++;
+            }
+        });
+        return count[0];
+    }
+}
@@ -0,0 +1,109 @@
+package benchmark;
+
+import navigator.ShardedNavigator;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import route.Route;
+
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@Threads(Threads.MAX)
+public class ShardedNavigatorBenchmark {
+    private static final int QUERIES = 1024;
+
+    @Param({"100000"})
+    private int routeCount;
+
+    @Param({"1", "4", "16"})
+    private int shardCount;
+
+    @Param({"10"})
+    private int topK;
+
+    @Param({"20"})
+    private int pageSize;
+
+    private ShardedNavigator navigator;
+    private String[] routeIds;
+    private String[] startPoints;
+    private String[] endPoints;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        RouteGenerator generator = new RouteGenerator(routeCount, 8, 1000, 1.0, 42);
+        List<Route> routes = generator.routes();
+        navigator = new ShardedNavigator(shardCount);
+        navigator.setQuiet(true);
+        navigator.addRoutes(routes);
+
+        Random random = new Random(7);
+        routeIds = new String[QUERIES];
+        startPoints = new String[QUERIES];
+        endPoints = new String[QUERIES];
+        for (int i = 0; i < QUERIES; i++) {
+            Route route = routes.get(random.nextInt(routes.size()));
+            int start = random.nextInt(route.getPointCount() - 1);
+            int end = start + 1 + random.nextInt(route.getPointCount() - start - 1);
+            routeIds[i] = route.getId();
+            startPoints[i] = route.getLocationPoints().get(start);
+            endPoints[i] = route.getLocationPoints().get(end);
+        }
+    }
+
+    private static int next() {
+        return ThreadLocalRandom.current().nextInt(QUERIES);
+    }
+
+    @Benchmark
+    public Route getRoute() {
+        return navigator.getRoute(routeIds[next()]);
+    }
+
+    @Benchmark
+    public void chooseRoute() {
+        navigator.chooseRoute(routeIds[next()]);
+    }
+
+    @Benchmark
+    public void searchRoutesPage(Blackhole blackhole) {
+        int query = next();
+        for (Route route : navigator.searchRoutes(startPoints[query], endPoints[query], 0, pageSize)) {
+            blackhole.consume(route);
+        }
+    }
+
+    @Benchmark
+    public void getFavoriteRoutesPage(Blackhole blackhole) {
+        for (Route route : navigator.getFavoriteRoutes(endPoints[next()], 0, pageSize)) {
+            blackhole.consume(route);
+        }
+    }
+
+    @Benchmark
+    public void getTopKRoutes(Blackhole blackhole) {
+        for (Route route : navigator.getTopKRoutes(topK)) {
+            blackhole.consume(route);
+        }
+    }
+}
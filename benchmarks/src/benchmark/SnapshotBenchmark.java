@@ -0,0 +1,69 @@
+package benchmark;
+
+import navigator.NavigatorImpl;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import route.Route;
+import storage.Snapshot;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SnapshotBenchmark {
+    @Param({"100000", "1000000"})
+    private int routeCount;
+
+    @Param({"8"})
+    private int pointsPerRoute;
+
+    @Param({"1000"})
+    private int locationCount;
+
+    private Path file;
+    private Random random;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        file = Files.createTempFile("navigator-", ".snapshot");
+        Snapshot.write(file, new RouteGenerator(routeCount, pointsPerRoute, locationCount, 1.0, 42).routes());
+        random = new Random(7);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        Files.deleteIfExists(file);
+    }
+
+    @Benchmark
+    public Route openAndFind() throws IOException {
+        return Snapshot.open(file).findRoute(RouteGenerator.routeId(random.nextInt(routeCount)));
+    }
+
+    @Benchmark
+    public int recover() throws IOException {
+        NavigatorImpl navigator = new NavigatorImpl();
+        navigator.setQuiet(true);
+        navigator.addRoutes(Snapshot.open(file).routes());
+        return navigator.size();
+    }
+}
@@ -0,0 +1,191 @@
+package benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import treemap.ArrayTreeMap;
+import treemap.TreeMap;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class TreeMapBenchmark {
+    private static final int QUERIES = 1024;
+
+    @Param({"1000", "100000", "1000000"})
+    private int size;
+
+    private String[] keys;
+    private List<String> sortedKeys;
+    private String[] queryKeys;
+    private TreeMap<String, String> treeMap;
+    private ArrayTreeMap<String, String> arrayTreeMap;
+    private java.util.TreeMap<String, String> javaTreeMap;
+    private int cursor;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        Random random = new Random(42);
+        List<String> shuffled = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            shuffled.add(RouteGenerator.routeId(i));
+        }
+        Collections.shuffle(shuffled, random);
+        keys = shuffled.toArray(new String[0]);
+        String[] sorted = keys.clone();
+        Arrays.sort(sorted);
+        sortedKeys = Arrays.asList(sorted);
+
+        treeMap = new TreeMap<>();
+        arrayTreeMap = new ArrayTreeMap<>();
+        javaTreeMap = new java.util.TreeMap<>();
+        for (String key : keys) {
+            treeMap.insert(key, key);
+            arrayTreeMap.insert(key, key);
+            javaTreeMap.put(key, key);
+        }
+
+        queryKeys = new String[QUERIES];
+        for (int i = 0; i < QUERIES; i++) {
+            queryKeys[i] = keys[random.nextInt(size)];
+        }
+    }
+
+    private int next() {
+        cursor = (cursor + 1) & (QUERIES - 1);
+        return cursor;
+    }
+
+    @Benchmark
+    public String treeMapGet() {
+        return treeMap.get(queryKeys[next()]);
+    }
+
+    @Benchmark
+    public String arrayTreeMapGet() {
+        return arrayTreeMap.get(queryKeys[next()]);
+    }
+
+    @Benchmark
+    public String javaTreeMapGet() {
+        return javaTreeMap.get(queryKeys[next()]);
+    }
+
+    @Benchmark
+    public void treeMapRemoveInsert() {
+        String key = queryKeys[next()];
+        treeMap.remove(key);
+        treeMap.insert(key, key);
+    }
+
+    @Benchmark
+    public void arrayTreeMapRemoveInsert() {
+        String key = queryKeys[next()];
+        arrayTreeMap.remove(key);
+        arrayTreeMap.insert(key, key);
+    }
+
+    @Benchmark
+    public void javaTreeMapRemoveInsert() {
+        String key = queryKeys[next()];
+        javaTreeMap.remove(key);
+        javaTreeMap.put(key, key);
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.AverageTime)
+    public TreeMap<String, String> treeMapInsertAll() {
+        TreeMap<String, String> map = new TreeMap<>();
+        for (String key : keys) {
+            map.insert(key, key);
+        }
+        return map;
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.AverageTime)
+    public ArrayTreeMap<String, String> arrayTreeMapInsertAll() {
+        ArrayTreeMap<String, String> map = new ArrayTreeMap<>();
+        for (String key : keys) {
+            map.insert(key, key);
+        }
+        return map;
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.AverageTime)
+    public java.util.TreeMap<String, String> javaTreeMapInsertAll() {
+        java.util.TreeMap<String, String> map = new java.util.TreeMap<>();
+        for (String key : keys) {
+            map.put(key, key);
+        }
+        return map;
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.AverageTime)
+    public TreeMap<String, String> treeMapBuildFromSorted() {
+        TreeMap<String, String> map = new TreeMap<>();
+        map.buildFromSorted(sortedKeys, sortedKeys);
+        return map;
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.AverageTime)
+    public ArrayTreeMap<String, String> arrayTreeMapBuildFromSorted() {
+        ArrayTreeMap<String, String> map = new ArrayTreeMap<>();
+        map.buildFromSorted(sortedKeys, sortedKeys);
+        return map;
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.AverageTime)
+    public java.util.TreeMap<String, String> javaTreeMapBuildFromSorted() {
+        return new java.util.TreeMap<>(javaTreeMap);
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.AverageTime)
+    public void treeMapIterate(Blackhole blackhole) {
+        for (String value : treeMap.values()) {
+            blackhole.consume(value);
+        }
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.AverageTime)
+    public void arrayTreeMapIterate(Blackhole blackhole) {
+        for (String value : arrayTreeMap.values()) {
+            blackhole.consume(value);
+        }
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.AverageTime)
+    public void javaTreeMapIterate(Blackhole blackhole) {
+        for (Map.Entry<String, String> entry : javaTreeMap.entrySet()) {
+            blackhole.consume(entry.getValue());
+        }
+    }
+}
@@ -0,0 +1,110 @@
+package benchmark;
+
+import navigator.Navigator;
+import navigator.NavigatorImpl;
+import navigator.PopularityWindow;
+import navigator.WindowedNavigator;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import route.Route;
+
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class WindowedNavigatorBenchmark {
+    private static final int QUERIES = 1 << 16;
+
+    @Param({"100000"})
+    private int routeCount;
+
+    @Param({"sliding", "decaying"})
+    private String window;
+
+    @Param({"1000"})
+    private long windowMillis;
+
+    @Param({"1.0"})
+    private double voteSkew;
+
+    @Param({"10"})
+    private int topPerMille;
+
+    private Navigator lifetime;
+    private WindowedNavigator windowed;
+    private String[] chosenIds;
+    private boolean[] readsTop;
+    private int cursor;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        System.setOut(new PrintStream(OutputStream.nullOutputStream()));
+
+        List<Route> routes = new RouteGenerator(routeCount, 8, 1000, 1.0, 42).routes();
+        lifetime = new NavigatorImpl();
+        lifetime.addRoutes(routes);
+        NavigatorImpl inner = new NavigatorImpl();
+        inner.addRoutes(routes);
+        windowed = new WindowedNavigator(inner, window.equals("sliding")
+                ? PopularityWindow.sliding(windowMillis, 10)
+                : PopularityWindow.decaying(windowMillis));
+
+        Random random = new Random(7);
+        ZipfDistribution zipf = new ZipfDistribution(routeCount, voteSkew);
+        chosenIds = new String[QUERIES];
+        readsTop = new boolean[QUERIES];
+        for (int i = 0; i < QUERIES; i++) {
+            chosenIds[i] = routes.get(zipf.sample(random)).getId();
+            readsTop[i] = random.nextInt(1000) < topPerMille;
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void reportRescores() {
+        System.err.printf("rescores %d%n", windowed.rescoreCount());
+    }
+
+    private int next() {
+        cursor = (cursor + 1) & (QUERIES - 1);
+        return cursor;
+    }
+
+    @Benchmark
+    public void lifetimeMix(Blackhole blackhole) {
+        mix(lifetime, next(), blackhole);
+    }
+
+    @Benchmark
+    public void windowedMix(Blackhole blackhole) {
+        mix(windowed, next(), blackhole);
+    }
+
+    private void mix(Navigator navigator, int i, Blackhole blackhole) {
+        navigator.chooseRoute(chosenIds[i]);
+        if (readsTop[i]) {
+            for (Route route : navigator.getTop3Routes()) {
+                blackhole.consume(route);
+            }
+        }
+    }
+}
@@ -2,7 +2,7 @@ import app.App;
 
 public class Main {
     public static void main(String[] args) {
-        App.run();
+        App.run(args);
     }
 
 
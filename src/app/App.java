@@ -1,14 +1,82 @@
 package app;
 
+import navigator.ConcurrentNavigator;
+import navigator.InstrumentedNavigator;
 import navigator.Navigator;
 import navigator.NavigatorImpl;
+import navigator.NavigatorMetrics;
+import navigator.StoreNavigator;
 import route.Route;
+import server.NavigatorServer;
 
+import javax.management.JMException;
+import java.io.BufferedOutputStream;
+import java.io.BufferedReader;
+import java.io.FileDescriptor;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.util.Scanner;
+import java.util.function.Consumer;
 
 public class App {
+    private static final int OUTPUT_BUFFER_SIZE = 1 << 16;
+
+    public static void run(String[] args) {
+        Path commands = null;
+        Path output = null;
+        boolean quiet = false;
+        boolean offHeap = false;
+        int port = -1;
+        for (int i = 0; i < args.length; i++) {
+            switch (args[i]) {
+                case "--batch":
+                    commands = Path.of(argument(args, ++i));
+                    break;
+                case "--output":
+                    output = Path.of(argument(args, ++i));
+                    break;
+                case "--quiet":
+                    quiet = true;
+                    break;
+                case "--off-heap":
+                    offHeap = true;
+                    break;
+                case "--serve":
+                    port = Integer.parseInt(argument(args, ++i));
+                    break;
+                default:
+                    throw new IllegalArgumentException("unknown argument: " + args[i]);
+            }
+        }
+
+        if (port >= 0) {
+            runServer(port);
+        } else if (commands == null) {
+            run(offHeap);
+        } else {
+            runBatch(commands, output, quiet, offHeap);
+        }
+    }
+
+    private static String argument(String[] args, int index) {
+        if (index >= args.length) {
+            throw new IllegalArgumentException(args[index - 1] + " expects a value");
+        }
+        return args[index];
+    }
+
     public static void run() {
-        Navigator navigator = new NavigatorImpl();
+        run(false);
+    }
+
+    public static void run(boolean offHeap) {
+        Navigator navigator = createNavigator(false, offHeap);
         Scanner scanner = new Scanner(System.in);
         while (true) {
             printMenu();
@@ -40,6 +108,75 @@ public class App {
         }
     }
 
+    public static void runBatch(Path commands, Path output, boolean quiet) {
+        runBatch(commands, output, quiet, false);
+    }
+
+    public static void runBatch(Path commands, Path output, boolean quiet, boolean offHeap) {
+        PrintStream console = System.out;
+        PrintStream out = null;
+        try (BufferedReader in = Files.newBufferedReader(commands, StandardCharsets.UTF_8)) {
+            OutputStream stream = (output != null) ? Files.newOutputStream(output) : new FileOutputStream(FileDescriptor.out);
+            out = new PrintStream(new BufferedOutputStream(stream, OUTPUT_BUFFER_SIZE), false, StandardCharsets.UTF_8);
+            if (output == null) {
+                System.setOut(out);
+            }
+            BatchRunner runner = new BatchRunner(createNavigator(quiet, offHeap), out, System.err, quiet);
+            long count = runner.run(in);
+            if (!quiet) {
+                console.println("Обработано команд: " + count);
+            }
+            if (runner.errors() > 0) {
+                System.err.println("Пропущено команд с ошибками: " + runner.errors());
+            }
+        } catch (IOException | IllegalArgumentException e) {
+            System.err.println("Ошибка пакетного режима: " + e.getMessage());
+        } finally {
+            System.setOut(console);
+            if (out != null) {
+                out.flush();
+                if (output != null) {
+                    out.close();
+                }
+            }
+        }
+    }
+
+    public static void runServer(int port) {
+        ConcurrentNavigator navigator = new ConcurrentNavigator();
+        navigator.setQuiet(true);
+        try {
+            NavigatorServer server = new NavigatorServer(instrument(navigator, navigator::registerGauges),
+                    new InetSocketAddress(port), 0);
+            server.start();
+            System.out.println("Сервер запущен на порту " + server.port() + ".");
+        } catch (IOException e) {
+            System.err.println("Не удалось запустить сервер: " + e.getMessage());
+        }
+    }
+
+    private static Navigator createNavigator(boolean quiet, boolean offHeap) {
+        if (offHeap) {
+            StoreNavigator navigator = new StoreNavigator();
+            navigator.setQuiet(quiet);
+            return instrument(navigator, navigator::registerGauges);
+        }
+        NavigatorImpl navigator = new NavigatorImpl();
+        navigator.setQuiet(quiet);
+        return instrument(navigator, navigator::registerGauges);
+    }
+
+    private static Navigator instrument(Navigator navigator, Consumer<NavigatorMetrics> gauges) {
+        NavigatorMetrics metrics = new NavigatorMetrics();
+        gauges.accept(metrics);
+        try {
+            metrics.register();
+        } catch (JMException e) {
+            System.err.println("Не удалось зарегистрировать метрики: " + e.getMessage());
+        }
+        return new InstrumentedNavigator(navigator, metrics);
+    }
+
     private static void printMenu() {
         System.out.println("––––––––– Навигатор –––––––––");
         System.out.println("1. Добавить маршрут");
@@ -0,0 +1,164 @@
+package app;
+
+import navigator.Connection;
+import navigator.Navigator;
+import route.Route;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+class BatchRunner {
+    private static final int BATCH_SIZE = 4096;
+    private static final String SEPARATOR = "\t";
+
+    private final Navigator navigator;
+    private final PrintStream out;
+    private final PrintStream err;
+    private final boolean batchAdds;
+    private final StringBuilder buffer;
+    private final List<Route> pendingRoutes;
+    private long errors;
+
+    BatchRunner(Navigator navigator, PrintStream out, PrintStream err, boolean batchAdds) {
+        this.navigator = navigator;
+        this.out = out;
+        this.err = err;
+        this.batchAdds = batchAdds;
+        this.buffer = new StringBuilder(1024);
+        this.pendingRoutes = new ArrayList<>(BATCH_SIZE);
+    }
+
+    long run(BufferedReader in) throws IOException {
+        long commands = 0;
+        long lineNumber = 0;
+        String line;
+        while ((line = in.readLine()) != null) {
+            lineNumber++;
+            if (line.isBlank() || line.startsWith("#")) continue;
+            try {
+                execute(line.split(SEPARATOR), lineNumber);
+                commands++;
+            } catch (IllegalArgumentException e) {
+                errors++;
+                err.println("Команда пропущена: " + e.getMessage());
+            }
+        }
+        flushRoutes();
+        out.flush();
+        return commands;
+    }
+
+    long errors() {
+        return errors;
+    }
+
+    private void execute(String[] fields, long lineNumber) {
+        String command = fields[0];
+        if (command.equals("add")) {
+            Route route = parseRoute(fields, lineNumber);
+            if (!batchAdds) {
+                navigator.addRoute(route);
+                return;
+            }
+            pendingRoutes.add(route);
+            if (pendingRoutes.size() >= BATCH_SIZE) {
+                flushRoutes();
+            }
+            return;
+        }
+
+        flushRoutes();
+        switch (command) {
+            case "remove":
+                expectFields(fields, 2, lineNumber);
+                navigator.removeRoute(fields[1]);
+                break;
+            case "choose":
+                expectFields(fields, 2, lineNumber);
+                navigator.chooseRoute(fields[1]);
+                break;
+            case "favorite":
+                expectFields(fields, 3, lineNumber);
+                navigator.setFavorite(fields[1], Boolean.parseBoolean(fields[2]));
+                break;
+            case "search":
+                expectFields(fields, 3, lineNumber);
+                write("Результаты поиска:", navigator.searchRoutes(fields[1], fields[2]));
+                break;
+            case "favorites":
+                expectFields(fields, 2, lineNumber);
+                write("Избранные маршруты:", navigator.getFavoriteRoutes(fields[1]));
+                break;
+            case "connections":
+                expectFields(fields, 4, lineNumber);
+                writeConnections(navigator.searchConnections(fields[1], fields[2], parseInt(fields[3], lineNumber)));
+                break;
+            case "top":
+                expectFields(fields, 1, lineNumber);
+                write("Топ-3 маршрута:", navigator.getTop3Routes());
+                break;
+            default:
+                throw new IllegalArgumentException("line " + lineNumber + ": unknown command '" + command + "'");
+        }
+    }
+
+    private Route parseRoute(String[] fields, long lineNumber) {
+        if (fields.length < 6) {
+            throw new IllegalArgumentException("line " + lineNumber
+                    + ": add expects id, distance, popularity, favorite and at least one point");
+        }
+        try {
+            return new Route(fields[1], Double.parseDouble(fields[2]), Integer.parseInt(fields[3]),
+                    Boolean.parseBoolean(fields[4]), Arrays.asList(fields).subList(5, fields.length));
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("line " + lineNumber + ": " + e.getMessage(), e);
+        }
+    }
+
+    private int parseInt(String field, long lineNumber) {
+        try {
+            return Integer.parseInt(field);
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("line " + lineNumber + ": " + e.getMessage(), e);
+        }
+    }
+
+    private void expectFields(String[] fields, int count, long lineNumber) {
+        if (fields.length != count) {
+            throw new IllegalArgumentException("line " + lineNumber + ": " + fields[0]
+                    + " expects " + (count - 1) + " arguments, got " + (fields.length - 1));
+        }
+    }
+
+    private void flushRoutes() {
+        if (pendingRoutes.isEmpty()) return;
+        if (pendingRoutes.size() == 1) {
+            navigator.addRoute(pendingRoutes.get(0));
+        } else {
+            navigator.addRoutes(pendingRoutes);
+        }
+        pendingRoutes.clear();
+    }
+
+    private void write(String header, Iterable<Route> routes) {
+        buffer.setLength(0);
+        buffer.append(header).append('\n');
+        for (Route route : routes) {
+            route.appendTo(buffer).append('\n');
+        }
+        out.append(buffer);
+    }
+
+    private void writeConnections(List<Connection> connections) {
+        buffer.setLength(0);
+        buffer.append("Маршруты с пересадками:").append('\n');
+        for (Connection connection : connections) {
+            buffer.append(connection).append('\n');
+        }
+        out.append(buffer);
+    }
+}
@@ -0,0 +1,7 @@
+package metrics;
+
+public interface MetricsSink {
+    void counter(String name, long value);
+    void gauge(String name, long value);
+    void histogram(String name, Histogram histogram);
+}
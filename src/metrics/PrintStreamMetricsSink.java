@@ -0,0 +1,28 @@
+package metrics;
+
+import java.io.PrintStream;
+
+public class PrintStreamMetricsSink implements MetricsSink {
+    private final PrintStream out;
+
+    public PrintStreamMetricsSink(PrintStream out) {
+        this.out = out;
+    }
+
+    @Override
+    public void counter(String name, long value) {
+        out.println(name + " " + value);
+    }
+
+    @Override
+    public void gauge(String name, long value) {
+        out.println(name + " " + value);
+    }
+
+    @Override
+    public void histogram(String name, Histogram histogram) {
+        out.printf("%s count=%d mean=%.1f p50=%d p90=%d p99=%d p999=%d max=%d%n", name,
+                histogram.count(), histogram.mean(), histogram.percentile(50), histogram.percentile(90),
+                histogram.percentile(99), histogram.percentile(99.9), histogram.max());
+    }
+}
@@ -0,0 +1,421 @@
+package navigator;
+
+import route.LocationDictionary;
+import route.Route;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Predicate;
+
+public class CachingNavigator implements Navigator {
+    private static final class QueryKey {
+        final String location;
+        final String endPoint;
+
+        private QueryKey(String location, String endPoint) {
+            this.location = location;
+            this.endPoint = endPoint;
+        }
+
+        static QueryKey search(String startPoint, String endPoint) {
+            return new QueryKey(startPoint, endPoint);
+        }
+
+        static QueryKey favorites(String destinationPoint) {
+            return new QueryKey(destinationPoint, null);
+        }
+
+        boolean isFavorites() {
+            return endPoint == null;
+        }
+
+        boolean matches(Route route) {
+            if (isFavorites()) {
+                return route.isFavorite() && !route.getLocationPoints().get(0).equals(location);
+            }
+            return route.visitsInOrder(location, endPoint);
+        }
+
+        Comparator<Route> order() {
+            if (isFavorites()) {
+                return (a, b) -> RouteCandidate.FAVORITE_ORDER.compare(
+                        RouteCandidate.forFavorite(a), RouteCandidate.forFavorite(b));
+            }
+            LocationDictionary dictionary = LocationDictionary.global();
+            int startId = dictionary.find(location);
+            int endId = dictionary.find(endPoint);
+            return (a, b) -> RouteCandidate.SEARCH_ORDER.compare(
+                    RouteCandidate.forSearch(a, startId, endId), RouteCandidate.forSearch(b, startId, endId));
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) return true;
+            if (o == null || getClass() != o.getClass()) return false;
+            QueryKey other = (QueryKey) o;
+            return location.equals(other.location) && Objects.equals(endPoint, other.endPoint);
+        }
+
+        @Override
+        public int hashCode() {
+            return 31 * location.hashCode() + Objects.hashCode(endPoint);
+        }
+    }
+
+    private static final Route[] PENDING = new Route[0];
+    private static final Route[] STALE = new Route[0];
+
+    private static final class Entry {
+        final QueryKey key;
+        final AtomicReference<Route[]> routes = new AtomicReference<>(PENDING);
+
+        Entry(QueryKey key) {
+            this.key = key;
+        }
+    }
+
+    private final Navigator navigator;
+    private final int capacity;
+    private final Map<QueryKey, Entry> cache;
+    private final Map<String, Map<QueryKey, Entry>> keysByLocation;
+    private final LongAdder hits;
+    private final LongAdder misses;
+    private final LongAdder evictions;
+    private final LongAdder invalidations;
+    private final LongAdder reranks;
+
+    public CachingNavigator(Navigator navigator, int capacity) {
+        if (capacity <= 0) {
+            throw new IllegalArgumentException("capacity must be positive: " + capacity);
+        }
+        this.navigator = navigator;
+        this.capacity = capacity;
+        this.keysByLocation = new ConcurrentHashMap<>();
+        this.hits = new LongAdder();
+        this.misses = new LongAdder();
+        this.evictions = new LongAdder();
+        this.invalidations = new LongAdder();
+        this.reranks = new LongAdder();
+        this.cache = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<QueryKey, Entry> eldest) {
+                if (size() <= CachingNavigator.this.capacity) {
+                    return false;
+                }
+                unregister(eldest.getValue());
+                evictions.increment();
+                return true;
+            }
+        };
+    }
+
+    @Override
+    public void addRoute(Route route) {
+        navigator.addRoute(route);
+        invalidate(route);
+    }
+
+    @Override
+    public void addRoutes(Collection<Route> routes) {
+        navigator.addRoutes(routes);
+        for (Route route : routes) {
+            invalidate(route);
+        }
+    }
+
+    @Override
+    public void removeRoute(String routeId) {
+        Route route = navigator.getRoute(routeId);
+        navigator.removeRoute(routeId);
+        if (route != null) {
+            invalidate(route);
+        }
+    }
+
+    @Override
+    public boolean contains(Route route) {
+        return navigator.contains(route);
+    }
+
+    @Override
+    public int size() {
+        return navigator.size();
+    }
+
+    @Override
+    public Route getRoute(String routeId) {
+        return navigator.getRoute(routeId);
+    }
+
+    @Override
+    public Iterable<Route> getRoutes() {
+        return navigator.getRoutes();
+    }
+
+    @Override
+    public Iterable<Route> getRoutesByIdPrefix(String prefix) {
+        return navigator.getRoutesByIdPrefix(prefix);
+    }
+
+    @Override
+    public Iterable<Route> getRoutesByIdRange(String fromId, String toId) {
+        return navigator.getRoutesByIdRange(fromId, toId);
+    }
+
+    @Override
+    public Iterable<Route> findRoutes(Predicate<Route> filter) {
+        return navigator.findRoutes(filter);
+    }
+
+    @Override
+    public void chooseRoute(String routeId) {
+        navigator.chooseRoute(routeId);
+        rerank(routeId, false);
+    }
+
+    @Override
+    public void setFavorite(String routeId, boolean favorite) {
+        navigator.setFavorite(routeId, favorite);
+        rerank(routeId, true);
+    }
+
+    @Override
+    public Iterable<Route> searchRoutes(String startPoint, String endPoint) {
+        if (startPoint == null || endPoint == null) {
+            return navigator.searchRoutes(startPoint, endPoint);
+        }
+        return page(cached(QueryKey.search(startPoint, endPoint)), 0, Integer.MAX_VALUE);
+    }
+
+    @Override
+    public Iterable<Route> searchRoutes(String startPoint, String endPoint, int offset, int limit) {
+        if (startPoint == null || endPoint == null) {
+            return navigator.searchRoutes(startPoint, endPoint, offset, limit);
+        }
+        return page(cached(QueryKey.search(startPoint, endPoint)), offset, limit);
+    }
+
+    @Override
+    public Iterable<Route> getFavoriteRoutes(String destinationPoint) {
+        if (destinationPoint == null) {
+            return navigator.getFavoriteRoutes(null);
+        }
+        return page(cached(QueryKey.favorites(destinationPoint)), 0, Integer.MAX_VALUE);
+    }
+
+    @Override
+    public Iterable<Route> getFavoriteRoutes(String destinationPoint, int offset, int limit) {
+        if (destinationPoint == null) {
+            return navigator.getFavoriteRoutes(null, offset, limit);
+        }
+        return page(cached(QueryKey.favorites(destinationPoint)), offset, limit);
+    }
+
+    @Override
+    public List<Connection> searchConnections(String startPoint, String endPoint, int maxTransfers) {
+        return navigator.searchConnections(startPoint, endPoint, maxTransfers);
+    }
+
+    @Override
+    public Iterable<Route> getTop3Routes() {
+        return navigator.getTop3Routes();
+    }
+
+    @Override
+    public Iterable<Route> getTopKRoutes(int k) {
+        return navigator.getTopKRoutes(k);
+    }
+
+    public long hitCount() {
+        return hits.sum();
+    }
+
+    public long missCount() {
+        return misses.sum();
+    }
+
+    public long evictionCount() {
+        return evictions.sum();
+    }
+
+    public long invalidationCount() {
+        return invalidations.sum();
+    }
+
+    public long rerankCount() {
+        return reranks.sum();
+    }
+
+    public double hitRate() {
+        long hitCount = hits.sum();
+        long requests = hitCount + misses.sum();
+        return (requests == 0) ? 0 : (double) hitCount / requests;
+    }
+
+    public int cachedQueries() {
+        synchronized (cache) {
+            return cache.size();
+        }
+    }
+
+    public void registerGauges(NavigatorMetrics metrics) {
+        metrics.gauge("cache.hits", hits::sum);
+        metrics.gauge("cache.misses", misses::sum);
+        metrics.gauge("cache.evictions", evictions::sum);
+        metrics.gauge("cache.invalidations", invalidations::sum);
+        metrics.gauge("cache.reranks", reranks::sum);
+        metrics.gauge("cache.size", this::cachedQueries);
+    }
+
+    private List<Route> page(Route[] routes, int offset, int limit) {
+        if (offset < 0 || limit < 0) {
+            throw new IllegalArgumentException("offset and limit must not be negative: " + offset + ", " + limit);
+        }
+        int from = Math.min(offset, routes.length);
+        int to = (int) Math.min(routes.length, (long) from + limit);
+        return Collections.unmodifiableList(Arrays.asList(routes).subList(from, to));
+    }
+
+    private Route[] cached(QueryKey key) {
+        Entry entry;
+        synchronized (cache) {
+            entry = cache.get(key);
+            if (entry == null) {
+                entry = new Entry(key);
+                cache.put(key, entry);
+                register(entry);
+            } else {
+                Route[] routes = entry.routes.get();
+                if (routes != PENDING && routes != STALE) {
+                    hits.increment();
+                    return routes;
+                }
+                entry = null;
+            }
+        }
+        misses.increment();
+
+        Iterable<Route> result = key.isFavorites()
+                ? navigator.getFavoriteRoutes(key.location)
+                : navigator.searchRoutes(key.location, key.endPoint);
+        List<Route> list = new ArrayList<>();
+        result.forEach(list::add);
+        Route[] routes = list.toArray(new Route[0]);
+
+        if (entry != null && !entry.routes.compareAndSet(PENDING, routes)) {
+            discard(entry);
+        }
+        return routes;
+    }
+
+    private void register(Entry entry) {
+        keysByLocation.compute(entry.key.location, (location, entries) -> {
+            if (entries == null) {
+                entries = new ConcurrentHashMap<>();
+            }
+            entries.put(entry.key, entry);
+            return entries;
+        });
+    }
+
+    private void unregister(Entry entry) {
+        keysByLocation.computeIfPresent(entry.key.location, (location, entries) -> {
+            entries.remove(entry.key, entry);
+            return entries.isEmpty() ? null : entries;
+        });
+    }
+
+    private void discard(Entry entry) {
+        synchronized (cache) {
+            if (cache.get(entry.key) == entry) {
+                cache.remove(entry.key);
+            }
+        }
+        unregister(entry);
+    }
+
+    private void invalidate(Route route) {
+        for (String point : route.getLocationPoints()) {
+            Map<QueryKey, Entry> entries = keysByLocation.get(point);
+            if (entries == null) continue;
+            for (Entry entry : entries.values()) {
+                if (entry.key.matches(route)) {
+                    entry.routes.set(STALE);
+                    discard(entry);
+                    invalidations.increment();
+                }
+            }
+        }
+    }
+
+    private void rerank(String routeId, boolean favoriteChanged) {
+        Route route = navigator.getRoute(routeId);
+        if (route == null) return;
+        for (String point : route.getLocationPoints()) {
+            Map<QueryKey, Entry> entries = keysByLocation.get(point);
+            if (entries == null) continue;
+            for (Entry entry : entries.values()) {
+                if ((favoriteChanged || entry.key.matches(route)) && rerank(entry, routeId)) {
+                    reranks.increment();
+                }
+            }
+        }
+    }
+
+    private boolean rerank(Entry entry, String routeId) {
+        while (true) {
+            Route[] routes = entry.routes.get();
+            if (routes == STALE) return false;
+            Route[] next = STALE;
+            if (routes != PENDING) {
+                Route route = navigator.getRoute(routeId);
+                if (route == null) return false;
+                Route[] remaining = without(routes, route);
+                boolean member = entry.key.matches(route);
+                if (remaining.length == routes.length && !member) return false;
+                next = member ? with(remaining, route, entry.key.order()) : remaining;
+            }
+            if (entry.routes.compareAndSet(routes, next)) return true;
+        }
+    }
+
+    private static Route[] without(Route[] routes, Route route) {
+        for (int i = 0; i < routes.length; i++) {
+            if (routes[i].getId().equals(route.getId())) {
+                Route[] remaining = new Route[routes.length - 1];
+                System.arraycopy(routes, 0, remaining, 0, i);
+                System.arraycopy(routes, i + 1, remaining, i, routes.length - i - 1);
+                return remaining;
+            }
+        }
+        return routes;
+    }
+
+    private static Route[] with(Route[] routes, Route route, Comparator<Route> order) {
+        int low = 0;
+        int high = routes.length;
+        while (low < high) {
+            int middle = (low + high) >>> 1;
+            if (order.compare(routes[middle], route) < 0) {
+                low = middle + 1;
+            } else {
+                high = middle;
+            }
+        }
+        Route[] result = new Route[routes.length + 1];
+        System.arraycopy(routes, 0, result, 0, low);
+        result[low] = route;
+        System.arraycopy(routes, low, result, low + 1, routes.length - low);
+        return result;
+    }
+}
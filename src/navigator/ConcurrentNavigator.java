@@ -0,0 +1,342 @@
+package navigator;
+
+import route.Route;
+import treemap.PersistentTreeMap;
+
+import treemap.TreeView;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.LongSupplier;
+import java.util.function.Predicate;
+import java.util.function.UnaryOperator;
+
+public class ConcurrentNavigator implements Navigator {
+    private static final int FOLD_ROUTES = 64;
+    private static final long FOLD_VOTES = 1024;
+
+    private final NavigatorImpl navigator;
+    private final Lock lock;
+    private final Map<String, VoteCounter> counters;
+    private final Set<VoteCounter> pending;
+    private final LongSupplier sequences;
+    private volatile RouteSnapshot snapshot;
+
+    private static class VoteCounter {
+        final String routeId;
+        final int base;
+        final LongAdder votes = new LongAdder();
+        volatile long applied;
+
+        VoteCounter(String routeId, int base) {
+            this.routeId = routeId;
+            this.base = base;
+        }
+
+        int popularity() {
+            return (int) (base + votes.sum());
+        }
+    }
+
+    public ConcurrentNavigator() {
+        this(new AtomicLong()::getAndIncrement);
+    }
+
+    ConcurrentNavigator(LongSupplier sequences) {
+        this.navigator = new NavigatorImpl();
+        this.lock = new ReentrantLock();
+        this.counters = new ConcurrentHashMap<>();
+        this.pending = ConcurrentHashMap.newKeySet();
+        this.sequences = sequences;
+        this.snapshot = RouteSnapshot.EMPTY;
+    }
+
+    public void setQuiet(boolean quiet) {
+        navigator.setQuiet(quiet);
+    }
+
+    @Override
+    public void addRoute(Route route) {
+        lock.lock();
+        try {
+            applyVotes();
+            navigator.addRoute(route);
+            publish(route.getId(), sequences.getAsLong());
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public void addRoutes(Collection<Route> routes) {
+        addRoutes(routes, null);
+    }
+
+    void addRoutes(Collection<Route> routes, long[] routeSequences) {
+        lock.lock();
+        try {
+            applyVotes();
+            navigator.addRoutes(routes);
+            int i = 0;
+            for (Route route : routes) {
+                publish(route.getId(), (routeSequences != null) ? routeSequences[i++] : sequences.getAsLong());
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public void removeRoute(String routeId) {
+        lock.lock();
+        try {
+            applyVotes();
+            navigator.removeRoute(routeId);
+            publish(routeId, 0);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public boolean contains(Route route) {
+        if (route == null || route.getId() == null) return false;
+        Route current = getRoute(route.getId());
+        return current != null && current.equals(route);
+    }
+
+    @Override
+    public int size() {
+        return snapshot.size();
+    }
+
+    @Override
+    public Route getRoute(String routeId) {
+        Route route = snapshot.getRoute(routeId);
+        return (route != null) ? withVotes(route) : null;
+    }
+
+    @Override
+    public Iterable<Route> getRoutes() {
+        Set<String> routeIds = pendingRoutes();
+        return withVotes(snapshot.routes().values(), routeIds);
+    }
+
+    @Override
+    public Iterable<Route> getRoutesByIdPrefix(String prefix) {
+        Set<String> routeIds = pendingRoutes();
+        return withVotes(PersistentTreeMap.prefix(snapshot.routes(), prefix).values(), routeIds);
+    }
+
+    @Override
+    public Iterable<Route> getRoutesByIdRange(String fromId, String toId) {
+        Set<String> routeIds = pendingRoutes();
+        return withVotes(snapshot.routes().subMap(fromId, toId).values(), routeIds);
+    }
+
+    @Override
+    public Iterable<Route> findRoutes(Predicate<Route> filter) {
+        UnaryOperator<Route> current = pendingVotes();
+        PersistentTreeMap<String, Route> routes = snapshot.routes();
+        return NavigatorImpl.findRoutes(routes.values(), routes.size(), current, filter);
+    }
+
+    @Override
+    public void chooseRoute(String routeId) {
+        VoteCounter counter = counters.get(routeId);
+        if (counter != null) {
+            counter.votes.increment();
+            pending.add(counter);
+            if (pending.size() >= FOLD_ROUTES || counter.votes.sum() - counter.applied >= FOLD_VOTES) {
+                tryApplyVotes();
+            }
+        }
+    }
+
+    @Override
+    public void setFavorite(String routeId, boolean favorite) {
+        lock.lock();
+        try {
+            applyVotes();
+            navigator.setFavorite(routeId, favorite);
+            Route current = navigator.getRoute(routeId);
+            if (current != null && current.isFavorite() != snapshot.getRoute(routeId).isFavorite()) {
+                snapshot = snapshot.updated(new Route(current));
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public Iterable<Route> searchRoutes(String startPoint, String endPoint) {
+        return searchRoutes(startPoint, endPoint, 0, Integer.MAX_VALUE);
+    }
+
+    @Override
+    public Iterable<Route> searchRoutes(String startPoint, String endPoint, int offset, int limit) {
+        UnaryOperator<Route> current = pendingVotes();
+        return snapshot.searchRoutes(startPoint, endPoint, offset, limit, current);
+    }
+
+    @Override
+    public Iterable<Route> getFavoriteRoutes(String destinationPoint) {
+        return getFavoriteRoutes(destinationPoint, 0, Integer.MAX_VALUE);
+    }
+
+    @Override
+    public Iterable<Route> getFavoriteRoutes(String destinationPoint, int offset, int limit) {
+        UnaryOperator<Route> current = pendingVotes();
+        return snapshot.getFavoriteRoutes(destinationPoint, offset, limit, current);
+    }
+
+    @Override
+    public List<Connection> searchConnections(String startPoint, String endPoint, int maxTransfers) {
+        return ConnectionSearch.search(snapshot, startPoint, endPoint, maxTransfers);
+    }
+
+    @Override
+    public Iterable<Route> getTop3Routes() {
+        return getTopKRoutes(3);
+    }
+
+    @Override
+    public Iterable<Route> getTopKRoutes(int k) {
+        if (k < 0) {
+            throw new IllegalArgumentException("k must not be negative: " + k);
+        }
+        Set<String> routeIds = pendingRoutes();
+        return snapshot.getTopKRoutes(k, routeIds, withVotes(routeIds));
+    }
+
+    List<RouteCandidate> getRankedTopKRoutes(int k) {
+        Set<String> routeIds = pendingRoutes();
+        RouteSnapshot current = snapshot;
+        List<RouteCandidate> ranked = new ArrayList<>();
+        for (Route route : current.getTopKRoutes(k, routeIds, withVotes(routeIds))) {
+            ranked.add(RouteCandidate.forTop(route, current.sequenceOf(route.getId())));
+        }
+        return ranked;
+    }
+
+    public PersistentTreeMap<String, Route> snapshot() {
+        lock.lock();
+        try {
+            applyVotes();
+            return snapshot.routes();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    Lock writerLock() {
+        return lock;
+    }
+
+    ConnectionSearch.Graph connectionGraph() {
+        return snapshot;
+    }
+
+    public void registerGauges(NavigatorMetrics metrics) {
+        navigator.registerGauges(metrics, () -> snapshot.routes().height());
+        metrics.gauge("snapshot.size", () -> snapshot.size());
+    }
+
+    private void publish(String routeId, long sequence) {
+        Route current = navigator.getRoute(routeId);
+        if (current != null) {
+            if (!current.equals(snapshot.getRoute(routeId))) {
+                snapshot = snapshot.with(new Route(current), sequence);
+            }
+            counters.computeIfAbsent(routeId, id -> new VoteCounter(id, current.getPopularity()));
+        } else {
+            snapshot = snapshot.without(routeId);
+            VoteCounter counter = counters.remove(routeId);
+            if (counter != null) {
+                pending.remove(counter);
+            }
+        }
+    }
+
+    private Set<String> pendingRoutes() {
+        if (pending.size() >= FOLD_ROUTES) {
+            tryApplyVotes();
+        }
+        if (pending.isEmpty()) return Collections.emptySet();
+        Set<String> routeIds = new HashSet<>();
+        for (VoteCounter counter : pending) {
+            routeIds.add(counter.routeId);
+        }
+        return routeIds;
+    }
+
+    private UnaryOperator<Route> pendingVotes() {
+        return withVotes(pendingRoutes());
+    }
+
+    private UnaryOperator<Route> withVotes(Set<String> routeIds) {
+        if (routeIds.isEmpty()) return UnaryOperator.identity();
+        return route -> routeIds.contains(route.getId()) ? withVotes(route) : route;
+    }
+
+    private Route withVotes(Route route) {
+        VoteCounter counter = counters.get(route.getId());
+        if (counter == null) return route;
+        int popularity = counter.popularity();
+        if (popularity <= route.getPopularity()) return route;
+        Route current = new Route(route);
+        current.setPopularity(popularity);
+        return current;
+    }
+
+    private Iterable<Route> withVotes(TreeView<Route> routes, Set<String> routeIds) {
+        if (routeIds.isEmpty()) return routes;
+        UnaryOperator<Route> current = withVotes(routeIds);
+        List<Route> result = new ArrayList<>();
+        for (Route route : routes) {
+            result.add(current.apply(route));
+        }
+        return result;
+    }
+
+    private void tryApplyVotes() {
+        if (lock.tryLock()) {
+            try {
+                applyVotes();
+            } finally {
+                lock.unlock();
+            }
+        }
+    }
+
+    private void applyVotes() {
+        if (pending.isEmpty()) return;
+        List<VoteCounter> folded = new ArrayList<>(pending);
+        RouteSnapshot next = snapshot;
+        for (VoteCounter counter : folded) {
+            long votes = counter.votes.sum();
+            if (votes != counter.applied && counters.get(counter.routeId) == counter) {
+                navigator.addPopularity(counter.routeId, (int) (votes - counter.applied));
+                next = next.updated(new Route(navigator.getRoute(counter.routeId)));
+            }
+            counter.applied = votes;
+        }
+        snapshot = next;
+        for (VoteCounter counter : folded) {
+            pending.remove(counter);
+            if (counter.votes.sum() != counter.applied) {
+                pending.add(counter);
+            }
+        }
+    }
+}
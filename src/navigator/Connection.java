@@ -0,0 +1,77 @@
+package navigator;
+
+import route.Route;
+
+import java.util.Collections;
+import java.util.List;
+
+public final class Connection {
+    public static final class Leg {
+        private final Route route;
+        private final String from;
+        private final String to;
+        private final double distance;
+
+        Leg(Route route, String from, String to, double distance) {
+            this.route = route;
+            this.from = from;
+            this.to = to;
+            this.distance = distance;
+        }
+
+        public Route getRoute() {
+            return route;
+        }
+
+        public String getFrom() {
+            return from;
+        }
+
+        public String getTo() {
+            return to;
+        }
+
+        public double getDistance() {
+            return distance;
+        }
+
+        @Override
+        public String toString() {
+            return "Leg {" +
+                    "routeId='" + route.getId() + '\'' +
+                    ", from='" + from + '\'' +
+                    ", to='" + to + '\'' +
+                    ", distance=" + distance +
+                    '}';
+        }
+    }
+
+    private final List<Leg> legs;
+    private final double distance;
+
+    Connection(List<Leg> legs, double distance) {
+        this.legs = Collections.unmodifiableList(legs);
+        this.distance = distance;
+    }
+
+    public List<Leg> getLegs() {
+        return legs;
+    }
+
+    public double getDistance() {
+        return distance;
+    }
+
+    public int getTransfers() {
+        return legs.size() - 1;
+    }
+
+    @Override
+    public String toString() {
+        return "Connection {" +
+                "distance=" + distance +
+                ", transfers=" + getTransfers() +
+                ", legs=" + legs +
+                '}';
+    }
+}
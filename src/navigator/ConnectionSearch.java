@@ -0,0 +1,170 @@
+package navigator;
+
+import route.LocationDictionary;
+import route.Route;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.function.ObjIntConsumer;
+
+final class ConnectionSearch {
+    interface Graph {
+        void forEachStop(int location, ObjIntConsumer<Route> visitor);
+    }
+
+    private static final class Hop {
+        final Route route;
+        final int boardedAt;
+        final double distance;
+
+        Hop(Route route, int boardedAt, double distance) {
+            this.route = route;
+            this.boardedAt = boardedAt;
+            this.distance = distance;
+        }
+    }
+
+    private static final class Label {
+        final int location;
+        final int legs;
+        final double distance;
+        final Label previous;
+        final Route route;
+        final int boardedAt;
+
+        Label(int location, int legs, double distance, Label previous, Route route, int boardedAt) {
+            this.location = location;
+            this.legs = legs;
+            this.distance = distance;
+            this.previous = previous;
+            this.route = route;
+            this.boardedAt = boardedAt;
+        }
+    }
+
+    private static final double EPSILON = 1e-9;
+
+    private static final Comparator<Label> ORDER = Comparator.comparingDouble((Label label) -> label.distance)
+            .thenComparingInt(label -> label.legs);
+
+    private final Graph graph;
+    private final int maxLegs;
+    private final int endId;
+    private final Map<Integer, Label[]> labels;
+    private final Map<Integer, Hop> hopsToEnd;
+    private final PriorityQueue<Label> queue;
+
+    private ConnectionSearch(Graph graph, int maxLegs, int endId) {
+        this.graph = graph;
+        this.maxLegs = maxLegs;
+        this.endId = endId;
+        this.labels = new HashMap<>();
+        this.hopsToEnd = new HashMap<>();
+        this.queue = new PriorityQueue<>(ORDER);
+    }
+
+    static List<Connection> search(Graph graph, String startPoint, String endPoint, int maxTransfers) {
+        if (maxTransfers < 0) {
+            throw new IllegalArgumentException("maxTransfers must not be negative: " + maxTransfers);
+        }
+        LocationDictionary dictionary = LocationDictionary.global();
+        int startId = dictionary.find(startPoint);
+        int endId = dictionary.find(endPoint);
+        if (startId == LocationDictionary.UNKNOWN || endId == LocationDictionary.UNKNOWN || startId == endId) {
+            return Collections.emptyList();
+        }
+        return new ConnectionSearch(graph, maxTransfers + 1, endId).run(startId);
+    }
+
+    private List<Connection> run(int startId) {
+        List<Connection> connections = new ArrayList<>();
+        int fewestLegs = Integer.MAX_VALUE;
+        graph.forEachStop(endId, (route, position) -> {
+            double perStop = route.getDistance() / (route.getPointCount() - 1);
+            for (int i = 0; i < position; i++) {
+                double distance = perStop * (position - i);
+                Hop hop = hopsToEnd.get(route.getPointId(i));
+                if (hop == null || distance < hop.distance) {
+                    hopsToEnd.put(route.getPointId(i), new Hop(route, i, distance));
+                }
+            }
+        });
+        relax(startId, 0, 0, null, null, -1);
+
+        Label label;
+        while ((label = queue.poll()) != null && fewestLegs > 1) {
+            if (labels.get(label.location)[label.legs] != label || label.legs >= fewestLegs
+                    || dominated(labels.get(label.location), label.legs - 1, label.distance)) continue;
+            if (label.location == endId) {
+                int last = connections.size() - 1;
+                if (last >= 0 && label.distance - connections.get(last).getDistance() <= EPSILON * label.distance) {
+                    connections.set(last, connectionOf(label));
+                } else {
+                    connections.add(connectionOf(label));
+                }
+                fewestLegs = label.legs;
+                continue;
+            }
+            if (label.legs == maxLegs || label.legs + 1 >= fewestLegs) continue;
+            if (label.legs + 1 == Math.min(maxLegs, fewestLegs - 1)) {
+                Hop hop = hopsToEnd.get(label.location);
+                if (hop != null) {
+                    relax(endId, label.legs + 1, label.distance + hop.distance, label, hop.route, hop.boardedAt);
+                }
+                continue;
+            }
+            Label current = label;
+            graph.forEachStop(current.location, (route, position) -> {
+                double perStop = route.getDistance() / (route.getPointCount() - 1);
+                for (int i = position + 1; i < route.getPointCount(); i++) {
+                    int location = route.getPointId(i);
+                    double distance = current.distance + perStop * (i - position);
+                    if (dominated(labels.get(endId), current.legs + 1, distance)) break;
+                    relax(location, current.legs + 1, distance, current, route, position);
+                }
+            });
+        }
+        return connections;
+    }
+
+    private void relax(int location, int legs, double distance, Label previous, Route route, int boardedAt) {
+        Label[] byLegs = labels.get(location);
+        if (byLegs == null) {
+            byLegs = new Label[maxLegs + 1];
+            labels.put(location, byLegs);
+        } else if (dominated(byLegs, legs, distance)) {
+            return;
+        }
+        Label label = new Label(location, legs, distance, previous, route, boardedAt);
+        byLegs[legs] = label;
+        queue.add(label);
+    }
+
+    private static boolean dominated(Label[] byLegs, int upToLegs, double distance) {
+        if (byLegs == null) return false;
+        for (int legs = 0; legs <= upToLegs; legs++) {
+            if (byLegs[legs] != null && byLegs[legs].distance <= distance) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static Connection connectionOf(Label arrival) {
+        LocationDictionary dictionary = LocationDictionary.global();
+        List<Connection.Leg> legs = new ArrayList<>(arrival.legs);
+        for (Label label = arrival; label.previous != null; label = label.previous) {
+            legs.add(new Connection.Leg(label.route,
+                    dictionary.name(label.route.getPointId(label.boardedAt)),
+                    dictionary.name(label.location),
+                    label.distance - label.previous.distance));
+        }
+        Collections.reverse(legs);
+        return new Connection(legs, arrival.distance);
+    }
+}
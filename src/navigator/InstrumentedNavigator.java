@@ -0,0 +1,145 @@
+package navigator;
+
+import navigator.NavigatorMetrics.Operation;
+import route.Route;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.function.Predicate;
+
+public class InstrumentedNavigator implements Navigator {
+    private final Navigator navigator;
+    private final NavigatorMetrics metrics;
+
+    public InstrumentedNavigator(Navigator navigator, NavigatorMetrics metrics) {
+        this.navigator = navigator;
+        this.metrics = metrics;
+    }
+
+    public NavigatorMetrics metrics() {
+        return metrics;
+    }
+
+    @Override
+    public void addRoute(Route route) {
+        long start = metrics.start(Operation.ADD_ROUTE);
+        navigator.addRoute(route);
+        metrics.stop(Operation.ADD_ROUTE, start);
+    }
+
+    @Override
+    public void addRoutes(Collection<Route> routes) {
+        long start = metrics.start(Operation.ADD_ROUTES);
+        navigator.addRoutes(routes);
+        metrics.stop(Operation.ADD_ROUTES, start);
+    }
+
+    @Override
+    public void removeRoute(String routeId) {
+        long start = metrics.start(Operation.REMOVE_ROUTE);
+        navigator.removeRoute(routeId);
+        metrics.stop(Operation.REMOVE_ROUTE, start);
+    }
+
+    @Override
+    public boolean contains(Route route) {
+        long start = metrics.start(Operation.CONTAINS);
+        boolean result = navigator.contains(route);
+        metrics.stop(Operation.CONTAINS, start);
+        return result;
+    }
+
+    @Override
+    public int size() {
+        long start = metrics.start(Operation.SIZE);
+        int result = navigator.size();
+        metrics.stop(Operation.SIZE, start);
+        return result;
+    }
+
+    @Override
+    public Route getRoute(String routeId) {
+        long start = metrics.start(Operation.GET_ROUTE);
+        return metrics.stop(Operation.GET_ROUTE, start, navigator.getRoute(routeId));
+    }
+
+    @Override
+    public Iterable<Route> getRoutes() {
+        long start = metrics.start(Operation.GET_ROUTES);
+        return metrics.stop(Operation.GET_ROUTES, start, navigator.getRoutes());
+    }
+
+    @Override
+    public Iterable<Route> getRoutesByIdPrefix(String prefix) {
+        long start = metrics.start(Operation.GET_ROUTES_BY_ID_PREFIX);
+        return metrics.stop(Operation.GET_ROUTES_BY_ID_PREFIX, start, navigator.getRoutesByIdPrefix(prefix));
+    }
+
+    @Override
+    public Iterable<Route> getRoutesByIdRange(String fromId, String toId) {
+        long start = metrics.start(Operation.GET_ROUTES_BY_ID_RANGE);
+        return metrics.stop(Operation.GET_ROUTES_BY_ID_RANGE, start, navigator.getRoutesByIdRange(fromId, toId));
+    }
+
+    @Override
+    public Iterable<Route> findRoutes(Predicate<Route> filter) {
+        long start = metrics.start(Operation.FIND_ROUTES);
+        return metrics.stop(Operation.FIND_ROUTES, start, navigator.findRoutes(filter));
+    }
+
+    @Override
+    public void chooseRoute(String routeId) {
+        long start = metrics.start(Operation.CHOOSE_ROUTE);
+        navigator.chooseRoute(routeId);
+        metrics.stop(Operation.CHOOSE_ROUTE, start);
+    }
+
+    @Override
+    public void setFavorite(String routeId, boolean favorite) {
+        long start = metrics.start(Operation.SET_FAVORITE);
+        navigator.setFavorite(routeId, favorite);
+        metrics.stop(Operation.SET_FAVORITE, start);
+    }
+
+    @Override
+    public Iterable<Route> searchRoutes(String startPoint, String endPoint) {
+        long start = metrics.start(Operation.SEARCH_ROUTES);
+        return metrics.stop(Operation.SEARCH_ROUTES, start, navigator.searchRoutes(startPoint, endPoint));
+    }
+
+    @Override
+    public Iterable<Route> searchRoutes(String startPoint, String endPoint, int offset, int limit) {
+        long start = metrics.start(Operation.SEARCH_ROUTES_PAGE);
+        return metrics.stop(Operation.SEARCH_ROUTES_PAGE, start, navigator.searchRoutes(startPoint, endPoint, offset, limit));
+    }
+
+    @Override
+    public Iterable<Route> getFavoriteRoutes(String destinationPoint) {
+        long start = metrics.start(Operation.GET_FAVORITE_ROUTES);
+        return metrics.stop(Operation.GET_FAVORITE_ROUTES, start, navigator.getFavoriteRoutes(destinationPoint));
+    }
+
+    @Override
+    public Iterable<Route> getFavoriteRoutes(String destinationPoint, int offset, int limit) {
+        long start = metrics.start(Operation.GET_FAVORITE_ROUTES_PAGE);
+        return metrics.stop(Operation.GET_FAVORITE_ROUTES_PAGE, start, navigator.getFavoriteRoutes(destinationPoint, offset, limit));
+    }
+
+    @Override
+    public List<Connection> searchConnections(String startPoint, String endPoint, int maxTransfers) {
+        long start = metrics.start(Operation.SEARCH_CONNECTIONS);
+        return metrics.stop(Operation.SEARCH_CONNECTIONS, start, navigator.searchConnections(startPoint, endPoint, maxTransfers));
+    }
+
+    @Override
+    public Iterable<Route> getTop3Routes() {
+        long start = metrics.start(Operation.GET_TOP3_ROUTES);
+        return metrics.stop(Operation.GET_TOP3_ROUTES, start, navigator.getTop3Routes());
+    }
+
+    @Override
+    public Iterable<Route> getTopKRoutes(int k) {
+        long start = metrics.start(Operation.GET_TOP_K_ROUTES);
+        return metrics.stop(Operation.GET_TOP_K_ROUTES, start, navigator.getTopKRoutes(k));
+    }
+}
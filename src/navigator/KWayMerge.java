@@ -0,0 +1,73 @@
+package navigator;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.PriorityQueue;
+
+final class KWayMerge<T> implements Iterator<T> {
+    private static final class Cursor<T> {
+        final Iterator<? extends T> iterator;
+        final int source;
+        T head;
+
+        Cursor(Iterator<? extends T> iterator, int source) {
+            this.iterator = iterator;
+            this.source = source;
+            this.head = iterator.next();
+        }
+    }
+
+    private final PriorityQueue<Cursor<T>> heads;
+
+    KWayMerge(List<? extends Iterable<? extends T>> sources, Comparator<? super T> order) {
+        this.heads = new PriorityQueue<>(Math.max(1, sources.size()), (a, b) -> {
+            int compareResult = order.compare(a.head, b.head);
+            return (compareResult != 0) ? compareResult : Integer.compare(a.source, b.source);
+        });
+        for (int i = 0; i < sources.size(); i++) {
+            Iterator<? extends T> iterator = sources.get(i).iterator();
+            if (iterator.hasNext()) {
+                heads.add(new Cursor<>(iterator, i));
+            }
+        }
+    }
+
+    static <T> Iterable<T> merged(List<? extends Iterable<? extends T>> sources, Comparator<? super T> order) {
+        return () -> new KWayMerge<>(sources, order);
+    }
+
+    static <T> List<T> page(List<? extends Iterable<? extends T>> sources, Comparator<? super T> order,
+                            int offset, int limit) {
+        List<T> page = new ArrayList<>(Math.min(limit, 64));
+        KWayMerge<T> merge = new KWayMerge<>(sources, order);
+        for (int skipped = 0; skipped < offset && merge.hasNext(); skipped++) {
+            merge.next();
+        }
+        while (page.size() < limit && merge.hasNext()) {
+            page.add(merge.next());
+        }
+        return page;
+    }
+
+    @Override
+    public boolean hasNext() {
+        return !heads.isEmpty();
+    }
+
+    @Override
+    public T next() {
+        Cursor<T> cursor = heads.poll();
+        if (cursor == null) {
+            throw new NoSuchElementException();
+        }
+        T value = cursor.head;
+        if (cursor.iterator.hasNext()) {
+            cursor.head = cursor.iterator.next();
+            heads.add(cursor);
+        }
+        return value;
+    }
+}
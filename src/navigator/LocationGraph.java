@@ -0,0 +1,77 @@
+package navigator;
+
+import route.Route;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.function.ObjIntConsumer;
+
+class LocationGraph implements ConnectionSearch.Graph {
+    private static final class Stops {
+        Route[] routes = new Route[2];
+        int[] positions = new int[2];
+        int size;
+
+        void add(Route route, int position) {
+            if (size == routes.length) {
+                routes = Arrays.copyOf(routes, size * 2);
+                positions = Arrays.copyOf(positions, size * 2);
+            }
+            routes[size] = route;
+            positions[size] = position;
+            size++;
+        }
+
+        void remove(Route route, int position) {
+            for (int i = 0; i < size; i++) {
+                if (routes[i] == route && positions[i] == position) {
+                    size--;
+                    routes[i] = routes[size];
+                    positions[i] = positions[size];
+                    routes[size] = null;
+                    return;
+                }
+            }
+        }
+    }
+
+    private final List<Stops> stops = new ArrayList<>();
+
+    public void add(Route route) {
+        for (int i = 0; i < route.getPointCount(); i++) {
+            int pointId = route.getPointId(i);
+            while (stops.size() <= pointId) {
+                stops.add(null);
+            }
+            Stops atPoint = stops.get(pointId);
+            if (atPoint == null) {
+                atPoint = new Stops();
+                stops.set(pointId, atPoint);
+            }
+            atPoint.add(route, i);
+        }
+    }
+
+    public void remove(Route route) {
+        for (int i = 0; i < route.getPointCount(); i++) {
+            int pointId = route.getPointId(i);
+            Stops atPoint = (pointId < stops.size()) ? stops.get(pointId) : null;
+            if (atPoint != null) {
+                atPoint.remove(route, i);
+                if (atPoint.size == 0) {
+                    stops.set(pointId, null);
+                }
+            }
+        }
+    }
+
+    @Override
+    public void forEachStop(int location, ObjIntConsumer<Route> visitor) {
+        Stops atPoint = (location >= 0 && location < stops.size()) ? stops.get(location) : null;
+        if (atPoint == null) return;
+        for (int i = 0; i < atPoint.size; i++) {
+            visitor.accept(atPoint.routes[i], atPoint.positions[i]);
+        }
+    }
+}
@@ -0,0 +1,58 @@
+package navigator;
+
+import route.LocationDictionary;
+import route.Route;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Set;
+
+class LocationIndex {
+    private final List<Set<Route>> postings = new ArrayList<>();
+    private int size;
+
+    public void add(Route route) {
+        for (int i = 0; i < route.getPointCount(); i++) {
+            int pointId = route.getPointId(i);
+            while (postings.size() <= pointId) {
+                postings.add(null);
+            }
+            Set<Route> routes = postings.get(pointId);
+            if (routes == null) {
+                routes = Collections.newSetFromMap(new IdentityHashMap<>());
+                postings.set(pointId, routes);
+                size++;
+            }
+            routes.add(route);
+        }
+    }
+
+    public void remove(Route route) {
+        for (int i = 0; i < route.getPointCount(); i++) {
+            int pointId = route.getPointId(i);
+            Set<Route> routes = (pointId < postings.size()) ? postings.get(pointId) : null;
+            if (routes != null) {
+                routes.remove(route);
+                if (routes.isEmpty()) {
+                    postings.set(pointId, null);
+                    size--;
+                }
+            }
+        }
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public Set<Route> routesThrough(String point) {
+        return routesThrough(LocationDictionary.global().find(point));
+    }
+
+    public Set<Route> routesThrough(int pointId) {
+        Set<Route> routes = (pointId >= 0 && pointId < postings.size()) ? postings.get(pointId) : null;
+        return (routes != null) ? Collections.unmodifiableSet(routes) : Collections.emptySet();
+    }
+}
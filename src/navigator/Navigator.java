@@ -2,14 +2,28 @@ package navigator;
 
 import route.Route;
 
+import java.util.Collection;
+import java.util.List;
+import java.util.function.Predicate;
+
 public interface Navigator {
     void addRoute(Route route);
+    void addRoutes(Collection<Route> routes);
     void removeRoute(String routeId);
     boolean contains(Route route);
     int size();
     Route getRoute(String routeId);
+    Iterable<Route> getRoutes();
+    Iterable<Route>getRoutesByIdPrefix(String prefix);
+    Iterable<Route>getRoutesByIdRange(String fromId, String toId);
+    Iterable<Route>findRoutes(Predicate<Route> filter);
     void chooseRoute(String routeId);
+    void setFavorite(String routeId, boolean favorite);
     Iterable<Route>searchRoutes(String startPoint, String endPoint);
+    Iterable<Route>searchRoutes(String startPoint, String endPoint, int offset, int limit);
     Iterable<Route>getFavoriteRoutes(String destinationPoint);
+    Iterable<Route>getFavoriteRoutes(String destinationPoint, int offset, int limit);
+    List<Connection> searchConnections(String startPoint, String endPoint, int maxTransfers);
     Iterable<Route>getTop3Routes();
+    Iterable<Route>getTopKRoutes(int k);
 }
\ No newline at end of file
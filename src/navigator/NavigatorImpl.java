@@ -1,40 +1,131 @@
 package navigator;
 
+import route.LocationDictionary;
 import route.Route;
 import treemap.TreeMap;
+import treemap.TreeView;
 
 import java.util.ArrayList;
+import java.util.Collection;
 import java.util.Comparator;
+import java.util.HashSet;
+import java.util.Iterator;
 import java.util.List;
+import java.util.Set;
+import java.util.function.LongSupplier;
+import java.util.function.Predicate;
+import java.util.function.UnaryOperator;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 public class NavigatorImpl implements Navigator {
+    static final int PARALLEL_SCAN_THRESHOLD = 1 << 13;
+
     private TreeMap<String, Route> routes;
+    private LocationIndex locations;
+    private LocationGraph graph;
+    private PopularityRanking ranking;
+    private RouteContentIndex contents;
+    private boolean quiet;
 
     public NavigatorImpl() {
         this.routes = new TreeMap<>();
+        this.locations = new LocationIndex();
+        this.graph = new LocationGraph();
+        this.ranking = new PopularityRanking();
+        this.contents = new RouteContentIndex();
+    }
+
+    public void setQuiet(boolean quiet) {
+        this.quiet = quiet;
+    }
+
+    private void report(String message) {
+        if (!quiet) {
+            System.out.println(message);
+        }
     }
 
     @Override
     public void addRoute(Route route) {
-        if (!routes.containsValue(route)) {
-            routes.insert(route.getId(), route);
-            System.out.println("Маршрут успешно добавлен.");
+        if (!contents.contains(route) && routes.putIfAbsent(route.getId(), route) == null) {
+            locations.add(route);
+            graph.add(route);
+            ranking.add(route);
+            contents.add(route);
+            report("Маршрут успешно добавлен.");
+        }
+        else report("Такой маршрут уже есть!");
+    }
+
+    @Override
+    public void addRoutes(Collection<Route> batch) {
+        Set<String> batchIds = new HashSet<>();
+        List<Route> accepted = new ArrayList<>(batch.size());
+        for (Route route : batch) {
+            if (!contents.contains(route) && !routes.containsKey(route.getId()) && batchIds.add(route.getId())) {
+                contents.add(route);
+                accepted.add(route);
+            }
+        }
+
+        if ((long) accepted.size() * (32 - Integer.numberOfLeadingZeros(routes.size())) < routes.size()) {
+            for (Route route : accepted) {
+                routes.putIfAbsent(route.getId(), route);
+            }
+        } else {
+            List<Route> sorted = new ArrayList<>(accepted);
+            sorted.sort(Comparator.comparing(Route::getId));
+            mergeSorted(sorted);
+        }
+        for (Route route : accepted) {
+            locations.add(route);
+            graph.add(route);
+            ranking.add(route);
         }
-        else System.out.println("Такой маршрут уже есть!");
+        report("Добавлено маршрутов: " + accepted.size() + " из " + batch.size() + ".");
+    }
+
+    private void mergeSorted(List<Route> additions) {
+        int total = routes.size() + additions.size();
+        List<String> keys = new ArrayList<>(total);
+        List<Route> values = new ArrayList<>(total);
+        Iterator<Route> existing = routes.values().iterator();
+        Route current = existing.hasNext() ? existing.next() : null;
+
+        for (Route route : additions) {
+            while (current != null && current.getId().compareTo(route.getId()) < 0) {
+                keys.add(current.getId());
+                values.add(current);
+                current = existing.hasNext() ? existing.next() : null;
+            }
+            keys.add(route.getId());
+            values.add(route);
+        }
+        while (current != null) {
+            keys.add(current.getId());
+            values.add(current);
+            current = existing.hasNext() ? existing.next() : null;
+        }
+        routes.buildFromSorted(keys, values);
     }
 
     @Override
     public void removeRoute(String routeId) {
-        if (routes.containsValue(routes.get(routeId))) {
-            routes.remove(routeId);
-            System.out.println("Маршрут успешно удален.");
+        Route route = routes.remove(routeId);
+        if (route != null) {
+            locations.remove(route);
+            graph.remove(route);
+            ranking.remove(route);
+            contents.remove(route);
+            report("Маршрут успешно удален.");
         }
-        else System.out.println("Такого маршрута нет!");
+        else report("Такого маршрута нет!");
     }
 
     @Override
     public boolean contains(Route route) {
-        return routes.containsValue(route);
+        return contents.contains(route);
     }
 
     @Override
@@ -47,57 +138,131 @@ public class NavigatorImpl implements Navigator {
         return routes.get(routeId);
     }
 
+    @Override
+    public Iterable<Route> getRoutes() {
+        return routes.values();
+    }
+
+    @Override
+    public Iterable<Route> getRoutesByIdPrefix(String prefix) {
+        return TreeMap.prefix(routes, prefix).values();
+    }
+
+    @Override
+    public Iterable<Route> getRoutesByIdRange(String fromId, String toId) {
+        return routes.subMap(fromId, toId).values();
+    }
+
+    @Override
+    public Iterable<Route> findRoutes(Predicate<Route> filter) {
+        return findRoutes(routes.values(), routes.size(), filter);
+    }
+
+    static List<Route> findRoutes(TreeView<Route> routes, int size, Predicate<Route> filter) {
+        return findRoutes(routes, size, UnaryOperator.identity(), filter);
+    }
+
+    static List<Route> findRoutes(TreeView<Route> routes, int size, UnaryOperator<Route> current,
+                                  Predicate<Route> filter) {
+        Stream<Route> stream = (size >= PARALLEL_SCAN_THRESHOLD) ? routes.parallelStream() : routes.stream();
+        return stream.map(current).filter(filter).collect(Collectors.toList());
+    }
+
     @Override
     public void chooseRoute(String routeId) {
+        addPopularity(routeId, 1);
+    }
+
+    void addPopularity(String routeId, int delta) {
         Route route = routes.get(routeId);
         if (route != null) {
-            route.setPopularity(route.getPopularity() + 1);
+            route.setPopularity(route.getPopularity() + delta);
+            ranking.update(route);
+            contents.update(route);
+        }
+    }
+
+    @Override
+    public void setFavorite(String routeId, boolean favorite) {
+        Route route = routes.get(routeId);
+        if (route != null && route.isFavorite() != favorite) {
+            route.setFavorite(favorite);
+            contents.update(route);
         }
     }
 
     @Override
     public Iterable<Route> searchRoutes(String startPoint, String endPoint) {
-        List<Route> result = new ArrayList<>();
+        return searchRoutes(startPoint, endPoint, 0, Integer.MAX_VALUE);
+    }
+
+    @Override
+    public Iterable<Route> searchRoutes(String startPoint, String endPoint, int offset, int limit) {
+        RouteSelection selection = new RouteSelection(RouteCandidate.SEARCH_ORDER, offset, limit);
+        LocationDictionary dictionary = LocationDictionary.global();
+        int startId = dictionary.find(startPoint);
+        int endId = dictionary.find(endPoint);
+        Set<Route> fromStart = locations.routesThrough(startId);
+        Set<Route> toEnd = locations.routesThrough(endId);
+        boolean scanStart = fromStart.size() <= toEnd.size();
 
-        for (Route route : routes.values()) {
-            List<String> locations = route.getLocationPoints();
-            if (locations.contains(startPoint) && locations.contains(endPoint)) {
-                result.add(route);
+        for (Route route : scanStart ? fromStart : toEnd) {
+            if (route.visitsInOrder(startId, endId)) {
+                selection.offer(RouteCandidate.forSearch(route, startId, endId));
             }
         }
 
-        result.sort(Comparator.comparing(Route::isFavorite).reversed()
-                .thenComparing(r -> r.getPointSize(startPoint, endPoint)).reversed()
-                .thenComparing(Route::getPopularity).reversed());
-
-        return result;
+        return selection.result();
     }
 
     @Override
     public Iterable<Route> getFavoriteRoutes(String destinationPoint) {
-        List<Route> result = new ArrayList<>();
+        return getFavoriteRoutes(destinationPoint, 0, Integer.MAX_VALUE);
+    }
+
+    @Override
+    public Iterable<Route> getFavoriteRoutes(String destinationPoint, int offset, int limit) {
+        RouteSelection selection = new RouteSelection(RouteCandidate.FAVORITE_ORDER, offset, limit);
+        int destinationId = LocationDictionary.global().find(destinationPoint);
 
-        for (Route route : routes.values()) {
-            if (route.isFavorite() && !route.getLocationPoints().get(0).equals(destinationPoint) && route.getLocationPoints().contains(destinationPoint)) {
-                result.add(route);
+        for (Route route : locations.routesThrough(destinationId)) {
+            if (route.isFavorite() && route.getPointId(0) != destinationId) {
+                selection.offer(RouteCandidate.forFavorite(route));
             }
         }
 
-        result.sort(Comparator.comparing(Route::getDistance).thenComparing(Route::getPopularity).reversed());
+        return selection.result();
+    }
 
-        return result;
+    @Override
+    public List<Connection> searchConnections(String startPoint, String endPoint, int maxTransfers) {
+        return ConnectionSearch.search(graph, startPoint, endPoint, maxTransfers);
     }
 
     @Override
     public Iterable<Route> getTop3Routes() {
-        List<Route> result = new ArrayList<>();
-        for (Route r : routes.values()){
-            result.add(r);
+        return getTopKRoutes(3);
+    }
+
+    @Override
+    public Iterable<Route> getTopKRoutes(int k) {
+        if (k < 0) {
+            throw new IllegalArgumentException("k must not be negative: " + k);
         }
-        result.sort(Comparator.comparing(Route::getPopularity).reversed()
-                .thenComparing(Route::getDistance)
-                .thenComparing(route -> route.getLocationPoints().size()));
+        return ranking.top(k);
+    }
+
+    public void registerGauges(NavigatorMetrics metrics) {
+        registerGauges(metrics, routes::height);
+    }
 
-        return result.subList(0, Math.min(3, result.size()));
+    void registerGauges(NavigatorMetrics metrics, LongSupplier height) {
+        metrics.gauge("tree.size", routes::size);
+        metrics.gauge("tree.height", height);
+        metrics.gauge("tree.insertions", routes::insertions);
+        metrics.gauge("tree.removals", routes::removals);
+        metrics.gauge("tree.insertRotations", routes::insertRotations);
+        metrics.gauge("tree.removeRotations", routes::removeRotations);
+        metrics.gauge("locations", locations::size);
     }
 }
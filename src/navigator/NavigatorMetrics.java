@@ -0,0 +1,210 @@
+package navigator;
+
+import metrics.Histogram;
+import metrics.MetricsSink;
+
+import javax.management.JMException;
+import javax.management.ObjectName;
+import java.lang.management.ManagementFactory;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.LongSupplier;
+import java.util.function.ToLongFunction;
+
+public class NavigatorMetrics implements NavigatorMetricsMXBean {
+    public static final String DEFAULT_OBJECT_NAME = "navigator:type=NavigatorMetrics";
+
+    static final long NOT_SAMPLED = Long.MIN_VALUE;
+
+    public enum Operation {
+        ADD_ROUTE("addRoute"),
+        ADD_ROUTES("addRoutes"),
+        REMOVE_ROUTE("removeRoute"),
+        CONTAINS("contains"),
+        SIZE("size"),
+        GET_ROUTE("getRoute"),
+        GET_ROUTES("getRoutes"),
+        GET_ROUTES_BY_ID_PREFIX("getRoutesByIdPrefix"),
+        GET_ROUTES_BY_ID_RANGE("getRoutesByIdRange"),
+        FIND_ROUTES("findRoutes"),
+        CHOOSE_ROUTE("chooseRoute"),
+        SET_FAVORITE("setFavorite"),
+        SEARCH_ROUTES("searchRoutes"),
+        SEARCH_ROUTES_PAGE("searchRoutesPage"),
+        GET_FAVORITE_ROUTES("getFavoriteRoutes"),
+        GET_FAVORITE_ROUTES_PAGE("getFavoriteRoutesPage"),
+        SEARCH_CONNECTIONS("searchConnections"),
+        GET_TOP3_ROUTES("getTop3Routes"),
+        GET_TOP_K_ROUTES("getTopKRoutes");
+
+        private final String metricName;
+
+        Operation(String metricName) {
+            this.metricName = metricName;
+        }
+
+        public String metricName() {
+            return metricName;
+        }
+    }
+
+    private static final Operation[] OPERATIONS = Operation.values();
+
+    private final LongAdder[] calls = new LongAdder[OPERATIONS.length];
+    private final Histogram[] latencies = new Histogram[OPERATIONS.length];
+    private final Histogram[] resultSizes = new Histogram[OPERATIONS.length];
+    private final Map<String, LongSupplier> gauges = new ConcurrentSkipListMap<>();
+    private volatile int sampleMask;
+
+    public NavigatorMetrics() {
+        this(64);
+    }
+
+    public NavigatorMetrics(int sampleRate) {
+        for (int i = 0; i < OPERATIONS.length; i++) {
+            calls[i] = new LongAdder();
+            latencies[i] = new Histogram();
+            resultSizes[i] = new Histogram();
+        }
+        setSampleRate(sampleRate);
+    }
+
+    public long start(Operation operation) {
+        calls[operation.ordinal()].increment();
+        int mask = sampleMask;
+        if (mask < 0 || (ThreadLocalRandom.current().nextInt() & mask) != 0) {
+            return NOT_SAMPLED;
+        }
+        return System.nanoTime();
+    }
+
+    public void stop(Operation operation, long start) {
+        if (start != NOT_SAMPLED) {
+            latencies[operation.ordinal()].record(System.nanoTime() - start);
+        }
+    }
+
+    public <T> T stop(Operation operation, long start, T result) {
+        if (start != NOT_SAMPLED) {
+            latencies[operation.ordinal()].record(System.nanoTime() - start);
+            if (result instanceof Collection) {
+                resultSizes[operation.ordinal()].record(((Collection<?>) result).size());
+            }
+        }
+        return result;
+    }
+
+    public void gauge(String name, LongSupplier supplier) {
+        gauges.put(name, supplier);
+    }
+
+    public long calls(Operation operation) {
+        return calls[operation.ordinal()].sum();
+    }
+
+    public Histogram latency(Operation operation) {
+        return latencies[operation.ordinal()];
+    }
+
+    public Histogram resultSize(Operation operation) {
+        return resultSizes[operation.ordinal()];
+    }
+
+    public void publish(MetricsSink sink) {
+        for (Operation operation : OPERATIONS) {
+            String prefix = "navigator." + operation.metricName();
+            sink.counter(prefix + ".calls", calls(operation));
+            sink.histogram(prefix + ".latency", latency(operation));
+            if (resultSize(operation).count() > 0) {
+                sink.histogram(prefix + ".resultSize", resultSize(operation));
+            }
+        }
+        for (Map.Entry<String, LongSupplier> gauge : gauges.entrySet()) {
+            sink.gauge(gauge.getKey(), gauge.getValue().getAsLong());
+        }
+    }
+
+    public ObjectName register() throws JMException {
+        return register(DEFAULT_OBJECT_NAME);
+    }
+
+    public ObjectName register(String objectName) throws JMException {
+        ObjectName name = new ObjectName(objectName);
+        ManagementFactory.getPlatformMBeanServer().registerMBean(this, name);
+        return name;
+    }
+
+    @Override
+    public Map<String, Long> getCalls() {
+        return byOperation(operation -> calls(operation));
+    }
+
+    @Override
+    public Map<String, Long> getLatencyMeanNanos() {
+        return byOperation(operation -> Math.round(latency(operation).mean()));
+    }
+
+    @Override
+    public Map<String, Long> getLatencyP50Nanos() {
+        return byOperation(operation -> latency(operation).percentile(50));
+    }
+
+    @Override
+    public Map<String, Long> getLatencyP99Nanos() {
+        return byOperation(operation -> latency(operation).percentile(99));
+    }
+
+    @Override
+    public Map<String, Long> getLatencyMaxNanos() {
+        return byOperation(operation -> latency(operation).max());
+    }
+
+    @Override
+    public Map<String, Long> getResultSizeP99() {
+        return byOperation(operation -> resultSize(operation).percentile(99));
+    }
+
+    @Override
+    public Map<String, Long> getGauges() {
+        Map<String, Long> values = new LinkedHashMap<>();
+        for (Map.Entry<String, LongSupplier> gauge : gauges.entrySet()) {
+            values.put(gauge.getKey(), gauge.getValue().getAsLong());
+        }
+        return values;
+    }
+
+    @Override
+    public int getSampleRate() {
+        int mask = sampleMask;
+        return (mask < 0) ? 0 : mask + 1;
+    }
+
+    @Override
+    public void setSampleRate(int sampleRate) {
+        if (sampleRate < 0 || Integer.bitCount(sampleRate) > 1) {
+            throw new IllegalArgumentException("sampleRate must be 0 or a power of two: " + sampleRate);
+        }
+        sampleMask = sampleRate - 1;
+    }
+
+    @Override
+    public void reset() {
+        for (int i = 0; i < OPERATIONS.length; i++) {
+            calls[i].reset();
+            latencies[i].reset();
+            resultSizes[i].reset();
+        }
+    }
+
+    private Map<String, Long> byOperation(ToLongFunction<Operation> value) {
+        Map<String, Long> values = new LinkedHashMap<>();
+        for (Operation operation : OPERATIONS) {
+            values.put(operation.metricName(), value.applyAsLong(operation));
+        }
+        return values;
+    }
+}
@@ -0,0 +1,16 @@
+package navigator;
+
+import java.util.Map;
+
+public interface NavigatorMetricsMXBean {
+    Map<String, Long> getCalls();
+    Map<String, Long> getLatencyMeanNanos();
+    Map<String, Long> getLatencyP50Nanos();
+    Map<String, Long> getLatencyP99Nanos();
+    Map<String, Long> getLatencyMaxNanos();
+    Map<String, Long> getResultSizeP99();
+    Map<String, Long> getGauges();
+    int getSampleRate();
+    void setSampleRate(int sampleRate);
+    void reset();
+}
@@ -0,0 +1,70 @@
+package navigator;
+
+import route.Route;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.IdentityHashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeSet;
+
+class PopularityRanking {
+    private static final Comparator<Entry> ORDER = Comparator.comparingInt((Entry e) -> e.popularity).reversed()
+            .thenComparingDouble(e -> e.distance)
+            .thenComparingInt(e -> e.pointCount)
+            .thenComparingLong(e -> e.sequence);
+
+    private static class Entry {
+        final Route route;
+        final int popularity;
+        final double distance;
+        final int pointCount;
+        final long sequence;
+
+        Entry(Route route, long sequence) {
+            this.route = route;
+            this.popularity = route.getPopularity();
+            this.distance = route.getDistance();
+            this.pointCount = route.getPointCount();
+            this.sequence = sequence;
+        }
+    }
+
+    private final TreeSet<Entry> ranking = new TreeSet<>(ORDER);
+    private final Map<Route, Entry> entries = new IdentityHashMap<>();
+    private long nextSequence;
+
+    public void add(Route route) {
+        Entry entry = new Entry(route, nextSequence++);
+        entries.put(route, entry);
+        ranking.add(entry);
+    }
+
+    public void remove(Route route) {
+        Entry entry = entries.remove(route);
+        if (entry != null) {
+            ranking.remove(entry);
+        }
+    }
+
+    public void update(Route route) {
+        Entry entry = entries.get(route);
+        if (entry != null) {
+            ranking.remove(entry);
+            Entry updated = new Entry(route, entry.sequence);
+            entries.put(route, updated);
+            ranking.add(updated);
+        }
+    }
+
+    public List<Route> top(int k) {
+        List<Route> result = new ArrayList<>(Math.min(k, ranking.size()));
+        Iterator<Entry> iterator = ranking.iterator();
+        while (result.size() < k && iterator.hasNext()) {
+            result.add(iterator.next().route);
+        }
+        return result;
+    }
+}
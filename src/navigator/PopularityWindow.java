@@ -0,0 +1,146 @@
+package navigator;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+public abstract class PopularityWindow {
+    interface Counter {
+        void record(long now, int votes);
+        double rank(long now);
+        double score(long now);
+        long expiresAt(long now);
+    }
+
+    PopularityWindow() {
+    }
+
+    public static PopularityWindow sliding(long windowMillis, int buckets) {
+        return new Sliding(windowMillis, buckets);
+    }
+
+    public static PopularityWindow decaying(long halfLifeMillis) {
+        return new Decaying(halfLifeMillis);
+    }
+
+    abstract Counter newCounter();
+
+    private static final class Sliding extends PopularityWindow {
+        private final long bucketMillis;
+        private final int buckets;
+
+        Sliding(long windowMillis, int buckets) {
+            if (buckets <= 0) {
+                throw new IllegalArgumentException("buckets must be positive: " + buckets);
+            }
+            if (windowMillis < buckets) {
+                throw new IllegalArgumentException("windowMillis must be at least one per bucket: " + windowMillis);
+            }
+            this.bucketMillis = windowMillis / buckets;
+            this.buckets = buckets;
+        }
+
+        @Override
+        Counter newCounter() {
+            return new Counter() {
+                private final AtomicLongArray slots = new AtomicLongArray(buckets);
+
+                @Override
+                public void record(long now, int votes) {
+                    long epoch = now / bucketMillis;
+                    int slot = (int) Math.floorMod(epoch, (long) buckets);
+                    long current;
+                    long updated;
+                    do {
+                        current = slots.get(slot);
+                        updated = ((int) (current >>> 32) == (int) epoch)
+                                ? current + votes
+                                : (epoch << 32) | (votes & 0xFFFFFFFFL);
+                    } while (!slots.compareAndSet(slot, current, updated));
+                }
+
+                @Override
+                public double rank(long now) {
+                    return score(now);
+                }
+
+                @Override
+                public double score(long now) {
+                    int epoch = (int) (now / bucketMillis);
+                    long total = 0;
+                    for (int i = 0; i < buckets; i++) {
+                        long slot = slots.get(i);
+                        int age = epoch - (int) (slot >>> 32);
+                        if (age >= 0 && age < buckets) {
+                            total += (int) slot;
+                        }
+                    }
+                    return total;
+                }
+
+                @Override
+                public long expiresAt(long now) {
+                    long epoch = now / bucketMillis;
+                    int oldestAge = -1;
+                    for (int i = 0; i < buckets; i++) {
+                        long slot = slots.get(i);
+                        int age = (int) epoch - (int) (slot >>> 32);
+                        if (age >= 0 && age < buckets && (int) slot != 0) {
+                            oldestAge = Math.max(oldestAge, age);
+                        }
+                    }
+                    return (oldestAge < 0) ? Long.MAX_VALUE : (epoch - oldestAge + buckets) * bucketMillis;
+                }
+            };
+        }
+    }
+
+    private static final class Decaying extends PopularityWindow {
+        private final double rate;
+
+        Decaying(long halfLifeMillis) {
+            if (halfLifeMillis <= 0) {
+                throw new IllegalArgumentException("halfLifeMillis must be positive: " + halfLifeMillis);
+            }
+            this.rate = Math.log(2) / halfLifeMillis;
+        }
+
+        @Override
+        Counter newCounter() {
+            return new Counter() {
+                private final AtomicLong logWeight = new AtomicLong(Double.doubleToRawLongBits(Double.NEGATIVE_INFINITY));
+
+                @Override
+                public void record(long now, int votes) {
+                    double added = rate * now + Math.log(votes);
+                    long current;
+                    long updated;
+                    do {
+                        current = logWeight.get();
+                        updated = Double.doubleToRawLongBits(logSum(Double.longBitsToDouble(current), added));
+                    } while (!logWeight.compareAndSet(current, updated));
+                }
+
+                @Override
+                public double rank(long now) {
+                    return Double.longBitsToDouble(logWeight.get());
+                }
+
+                @Override
+                public double score(long now) {
+                    return Math.exp(rank(now) - rate * now);
+                }
+
+                @Override
+                public long expiresAt(long now) {
+                    return Long.MAX_VALUE;
+                }
+            };
+        }
+
+        private static double logSum(double a, double b) {
+            double max = Math.max(a, b);
+            if (max == Double.NEGATIVE_INFINITY) return max;
+            return max + Math.log1p(Math.exp(Math.min(a, b) - max));
+        }
+    }
+}
@@ -0,0 +1,59 @@
+package navigator;
+
+import route.Route;
+
+import java.util.Comparator;
+
+final class RouteCandidate {
+    static final Comparator<RouteCandidate> SEARCH_ORDER = (a, b) -> {
+        if (a.favorite != b.favorite) return a.favorite ? -1 : 1;
+        if (a.pointSize != b.pointSize) return Integer.compare(a.pointSize, b.pointSize);
+        if (a.popularity != b.popularity) return Integer.compare(b.popularity, a.popularity);
+        return a.id.compareTo(b.id);
+    };
+
+    static final Comparator<RouteCandidate> FAVORITE_ORDER = (a, b) -> {
+        int byDistance = Double.compare(b.distance, a.distance);
+        if (byDistance != 0) return byDistance;
+        if (a.popularity != b.popularity) return Integer.compare(b.popularity, a.popularity);
+        return a.id.compareTo(b.id);
+    };
+
+    static final Comparator<RouteCandidate> TOP_ORDER = (a, b) -> {
+        if (a.popularity != b.popularity) return Integer.compare(b.popularity, a.popularity);
+        int byDistance = Double.compare(a.distance, b.distance);
+        if (byDistance != 0) return byDistance;
+        if (a.pointSize != b.pointSize) return Integer.compare(a.pointSize, b.pointSize);
+        return Long.compare(a.sequence, b.sequence);
+    };
+
+    final Route route;
+    final String id;
+    final boolean favorite;
+    final int pointSize;
+    final int popularity;
+    final double distance;
+    final long sequence;
+
+    private RouteCandidate(Route route, int pointSize, long sequence) {
+        this.route = route;
+        this.id = route.getId();
+        this.favorite = route.isFavorite();
+        this.pointSize = pointSize;
+        this.popularity = route.getPopularity();
+        this.distance = route.getDistance();
+        this.sequence = sequence;
+    }
+
+    static RouteCandidate forSearch(Route route, int startId, int endId) {
+        return new RouteCandidate(route, route.getPointSize(startId, endId), 0);
+    }
+
+    static RouteCandidate forFavorite(Route route) {
+        return new RouteCandidate(route, 0, 0);
+    }
+
+    static RouteCandidate forTop(Route route, long sequence) {
+        return new RouteCandidate(route, route.getPointCount(), sequence);
+    }
+}
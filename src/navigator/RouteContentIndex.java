@@ -0,0 +1,54 @@
+package navigator;
+
+import route.Route;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+
+class RouteContentIndex {
+    private final Map<Integer, List<Route>> buckets = new HashMap<>();
+    private final Map<Route, Integer> hashes = new IdentityHashMap<>();
+
+    public void add(Route route) {
+        int hash = route.hashCode();
+        hashes.put(route, hash);
+        buckets.computeIfAbsent(hash, h -> new ArrayList<>(1)).add(route);
+    }
+
+    public void remove(Route route) {
+        Integer hash = hashes.remove(route);
+        if (hash == null) return;
+        List<Route> bucket = buckets.get(hash);
+        for (int i = 0; i < bucket.size(); i++) {
+            if (bucket.get(i) == route) {
+                bucket.remove(i);
+                break;
+            }
+        }
+        if (bucket.isEmpty()) {
+            buckets.remove(hash);
+        }
+    }
+
+    public void update(Route route) {
+        if (hashes.containsKey(route)) {
+            remove(route);
+            add(route);
+        }
+    }
+
+    public boolean contains(Route route) {
+        if (route == null) return false;
+        List<Route> bucket = buckets.get(route.hashCode());
+        if (bucket == null) return false;
+        for (Route candidate : bucket) {
+            if (candidate.equals(route)) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
@@ -0,0 +1,128 @@
+package navigator;
+
+import route.Route;
+
+import java.util.AbstractList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Objects;
+import java.util.RandomAccess;
+
+final class RouteSelection {
+    private static final int UNBOUNDED = Integer.MAX_VALUE;
+
+    private final Comparator<RouteCandidate> order;
+    private final Comparator<RouteCandidate> worstFirst;
+    private final int offset;
+    private final int capacity;
+    private RouteCandidate[] heap = new RouteCandidate[16];
+    private int size;
+
+    RouteSelection(Comparator<RouteCandidate> order, int offset, int limit) {
+        if (offset < 0 || limit < 0) {
+            throw new IllegalArgumentException("offset and limit must not be negative: " + offset + ", " + limit);
+        }
+        this.order = order;
+        this.worstFirst = order.reversed();
+        this.offset = offset;
+        this.capacity = (int) Math.min(UNBOUNDED, (long) offset + limit);
+    }
+
+    void offer(RouteCandidate candidate) {
+        if (size < capacity) {
+            if (size == heap.length) {
+                heap = Arrays.copyOf(heap, size * 2);
+            }
+            heap[size++] = candidate;
+            if (capacity != UNBOUNDED) {
+                siftUp(heap, size - 1, worstFirst);
+            }
+        } else if (capacity > 0 && order.compare(candidate, heap[0]) < 0) {
+            heap[0] = candidate;
+            siftDown(heap, 0, size, worstFirst);
+        }
+    }
+
+    List<Route> result() {
+        if (capacity == UNBOUNDED) {
+            return new LazySortedList(heap, size, order, offset);
+        }
+        Arrays.sort(heap, 0, size, order);
+        Route[] routes = new Route[Math.max(0, size - offset)];
+        for (int i = 0; i < routes.length; i++) {
+            routes[i] = heap[offset + i].route;
+        }
+        return Arrays.asList(routes);
+    }
+
+    private static void siftUp(RouteCandidate[] heap, int index, Comparator<RouteCandidate> order) {
+        RouteCandidate candidate = heap[index];
+        while (index > 0) {
+            int parent = (index - 1) >>> 1;
+            if (order.compare(candidate, heap[parent]) >= 0) break;
+            heap[index] = heap[parent];
+            index = parent;
+        }
+        heap[index] = candidate;
+    }
+
+    private static void siftDown(RouteCandidate[] heap, int index, int size, Comparator<RouteCandidate> order) {
+        RouteCandidate candidate = heap[index];
+        int half = size >>> 1;
+        while (index < half) {
+            int child = 2 * index + 1;
+            if (child + 1 < size && order.compare(heap[child + 1], heap[child]) < 0) {
+                child++;
+            }
+            if (order.compare(candidate, heap[child]) <= 0) break;
+            heap[index] = heap[child];
+            index = child;
+        }
+        heap[index] = candidate;
+    }
+
+    private static final class LazySortedList extends AbstractList<Route> implements RandomAccess {
+        private final RouteCandidate[] heap;
+        private final Comparator<RouteCandidate> order;
+        private final Route[] sorted;
+        private int heapSize;
+        private int skip;
+        private int sortedCount;
+
+        LazySortedList(RouteCandidate[] heap, int size, Comparator<RouteCandidate> order, int offset) {
+            this.heap = heap;
+            this.order = order;
+            this.heapSize = size;
+            this.skip = Math.min(offset, size);
+            this.sorted = new Route[size - skip];
+            for (int i = (size >>> 1) - 1; i >= 0; i--) {
+                siftDown(heap, i, size, order);
+            }
+        }
+
+        @Override
+        public Route get(int index) {
+            Objects.checkIndex(index, sorted.length);
+            while (sortedCount <= index) {
+                RouteCandidate best = heap[0];
+                heap[0] = heap[--heapSize];
+                heap[heapSize] = null;
+                if (heapSize > 0) {
+                    siftDown(heap, 0, heapSize, order);
+                }
+                if (skip > 0) {
+                    skip--;
+                } else {
+                    sorted[sortedCount++] = best.route;
+                }
+            }
+            return sorted[index];
+        }
+
+        @Override
+        public int size() {
+            return sorted.length;
+        }
+    }
+}
@@ -0,0 +1,195 @@
+package navigator;
+
+import route.LocationDictionary;
+import route.Route;
+import treemap.PersistentTreeMap;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.function.ObjIntConsumer;
+import java.util.function.UnaryOperator;
+
+final class RouteSnapshot implements ConnectionSearch.Graph {
+    static final RouteSnapshot EMPTY = new RouteSnapshot(PersistentTreeMap.empty(), PersistentTreeMap.empty(),
+            PersistentTreeMap.empty(), PersistentTreeMap.empty());
+
+    private static final class RankKey implements Comparable<RankKey> {
+        final int popularity;
+        final double distance;
+        final int pointCount;
+        final long sequence;
+
+        RankKey(Route route, long sequence) {
+            this.popularity = route.getPopularity();
+            this.distance = route.getDistance();
+            this.pointCount = route.getPointCount();
+            this.sequence = sequence;
+        }
+
+        @Override
+        public int compareTo(RankKey other) {
+            if (popularity != other.popularity) return Integer.compare(other.popularity, popularity);
+            if (distance != other.distance) return Double.compare(distance, other.distance);
+            if (pointCount != other.pointCount) return Integer.compare(pointCount, other.pointCount);
+            return Long.compare(sequence, other.sequence);
+        }
+    }
+
+    private final PersistentTreeMap<String, Route> routes;
+    private final PersistentTreeMap<String, PersistentTreeMap<String, Route>> locations;
+    private final PersistentTreeMap<RankKey, Route> ranking;
+    private final PersistentTreeMap<String, RankKey> rankKeys;
+
+    private RouteSnapshot(PersistentTreeMap<String, Route> routes,
+                          PersistentTreeMap<String, PersistentTreeMap<String, Route>> locations,
+                          PersistentTreeMap<RankKey, Route> ranking,
+                          PersistentTreeMap<String, RankKey> rankKeys) {
+        this.routes = routes;
+        this.locations = locations;
+        this.ranking = ranking;
+        this.rankKeys = rankKeys;
+    }
+
+    RouteSnapshot with(Route route, long sequence) {
+        RouteSnapshot base = without(route.getId());
+        PersistentTreeMap<String, PersistentTreeMap<String, Route>> newLocations = base.locations;
+        for (String point : route.getLocationPoints()) {
+            PersistentTreeMap<String, Route> posting = newLocations.get(point);
+            if (posting == null) posting = PersistentTreeMap.empty();
+            newLocations = newLocations.insert(point, posting.insert(route.getId(), route));
+        }
+        RankKey key = new RankKey(route, sequence);
+        return new RouteSnapshot(base.routes.insert(route.getId(), route), newLocations,
+                base.ranking.insert(key, route), base.rankKeys.insert(route.getId(), key));
+    }
+
+    RouteSnapshot without(String routeId) {
+        Route route = routes.get(routeId);
+        if (route == null) return this;
+        PersistentTreeMap<String, PersistentTreeMap<String, Route>> newLocations = locations;
+        for (String point : route.getLocationPoints()) {
+            PersistentTreeMap<String, Route> posting = newLocations.get(point);
+            if (posting == null) continue;
+            posting = posting.remove(routeId);
+            newLocations = posting.isEmpty() ? newLocations.remove(point) : newLocations.insert(point, posting);
+        }
+        return new RouteSnapshot(routes.remove(routeId), newLocations,
+                ranking.remove(rankKeys.get(routeId)), rankKeys.remove(routeId));
+    }
+
+    RouteSnapshot updated(Route route) {
+        String routeId = route.getId();
+        if (!routes.containsKey(routeId)) return this;
+        PersistentTreeMap<String, PersistentTreeMap<String, Route>> newLocations = locations;
+        for (String point : route.getLocationPoints()) {
+            newLocations = newLocations.insert(point, newLocations.get(point).insert(routeId, route));
+        }
+        RankKey oldKey = rankKeys.get(routeId);
+        RankKey newKey = new RankKey(route, oldKey.sequence);
+        return new RouteSnapshot(routes.insert(routeId, route), newLocations,
+                ranking.remove(oldKey).insert(newKey, route), rankKeys.insert(routeId, newKey));
+    }
+
+    PersistentTreeMap<String, Route> routes() {
+        return routes;
+    }
+
+    Route getRoute(String routeId) {
+        return routes.get(routeId);
+    }
+
+    boolean contains(Route route) {
+        if (route == null || route.getId() == null) return false;
+        Route current = routes.get(route.getId());
+        return current != null && current.equals(route);
+    }
+
+    int size() {
+        return routes.size();
+    }
+
+    long sequenceOf(String routeId) {
+        RankKey key = rankKeys.get(routeId);
+        return (key != null) ? key.sequence : Long.MAX_VALUE;
+    }
+
+    List<Route> searchRoutes(String startPoint, String endPoint, int offset, int limit, UnaryOperator<Route> current) {
+        RouteSelection selection = new RouteSelection(RouteCandidate.SEARCH_ORDER, offset, limit);
+        LocationDictionary dictionary = LocationDictionary.global();
+        int startId = dictionary.find(startPoint);
+        int endId = dictionary.find(endPoint);
+        PersistentTreeMap<String, Route> fromStart = posting(startPoint);
+        PersistentTreeMap<String, Route> toEnd = posting(endPoint);
+        PersistentTreeMap<String, Route> smaller = (fromStart.size() <= toEnd.size()) ? fromStart : toEnd;
+        PersistentTreeMap<String, Route> larger = (smaller == fromStart) ? toEnd : fromStart;
+
+        for (Route route : smaller.values()) {
+            if (larger.containsKey(route.getId()) && route.visitsInOrder(startId, endId)) {
+                selection.offer(RouteCandidate.forSearch(current.apply(route), startId, endId));
+            }
+        }
+        return selection.result();
+    }
+
+    List<Route> getFavoriteRoutes(String destinationPoint, int offset, int limit, UnaryOperator<Route> current) {
+        RouteSelection selection = new RouteSelection(RouteCandidate.FAVORITE_ORDER, offset, limit);
+        int destinationId = LocationDictionary.global().find(destinationPoint);
+        for (Route route : posting(destinationPoint).values()) {
+            if (route.isFavorite() && route.getPointId(0) != destinationId) {
+                selection.offer(RouteCandidate.forFavorite(current.apply(route)));
+            }
+        }
+        return selection.result();
+    }
+
+    List<Route> getTopKRoutes(int k) {
+        List<Route> result = new ArrayList<>(Math.min(k, ranking.size()));
+        for (Route route : ranking.values()) {
+            if (result.size() >= k) break;
+            result.add(route);
+        }
+        return result;
+    }
+
+    List<Route> getTopKRoutes(int k, Collection<String> pending, UnaryOperator<Route> current) {
+        if (pending.isEmpty()) return getTopKRoutes(k);
+        Set<String> seen = new HashSet<>();
+        List<Route> candidates = new ArrayList<>();
+        for (Route route : getTopKRoutes(k + pending.size())) {
+            seen.add(route.getId());
+            candidates.add(current.apply(route));
+        }
+        for (String routeId : pending) {
+            Route route = routes.get(routeId);
+            if (route != null && seen.add(routeId)) {
+                candidates.add(current.apply(route));
+            }
+        }
+        candidates.sort(Comparator.comparingInt(Route::getPopularity).reversed()
+                .thenComparingDouble(Route::getDistance)
+                .thenComparingInt(Route::getPointCount)
+                .thenComparingLong(route -> sequenceOf(route.getId())));
+        return new ArrayList<>(candidates.subList(0, Math.min(k, candidates.size())));
+    }
+
+    @Override
+    public void forEachStop(int location, ObjIntConsumer<Route> visitor) {
+        if (location == LocationDictionary.UNKNOWN) return;
+        for (Route route : posting(LocationDictionary.global().name(location)).values()) {
+            for (int i = 0; i < route.getPointCount(); i++) {
+                if (route.getPointId(i) == location) {
+                    visitor.accept(route, i);
+                }
+            }
+        }
+    }
+
+    private PersistentTreeMap<String, Route> posting(String point) {
+        PersistentTreeMap<String, Route> posting = (point != null) ? locations.get(point) : null;
+        return (posting != null) ? posting : PersistentTreeMap.empty();
+    }
+}
@@ -0,0 +1,279 @@
+package navigator;
+
+import route.LocationDictionary;
+import route.Route;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.IntFunction;
+import java.util.function.Predicate;
+
+public class ShardedNavigator implements Navigator {
+    private static final Comparator<Route> ID_ORDER = Comparator.comparing(Route::getId);
+
+    private final ConcurrentNavigator[] shards;
+    private final AtomicLong sequence;
+    private final Executor executor;
+    private final boolean parallel;
+
+    public ShardedNavigator(int shardCount) {
+        this(shardCount, ForkJoinPool.commonPool());
+    }
+
+    public ShardedNavigator(int shardCount, Executor executor) {
+        if (shardCount <= 0) {
+            throw new IllegalArgumentException("shardCount must be positive: " + shardCount);
+        }
+        this.shards = new ConcurrentNavigator[shardCount];
+        this.sequence = new AtomicLong();
+        for (int i = 0; i < shardCount; i++) {
+            shards[i] = new ConcurrentNavigator(sequence::getAndIncrement);
+        }
+        this.executor = executor;
+        int parallelism = (executor instanceof ForkJoinPool)
+                ? ((ForkJoinPool) executor).getParallelism()
+                : Runtime.getRuntime().availableProcessors();
+        this.parallel = shardCount > 1 && parallelism > 1;
+    }
+
+    public void setQuiet(boolean quiet) {
+        for (ConcurrentNavigator shard : shards) {
+            shard.setQuiet(quiet);
+        }
+    }
+
+    public int shardCount() {
+        return shards.length;
+    }
+
+    private int shardIndex(String routeId) {
+        int h = routeId.hashCode() * 0x9E3779B9;
+        return Math.floorMod(h ^ (h >>> 16), shards.length);
+    }
+
+    private ConcurrentNavigator shardOf(String routeId) {
+        return shards[shardIndex(routeId)];
+    }
+
+    private <T> List<T> gather(IntFunction<T> query) {
+        List<T> results = new ArrayList<>(shards.length);
+        for (int i = 0; i < shards.length; i++) {
+            results.add(query.apply(i));
+        }
+        return results;
+    }
+
+    private <T> List<T> fanOut(IntFunction<T> query) {
+        if (!parallel) {
+            return gather(query);
+        }
+        List<CompletableFuture<T>> futures = new ArrayList<>(shards.length - 1);
+        for (int i = 1; i < shards.length; i++) {
+            int shard = i;
+            futures.add(CompletableFuture.supplyAsync(() -> query.apply(shard), executor));
+        }
+        List<T> results = new ArrayList<>(shards.length);
+        results.add(query.apply(0));
+        try {
+            for (CompletableFuture<T> future : futures) {
+                results.add(future.join());
+            }
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+            throw e;
+        }
+        return results;
+    }
+
+    @Override
+    public void addRoute(Route route) {
+        shardOf(route.getId()).addRoute(route);
+    }
+
+    @Override
+    public void addRoutes(Collection<Route> routes) {
+        int[] counts = new int[shards.length];
+        for (Route route : routes) {
+            counts[shardIndex(route.getId())]++;
+        }
+        List<List<Route>> batches = new ArrayList<>(shards.length);
+        long[][] sequences = new long[shards.length][];
+        for (int i = 0; i < shards.length; i++) {
+            batches.add(new ArrayList<>(counts[i]));
+            sequences[i] = new long[counts[i]];
+        }
+        long next = sequence.getAndAdd(routes.size());
+        for (Route route : routes) {
+            int shard = shardIndex(route.getId());
+            sequences[shard][batches.get(shard).size()] = next++;
+            batches.get(shard).add(route);
+        }
+        fanOut(shard -> {
+            List<Route> batch = batches.get(shard);
+            if (!batch.isEmpty()) {
+                shards[shard].addRoutes(batch, sequences[shard]);
+            }
+            return batch.size();
+        });
+    }
+
+    @Override
+    public void removeRoute(String routeId) {
+        shardOf(routeId).removeRoute(routeId);
+    }
+
+    @Override
+    public boolean contains(Route route) {
+        return shardOf(route.getId()).contains(route);
+    }
+
+    @Override
+    public int size() {
+        int size = 0;
+        for (ConcurrentNavigator shard : shards) {
+            size += shard.size();
+        }
+        return size;
+    }
+
+    @Override
+    public Route getRoute(String routeId) {
+        return shardOf(routeId).getRoute(routeId);
+    }
+
+    @Override
+    public Iterable<Route> getRoutes() {
+        List<Iterable<Route>> sources = new ArrayList<>(shards.length);
+        for (ConcurrentNavigator shard : shards) {
+            sources.add(shard.getRoutes());
+        }
+        return KWayMerge.merged(sources, ID_ORDER);
+    }
+
+    @Override
+    public Iterable<Route> getRoutesByIdPrefix(String prefix) {
+        List<Iterable<Route>> sources = new ArrayList<>(shards.length);
+        for (ConcurrentNavigator shard : shards) {
+            sources.add(shard.getRoutesByIdPrefix(prefix));
+        }
+        return KWayMerge.merged(sources, ID_ORDER);
+    }
+
+    @Override
+    public Iterable<Route> getRoutesByIdRange(String fromId, String toId) {
+        List<Iterable<Route>> sources = new ArrayList<>(shards.length);
+        for (ConcurrentNavigator shard : shards) {
+            sources.add(shard.getRoutesByIdRange(fromId, toId));
+        }
+        return KWayMerge.merged(sources, ID_ORDER);
+    }
+
+    @Override
+    public Iterable<Route> findRoutes(Predicate<Route> filter) {
+        return KWayMerge.merged(fanOut(shard -> shards[shard].findRoutes(filter)), ID_ORDER);
+    }
+
+    @Override
+    public void chooseRoute(String routeId) {
+        shardOf(routeId).chooseRoute(routeId);
+    }
+
+    @Override
+    public void setFavorite(String routeId, boolean favorite) {
+        shardOf(routeId).setFavorite(routeId, favorite);
+    }
+
+    @Override
+    public Iterable<Route> searchRoutes(String startPoint, String endPoint) {
+        return searchRoutes(startPoint, endPoint, 0, Integer.MAX_VALUE);
+    }
+
+    @Override
+    public Iterable<Route> searchRoutes(String startPoint, String endPoint, int offset, int limit) {
+        int window = window(offset, limit);
+        LocationDictionary dictionary = LocationDictionary.global();
+        int startId = dictionary.find(startPoint);
+        int endId = dictionary.find(endPoint);
+        List<List<RouteCandidate>> sources = fanOut(shard -> {
+            List<RouteCandidate> candidates = new ArrayList<>();
+            for (Route route : shards[shard].searchRoutes(startPoint, endPoint, 0, window)) {
+                candidates.add(RouteCandidate.forSearch(route, startId, endId));
+            }
+            return candidates;
+        });
+        return routesOf(KWayMerge.page(sources, RouteCandidate.SEARCH_ORDER, offset, limit));
+    }
+
+    @Override
+    public Iterable<Route> getFavoriteRoutes(String destinationPoint) {
+        return getFavoriteRoutes(destinationPoint, 0, Integer.MAX_VALUE);
+    }
+
+    @Override
+    public Iterable<Route> getFavoriteRoutes(String destinationPoint, int offset, int limit) {
+        int window = window(offset, limit);
+        List<List<RouteCandidate>> sources = fanOut(shard -> {
+            List<RouteCandidate> candidates = new ArrayList<>();
+            for (Route route : shards[shard].getFavoriteRoutes(destinationPoint, 0, window)) {
+                candidates.add(RouteCandidate.forFavorite(route));
+            }
+            return candidates;
+        });
+        return routesOf(KWayMerge.page(sources, RouteCandidate.FAVORITE_ORDER, offset, limit));
+    }
+
+    @Override
+    public List<Connection> searchConnections(String startPoint, String endPoint, int maxTransfers) {
+        List<ConnectionSearch.Graph> graphs = gather(shard -> shards[shard].connectionGraph());
+        return ConnectionSearch.search((location, visitor) -> {
+            for (ConnectionSearch.Graph graph : graphs) {
+                graph.forEachStop(location, visitor);
+            }
+        }, startPoint, endPoint, maxTransfers);
+    }
+
+    @Override
+    public Iterable<Route> getTop3Routes() {
+        return getTopKRoutes(3);
+    }
+
+    @Override
+    public Iterable<Route> getTopKRoutes(int k) {
+        if (k < 0) {
+            throw new IllegalArgumentException("k must not be negative: " + k);
+        }
+        List<List<RouteCandidate>> sources = fanOut(shard -> shards[shard].getRankedTopKRoutes(k));
+        return routesOf(KWayMerge.page(sources, RouteCandidate.TOP_ORDER, 0, k));
+    }
+
+    public void registerGauges(NavigatorMetrics metrics) {
+        for (int i = 0; i < shards.length; i++) {
+            ConcurrentNavigator shard = shards[i];
+            metrics.gauge("shard." + i + ".size", shard::size);
+        }
+    }
+
+    private static int window(int offset, int limit) {
+        if (offset < 0 || limit < 0) {
+            throw new IllegalArgumentException("offset and limit must not be negative: " + offset + ", " + limit);
+        }
+        return (int) Math.min(Integer.MAX_VALUE, (long) offset + limit);
+    }
+
+    private static List<Route> routesOf(List<RouteCandidate> candidates) {
+        List<Route> routes = new ArrayList<>(candidates.size());
+        for (RouteCandidate candidate : candidates) {
+            routes.add(candidate.route);
+        }
+        return routes;
+    }
+}
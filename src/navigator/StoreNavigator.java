@@ -0,0 +1,204 @@
+package navigator;
+
+import route.LocationDictionary;
+import route.Route;
+import route.RouteStore;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Predicate;
+
+public class StoreNavigator implements Navigator {
+    private static final long COMPACTION_THRESHOLD = 1 << 20;
+
+    private final RouteStore store;
+    private final RouteStore.View view;
+    private boolean quiet;
+
+    public StoreNavigator() {
+        this.store = new RouteStore();
+        this.view = store.view();
+    }
+
+    public void setQuiet(boolean quiet) {
+        this.quiet = quiet;
+    }
+
+    private void report(String message) {
+        if (!quiet) {
+            System.out.println(message);
+        }
+    }
+
+    @Override
+    public void addRoute(Route route) {
+        if (store.put(route)) {
+            report("Маршрут успешно добавлен.");
+        }
+        else report("Такой маршрут уже есть!");
+    }
+
+    @Override
+    public void addRoutes(Collection<Route> batch) {
+        int accepted = 0;
+        for (Route route : batch) {
+            if (store.put(route)) {
+                accepted++;
+            }
+        }
+        report("Добавлено маршрутов: " + accepted + " из " + batch.size() + ".");
+    }
+
+    @Override
+    public void removeRoute(String routeId) {
+        if (store.remove(routeId)) {
+            if (store.garbageBytes() >= COMPACTION_THRESHOLD && store.garbageBytes() > store.liveBytes()) {
+                store.compact();
+            }
+            report("Маршрут успешно удален.");
+        }
+        else report("Такого маршрута нет!");
+    }
+
+    @Override
+    public boolean contains(Route route) {
+        if (route == null || route.getId() == null) return false;
+        Route current = getRoute(route.getId());
+        return current != null && current.equals(route);
+    }
+
+    @Override
+    public int size() {
+        return store.size();
+    }
+
+    @Override
+    public Route getRoute(String routeId) {
+        return store.find(routeId, view) ? view.toRoute() : null;
+    }
+
+    @Override
+    public Iterable<Route> getRoutes() {
+        List<Route> result = new ArrayList<>();
+        store.forEachById(candidate -> result.add(candidate.toRoute()));
+        return result;
+    }
+
+    @Override
+    public Iterable<Route> getRoutesByIdPrefix(String prefix) {
+        List<Route> result = new ArrayList<>();
+        store.forEachByIdPrefix(prefix, candidate -> result.add(candidate.toRoute()));
+        return result;
+    }
+
+    @Override
+    public Iterable<Route> getRoutesByIdRange(String fromId, String toId) {
+        List<Route> result = new ArrayList<>();
+        store.forEachByIdRange(fromId, toId, candidate -> result.add(candidate.toRoute()));
+        return result;
+    }
+
+    @Override
+    public Iterable<Route> findRoutes(Predicate<Route> filter) {
+        List<Route> result = new ArrayList<>();
+        Route probe = new Route();
+        store.forEachById(candidate -> {
+            if (filter.test(candidate.copyTo(probe))) {
+                result.add(new Route(probe));
+            }
+        });
+        return result;
+    }
+
+    @Override
+    public void chooseRoute(String routeId) {
+        store.addPopularity(routeId, 1);
+    }
+
+    @Override
+    public void setFavorite(String routeId, boolean favorite) {
+        if (store.find(routeId, view)) {
+            view.setFavorite(favorite);
+        }
+    }
+
+    @Override
+    public Iterable<Route> searchRoutes(String startPoint, String endPoint) {
+        return searchRoutes(startPoint, endPoint, 0, Integer.MAX_VALUE);
+    }
+
+    @Override
+    public Iterable<Route> searchRoutes(String startPoint, String endPoint, int offset, int limit) {
+        RouteSelection selection = new RouteSelection(RouteCandidate.SEARCH_ORDER, offset, limit);
+        LocationDictionary dictionary = LocationDictionary.global();
+        int startId = dictionary.find(startPoint);
+        int endId = dictionary.find(endPoint);
+
+        store.forEachAt(store.countAt(startId) <= store.countAt(endId) ? startId : endId, candidate -> {
+            int startIndex = candidate.indexOfId(startId);
+            if (startIndex != -1 && startIndex <= candidate.indexOfId(endId)) {
+                selection.offer(RouteCandidate.forSearch(candidate.toRoute(), startId, endId));
+            }
+        });
+
+        return selection.result();
+    }
+
+    @Override
+    public Iterable<Route> getFavoriteRoutes(String destinationPoint) {
+        return getFavoriteRoutes(destinationPoint, 0, Integer.MAX_VALUE);
+    }
+
+    @Override
+    public Iterable<Route> getFavoriteRoutes(String destinationPoint, int offset, int limit) {
+        RouteSelection selection = new RouteSelection(RouteCandidate.FAVORITE_ORDER, offset, limit);
+        int destinationId = LocationDictionary.global().find(destinationPoint);
+
+        store.forEachAt(destinationId, candidate -> {
+            if (candidate.isFavorite() && candidate.getPointId(0) != destinationId) {
+                selection.offer(RouteCandidate.forFavorite(candidate.toRoute()));
+            }
+        });
+
+        return selection.result();
+    }
+
+    @Override
+    public List<Connection> searchConnections(String startPoint, String endPoint, int maxTransfers) {
+        Map<Integer, Route> built = new HashMap<>();
+        return ConnectionSearch.search((location, visitor) -> store.forEachAt(location, candidate -> {
+            Route route = built.computeIfAbsent(candidate.getSlot(), slot -> candidate.toRoute());
+            for (int i = 0; i < route.getPointCount(); i++) {
+                if (route.getPointId(i) == location) {
+                    visitor.accept(route, i);
+                }
+            }
+        }), startPoint, endPoint, maxTransfers);
+    }
+
+    @Override
+    public Iterable<Route> getTop3Routes() {
+        return getTopKRoutes(3);
+    }
+
+    @Override
+    public Iterable<Route> getTopKRoutes(int k) {
+        if (k < 0) {
+            throw new IllegalArgumentException("k must not be negative: " + k);
+        }
+        List<Route> result = new ArrayList<>(Math.min(k, store.size()));
+        store.forEachByRank(k, candidate -> result.add(candidate.toRoute()));
+        return result;
+    }
+
+    public void registerGauges(NavigatorMetrics metrics) {
+        metrics.gauge("store.size", store::size);
+        metrics.gauge("store.liveBytes", store::liveBytes);
+        metrics.gauge("store.garbageBytes", store::garbageBytes);
+        metrics.gauge("store.reservedBytes", store::reservedBytes);
+        metrics.gauge("locations", store::locationCount);
+    }
+}
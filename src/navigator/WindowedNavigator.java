@@ -0,0 +1,301 @@
+package navigator;
+
+import route.Route;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.LongSupplier;
+import java.util.function.Predicate;
+
+public class WindowedNavigator implements Navigator {
+    private static final int PENDING_LIMIT = 1 << 10;
+
+    private static final Comparator<Tracked> RANK_ORDER = Comparator.comparingDouble((Tracked t) -> t.rank).reversed()
+            .thenComparingDouble(t -> t.route.getDistance())
+            .thenComparingInt(t -> t.route.getPointCount())
+            .thenComparingLong(t -> t.sequence);
+    private static final Comparator<Tracked> EXPIRY_ORDER = Comparator.comparingLong((Tracked t) -> t.expiresAt)
+            .thenComparingLong(t -> t.sequence);
+
+    private static class Tracked {
+        final Route route;
+        final PopularityWindow.Counter counter;
+        final long sequence;
+        final AtomicBoolean queued = new AtomicBoolean();
+        double rank;
+        long expiresAt = Long.MAX_VALUE;
+
+        Tracked(Route route, PopularityWindow.Counter counter, long sequence) {
+            this.route = route;
+            this.counter = counter;
+            this.sequence = sequence;
+        }
+    }
+
+    private final Navigator navigator;
+    private final PopularityWindow window;
+    private final LongSupplier clock;
+    private final Lock lock;
+    private final Map<String, Tracked> tracked;
+    private final Queue<Tracked> pendingVotes;
+    private final AtomicInteger pendingCount;
+    private final TreeSet<Tracked> ranking;
+    private final TreeSet<Tracked> expirations;
+    private final LongAdder rescores;
+    private long nextSequence;
+
+    public WindowedNavigator(Navigator navigator, PopularityWindow window) {
+        this(navigator, window, () -> System.nanoTime() / 1_000_000);
+    }
+
+    public WindowedNavigator(Navigator navigator, PopularityWindow window, LongSupplier clockMillis) {
+        this.navigator = navigator;
+        this.window = window;
+        this.clock = clockMillis;
+        this.lock = new ReentrantLock();
+        this.tracked = new ConcurrentHashMap<>();
+        this.pendingVotes = new ConcurrentLinkedQueue<>();
+        this.pendingCount = new AtomicInteger();
+        this.ranking = new TreeSet<>(RANK_ORDER);
+        this.expirations = new TreeSet<>(EXPIRY_ORDER);
+        this.rescores = new LongAdder();
+        long now = clock.getAsLong();
+        for (Route route : navigator.getRoutes()) {
+            track(route, now);
+        }
+    }
+
+    @Override
+    public void addRoute(Route route) {
+        navigator.addRoute(route);
+        lock.lock();
+        try {
+            if (!tracked.containsKey(route.getId()) && route.equals(navigator.getRoute(route.getId()))) {
+                track(route, clock.getAsLong());
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public void addRoutes(Collection<Route> routes) {
+        navigator.addRoutes(routes);
+        lock.lock();
+        try {
+            long now = clock.getAsLong();
+            for (Route route : routes) {
+                if (!tracked.containsKey(route.getId()) && route.equals(navigator.getRoute(route.getId()))) {
+                    track(route, now);
+                }
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public void removeRoute(String routeId) {
+        navigator.removeRoute(routeId);
+        lock.lock();
+        try {
+            Tracked entry = tracked.get(routeId);
+            if (entry != null && navigator.getRoute(routeId) == null) {
+                tracked.remove(routeId);
+                ranking.remove(entry);
+                expirations.remove(entry);
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public boolean contains(Route route) {
+        return navigator.contains(route);
+    }
+
+    @Override
+    public int size() {
+        return navigator.size();
+    }
+
+    @Override
+    public Route getRoute(String routeId) {
+        return navigator.getRoute(routeId);
+    }
+
+    @Override
+    public Iterable<Route> getRoutes() {
+        return navigator.getRoutes();
+    }
+
+    @Override
+    public Iterable<Route> getRoutesByIdPrefix(String prefix) {
+        return navigator.getRoutesByIdPrefix(prefix);
+    }
+
+    @Override
+    public Iterable<Route> getRoutesByIdRange(String fromId, String toId) {
+        return navigator.getRoutesByIdRange(fromId, toId);
+    }
+
+    @Override
+    public Iterable<Route> findRoutes(Predicate<Route> filter) {
+        return navigator.findRoutes(filter);
+    }
+
+    @Override
+    public void chooseRoute(String routeId) {
+        navigator.chooseRoute(routeId);
+        Tracked entry = tracked.get(routeId);
+        if (entry != null) {
+            entry.counter.record(clock.getAsLong(), 1);
+            if (!entry.queued.get() && entry.queued.compareAndSet(false, true)) {
+                pendingVotes.add(entry);
+                if (pendingCount.incrementAndGet() >= PENDING_LIMIT) {
+                    flushVotes();
+                }
+            }
+        }
+    }
+
+    @Override
+    public void setFavorite(String routeId, boolean favorite) {
+        navigator.setFavorite(routeId, favorite);
+    }
+
+    @Override
+    public Iterable<Route> searchRoutes(String startPoint, String endPoint) {
+        return navigator.searchRoutes(startPoint, endPoint);
+    }
+
+    @Override
+    public Iterable<Route> searchRoutes(String startPoint, String endPoint, int offset, int limit) {
+        return navigator.searchRoutes(startPoint, endPoint, offset, limit);
+    }
+
+    @Override
+    public Iterable<Route> getFavoriteRoutes(String destinationPoint) {
+        return navigator.getFavoriteRoutes(destinationPoint);
+    }
+
+    @Override
+    public Iterable<Route> getFavoriteRoutes(String destinationPoint, int offset, int limit) {
+        return navigator.getFavoriteRoutes(destinationPoint, offset, limit);
+    }
+
+    @Override
+    public List<Connection> searchConnections(String startPoint, String endPoint, int maxTransfers) {
+        return navigator.searchConnections(startPoint, endPoint, maxTransfers);
+    }
+
+    @Override
+    public Iterable<Route> getTop3Routes() {
+        return getTopKRoutes(3);
+    }
+
+    @Override
+    public Iterable<Route> getTopKRoutes(int k) {
+        if (k < 0) {
+            throw new IllegalArgumentException("k must not be negative: " + k);
+        }
+        lock.lock();
+        try {
+            long now = clock.getAsLong();
+            applyPendingVotes(now);
+            expire(now);
+            List<Route> result = new ArrayList<>(Math.min(k, ranking.size()));
+            Iterator<Tracked> iterator = ranking.iterator();
+            while (result.size() < k && iterator.hasNext()) {
+                result.add(iterator.next().route);
+            }
+            return result;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public double windowedPopularity(String routeId) {
+        Tracked entry = tracked.get(routeId);
+        return (entry != null) ? entry.counter.score(clock.getAsLong()) : 0;
+    }
+
+    public long rescoreCount() {
+        return rescores.sum();
+    }
+
+    public void registerGauges(NavigatorMetrics metrics) {
+        metrics.gauge("window.routes", tracked::size);
+        metrics.gauge("window.rescores", rescores::sum);
+        metrics.gauge("window.expirations", () -> {
+            lock.lock();
+            try {
+                return expirations.size();
+            } finally {
+                lock.unlock();
+            }
+        });
+    }
+
+    private void track(Route route, long now) {
+        Tracked entry = new Tracked(route, window.newCounter(), nextSequence++);
+        entry.rank = entry.counter.rank(now);
+        tracked.put(route.getId(), entry);
+        ranking.add(entry);
+    }
+
+    private void flushVotes() {
+        while (!pendingVotes.isEmpty() && lock.tryLock()) {
+            try {
+                applyPendingVotes(clock.getAsLong());
+            } finally {
+                lock.unlock();
+            }
+        }
+    }
+
+    private void applyPendingVotes(long now) {
+        Tracked entry;
+        while ((entry = pendingVotes.poll()) != null) {
+            pendingCount.decrementAndGet();
+            entry.queued.set(false);
+            if (tracked.get(entry.route.getId()) == entry) {
+                rescore(entry, now);
+            }
+        }
+    }
+
+    private void expire(long now) {
+        while (!expirations.isEmpty() && expirations.first().expiresAt <= now) {
+            rescore(expirations.first(), now);
+        }
+    }
+
+    private void rescore(Tracked entry, long now) {
+        ranking.remove(entry);
+        if (entry.expiresAt != Long.MAX_VALUE) {
+            expirations.remove(entry);
+        }
+        entry.rank = entry.counter.rank(now);
+        entry.expiresAt = entry.counter.expiresAt(now);
+        ranking.add(entry);
+        if (entry.expiresAt != Long.MAX_VALUE) {
+            expirations.add(entry);
+        }
+        rescores.increment();
+    }
+}
@@ -0,0 +1,56 @@
+package route;
+
+import java.util.Arrays;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+public final class LocationDictionary {
+    public static final int UNKNOWN = -1;
+
+    private static final LocationDictionary GLOBAL = new LocationDictionary();
+
+    private final Map<String, Integer> ids = new ConcurrentHashMap<>();
+    private volatile String[] names = new String[64];
+    private int size;
+
+    public static LocationDictionary global() {
+        return GLOBAL;
+    }
+
+    public int intern(String name) {
+        Integer id = ids.get(name);
+        if (id != null) {
+            return id;
+        }
+        synchronized (this) {
+            id = ids.get(name);
+            if (id != null) {
+                return id;
+            }
+            String[] current = names;
+            if (size == current.length) {
+                current = Arrays.copyOf(current, size * 2);
+            }
+            current[size] = name;
+            names = current;
+            ids.put(name, size);
+            return size++;
+        }
+    }
+
+    public int find(String name) {
+        if (name == null) {
+            return UNKNOWN;
+        }
+        Integer id = ids.get(name);
+        return (id != null) ? id : UNKNOWN;
+    }
+
+    public String name(int id) {
+        return names[id];
+    }
+
+    public int size() {
+        return ids.size();
+    }
+}
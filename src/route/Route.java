@@ -1,18 +1,28 @@
 package route;
 
-import java.util.ArrayList;
+import java.util.AbstractList;
+import java.util.Arrays;
 import java.util.List;
 import java.util.Objects;
+import java.util.RandomAccess;
 
 public class Route {
+    private static final int[] NO_POINTS = new int[0];
+    private static final long[] NO_POSITIONS = new long[0];
+    private static final long EMPTY_SLOT = -1L;
+
     private String id;
     private double distance;
     private int popularity;
     private boolean isFavorite;
-    private List<String> locationPoints;
+    private int[] points = NO_POINTS;
+    private int pointCount;
+    private long[] positions = NO_POSITIONS;
+    private int positionCount;
+    private final List<String> locationPoints = new PointList();
+    private int hash;
 
     public Route() {
-        this.locationPoints = new ArrayList<>();
     }
 
     public Route(String id, double distance, int popularity, boolean isFavorite, List<String> locationPoints) {
@@ -20,20 +30,152 @@ public class Route {
         this.distance = distance;
         this.popularity = popularity;
         this.isFavorite = isFavorite;
-        this.locationPoints = locationPoints;
+        setLocationPoints(locationPoints);
+    }
+
+    public Route(Route other) {
+        this.id = other.id;
+        this.distance = other.distance;
+        this.popularity = other.popularity;
+        this.isFavorite = other.isFavorite;
+        this.points = Arrays.copyOf(other.points, other.pointCount);
+        this.pointCount = other.pointCount;
+        this.positions = other.positions.clone();
+        this.positionCount = other.positionCount;
+        this.hash = other.hash;
     }
 
     public int getPointSize(String startPoint, String endPoint) {
-        int startIndex = locationPoints.indexOf(startPoint);
-        int endIndex = locationPoints.indexOf(endPoint);
+        LocationDictionary dictionary = LocationDictionary.global();
+        return getPointSize(dictionary.find(startPoint), dictionary.find(endPoint));
+    }
+
+    public int getPointSize(int startId, int endId) {
+        int startIndex = indexOfId(startId);
+        int endIndex = indexOfId(endId);
         if (startIndex == -1 || endIndex == -1) {
             return 0;
         }
-        return locationPoints.subList(startIndex, endIndex).size();
+        return Math.max(0, endIndex - startIndex);
+    }
+
+    public boolean visitsInOrder(String startPoint, String endPoint) {
+        LocationDictionary dictionary = LocationDictionary.global();
+        return visitsInOrder(dictionary.find(startPoint), dictionary.find(endPoint));
+    }
+
+    public boolean visitsInOrder(int startId, int endId) {
+        int startIndex = indexOfId(startId);
+        return startIndex != -1 && startIndex <= indexOfId(endId);
+    }
+
+    public boolean containsPoint(String point) {
+        return indexOf(point) != -1;
+    }
+
+    public boolean containsPointId(int pointId) {
+        return indexOfId(pointId) != -1;
+    }
+
+    public int indexOf(String point) {
+        return indexOfId(LocationDictionary.global().find(point));
+    }
+
+    public int indexOfId(int pointId) {
+        if (pointId < 0 || positions.length == 0) {
+            return -1;
+        }
+        int mask = positions.length - 1;
+        for (int slot = mix(pointId) & mask; ; slot = (slot + 1) & mask) {
+            long entry = positions[slot];
+            if (entry == EMPTY_SLOT) {
+                return -1;
+            }
+            if ((int) (entry >>> 32) == pointId) {
+                return (int) entry;
+            }
+        }
+    }
+
+    public int getPointCount() {
+        return pointCount;
+    }
+
+    public int getPointId(int index) {
+        Objects.checkIndex(index, pointCount);
+        return points[index];
     }
 
     public void addPoint(String point) {
-        this.locationPoints.add(point);
+        appendPoint(LocationDictionary.global().intern(point));
+        hash = 0;
+    }
+
+    void clearPoints() {
+        pointCount = 0;
+        if (positionCount > 0) {
+            Arrays.fill(positions, EMPTY_SLOT);
+            positionCount = 0;
+        }
+        hash = 0;
+    }
+
+    void appendPoint(int pointId) {
+        if (pointCount == points.length) {
+            points = Arrays.copyOf(points, Math.max(4, pointCount * 2));
+        }
+        points[pointCount] = pointId;
+        if (indexOfId(pointId) == -1) {
+            if ((positionCount + 1) * 2 > positions.length) {
+                positions = new long[Math.max(8, positions.length * 2)];
+                Arrays.fill(positions, EMPTY_SLOT);
+                positionCount = 0;
+                for (int i = 0; i < pointCount; i++) {
+                    if (indexOfId(points[i]) == -1) {
+                        putPosition(points[i], i);
+                    }
+                }
+            }
+            putPosition(pointId, pointCount);
+        }
+        pointCount++;
+    }
+
+    private void putPosition(int pointId, int position) {
+        int mask = positions.length - 1;
+        int slot = mix(pointId) & mask;
+        while (positions[slot] != EMPTY_SLOT) {
+            slot = (slot + 1) & mask;
+        }
+        positions[slot] = ((long) pointId << 32) | position;
+        positionCount++;
+    }
+
+    private static int mix(int pointId) {
+        int h = pointId * 0x9E3779B9;
+        return h ^ (h >>> 16);
+    }
+
+    private class PointList extends AbstractList<String> implements RandomAccess {
+        @Override
+        public String get(int index) {
+            return LocationDictionary.global().name(getPointId(index));
+        }
+
+        @Override
+        public int size() {
+            return pointCount;
+        }
+
+        @Override
+        public int indexOf(Object o) {
+            return (o instanceof String) ? Route.this.indexOf((String) o) : -1;
+        }
+
+        @Override
+        public boolean contains(Object o) {
+            return indexOf(o) != -1;
+        }
     }
 
     public String getId() {
@@ -42,6 +184,7 @@ public class Route {
 
     public void setId(String id) {
         this.id = id;
+        hash = 0;
     }
 
     public double getDistance() {
@@ -50,6 +193,7 @@ public class Route {
 
     public void setDistance(double distance) {
         this.distance = distance;
+        hash = 0;
     }
 
     public int getPopularity() {
@@ -58,6 +202,7 @@ public class Route {
 
     public void setPopularity(int popularity) {
         this.popularity = popularity;
+        hash = 0;
     }
 
     public boolean isFavorite() {
@@ -66,6 +211,7 @@ public class Route {
 
     public void setFavorite(boolean favorite) {
         isFavorite = favorite;
+        hash = 0;
     }
 
     public List<String> getLocationPoints() {
@@ -73,7 +219,15 @@ public class Route {
     }
 
     public void setLocationPoints(List<String> locationPoints) {
-        this.locationPoints = locationPoints;
+        List<String> copy = List.copyOf(locationPoints);
+        points = NO_POINTS;
+        pointCount = 0;
+        positions = NO_POSITIONS;
+        positionCount = 0;
+        for (String point : copy) {
+            addPoint(point);
+        }
+        hash = 0;
     }
 
     @Override
@@ -85,22 +239,39 @@ public class Route {
                 popularity == route.popularity &&
                 isFavorite == route.isFavorite &&
                 Objects.equals(id, route.id) &&
-                Objects.equals(locationPoints, route.locationPoints);
+                Arrays.equals(points, 0, pointCount, route.points, 0, route.pointCount);
     }
 
     @Override
     public int hashCode() {
-        return Objects.hash(id, distance, popularity, isFavorite, locationPoints);
+        int h = hash;
+        if (h == 0) {
+            h = Objects.hash(id, distance, popularity, isFavorite);
+            for (int i = 0; i < pointCount; i++) {
+                h = 31 * h + points[i];
+            }
+            hash = h;
+        }
+        return h;
     }
 
     @Override
     public String toString() {
-        return "Route {" +
-                "id='" + id + '\'' +
-                ", distance=" + distance +
-                ", popularity=" + popularity +
-                ", isFavorite=" + isFavorite +
-                ", locationPoints=" + locationPoints +
-                '}';
+        return appendTo(new StringBuilder(64)).toString();
+    }
+
+    public StringBuilder appendTo(StringBuilder builder) {
+        builder.append("Route {id='").append(id).append('\'')
+                .append(", distance=").append(distance)
+                .append(", popularity=").append(popularity)
+                .append(", isFavorite=").append(isFavorite)
+                .append(", locationPoints=[");
+        for (int i = 0; i < pointCount; i++) {
+            if (i > 0) {
+                builder.append(", ");
+            }
+            builder.append(locationPoints.get(i));
+        }
+        return builder.append("]}");
     }
 }
@@ -0,0 +1,616 @@
+package route;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.function.Consumer;
+
+public final class RouteStore {
+    private static final int PAGE_BITS = 20;
+    private static final int PAGE_SIZE = 1 << PAGE_BITS;
+    private static final int PAGE_MASK = PAGE_SIZE - 1;
+
+    private static final int DISTANCE = 0;
+    private static final int POPULARITY = 8;
+    private static final int FLAGS = 12;
+    private static final int ID_LENGTH = 14;
+    private static final int POINT_COUNT = 16;
+    private static final int HEADER = 20;
+    private static final byte FAVORITE = 1;
+    private static final byte REMOVED = 2;
+
+    private static final int INITIAL_CAPACITY = 16;
+    private static final int[] NO_SLOTS = new int[0];
+
+    private List<ByteBuffer> pages;
+    private int position;
+    private int[] buckets;
+    private int[] hashes;
+    private long[] addresses;
+    private long[] sequences;
+    private int[] freeSlots;
+    private int freeCount;
+    private int nextSlot;
+    private long nextSequence;
+    private int[][] postings;
+    private int[] postingSizes;
+    private int locationCount;
+    private final SlotTree byId;
+    private final SlotTree byRank;
+    private int size;
+    private long liveBytes;
+    private long garbageBytes;
+    private int generation;
+
+    public RouteStore() {
+        this.pages = new ArrayList<>();
+        this.position = PAGE_SIZE;
+        this.buckets = new int[INITIAL_CAPACITY];
+        this.hashes = new int[INITIAL_CAPACITY];
+        this.addresses = new long[INITIAL_CAPACITY];
+        this.sequences = new long[INITIAL_CAPACITY];
+        this.freeSlots = new int[INITIAL_CAPACITY];
+        this.nextSlot = 1;
+        this.postings = new int[INITIAL_CAPACITY][];
+        this.postingSizes = new int[INITIAL_CAPACITY];
+        this.byId = new SlotTree(INITIAL_CAPACITY) {
+            @Override
+            int compare(int a, int b) {
+                return compareIds(a, b);
+            }
+        };
+        this.byRank = new SlotTree(INITIAL_CAPACITY) {
+            @Override
+            int compare(int a, int b) {
+                return compareRanks(a, b);
+            }
+        };
+    }
+
+    public boolean put(Route route) {
+        byte[] id = route.getId().getBytes(StandardCharsets.UTF_8);
+        if (id.length > Short.MAX_VALUE) {
+            throw new IllegalArgumentException("route id is too long: " + id.length + " bytes");
+        }
+        int hash = hash(id);
+        if (bucketOf(id, hash) >= 0) {
+            return false;
+        }
+
+        int pointCount = route.getPointCount();
+        int length = recordLength(id.length, pointCount);
+        if (length > PAGE_SIZE) {
+            throw new IllegalArgumentException("route " + route.getId() + " needs " + length + " bytes, page size is " + PAGE_SIZE);
+        }
+        long address = allocate(length);
+        ByteBuffer page = pages.get(pageOf(address));
+        int offset = offsetOf(address);
+        page.putDouble(offset + DISTANCE, route.getDistance());
+        page.putInt(offset + POPULARITY, route.getPopularity());
+        page.put(offset + FLAGS, route.isFavorite() ? FAVORITE : 0);
+        page.putShort(offset + ID_LENGTH, (short) id.length);
+        page.putInt(offset + POINT_COUNT, pointCount);
+        page.put(offset + HEADER, id);
+        int points = pointsOffset(offset, id.length);
+        for (int i = 0; i < pointCount; i++) {
+            page.putInt(points + 4 * i, route.getPointId(i));
+        }
+
+        if ((size + 1) * 4 > buckets.length * 3) {
+            resize(buckets.length * 2);
+        }
+        int slot = allocateSlot();
+        addresses[slot] = address;
+        sequences[slot] = nextSequence++;
+        insertBucket(slot, hash);
+        byId.insert(slot);
+        byRank.insert(slot);
+        for (int i = 0; i < pointCount; i++) {
+            addPosting(route.getPointId(i), slot);
+        }
+        size++;
+        liveBytes += length;
+        return true;
+    }
+
+    public boolean remove(String routeId) {
+        byte[] id = routeId.getBytes(StandardCharsets.UTF_8);
+        int bucket = bucketOf(id, hash(id));
+        if (bucket < 0) {
+            return false;
+        }
+        int slot = buckets[bucket];
+        ByteBuffer page = pages.get(pageOf(addresses[slot]));
+        int offset = offsetOf(addresses[slot]);
+        int length = recordLength(page, offset);
+        int points = pointsOffset(offset, page.getShort(offset + ID_LENGTH));
+        for (int i = 0, pointCount = page.getInt(offset + POINT_COUNT); i < pointCount; i++) {
+            removePosting(page.getInt(points + 4 * i), slot);
+        }
+        byId.delete(slot);
+        byRank.delete(slot);
+        page.put(offset + FLAGS, (byte) (page.get(offset + FLAGS) | REMOVED));
+        deleteBucket(bucket);
+        freeSlots[freeCount++] = slot;
+        addresses[slot] = 0;
+        size--;
+        liveBytes -= length;
+        garbageBytes += length;
+        return true;
+    }
+
+    public boolean find(String routeId, View view) {
+        int slot = slotOf(routeId);
+        if (slot == SlotTree.NIL) {
+            return false;
+        }
+        view.moveTo(slot);
+        return true;
+    }
+
+    public boolean contains(String routeId) {
+        return slotOf(routeId) != SlotTree.NIL;
+    }
+
+    public boolean addPopularity(String routeId, int delta) {
+        int slot = slotOf(routeId);
+        if (slot == SlotTree.NIL) {
+            return false;
+        }
+        ByteBuffer page = pages.get(pageOf(addresses[slot]));
+        int offset = offsetOf(addresses[slot]) + POPULARITY;
+        setPopularity(slot, page.getInt(offset) + delta);
+        return true;
+    }
+
+    public void forEachById(Consumer<? super View> action) {
+        View view = new View();
+        for (int slot = byId.first(); slot != SlotTree.NIL; slot = byId.next(slot)) {
+            view.moveTo(slot);
+            action.accept(view);
+        }
+    }
+
+    public void forEachByIdRange(String fromId, String toId, Consumer<? super View> action) {
+        if (fromId != null && toId != null && fromId.compareTo(toId) > 0) {
+            throw new IllegalArgumentException("fromKey > toKey: " + fromId + " > " + toId);
+        }
+        byte[] from = (fromId != null) ? fromId.getBytes(StandardCharsets.UTF_8) : null;
+        byte[] to = (toId != null) ? toId.getBytes(StandardCharsets.UTF_8) : null;
+        View view = new View();
+        int slot = (from != null) ? byId.ceiling(candidate -> compareId(candidate, from)) : byId.first();
+        for (; slot != SlotTree.NIL && (to == null || compareId(slot, to) < 0); slot = byId.next(slot)) {
+            view.moveTo(slot);
+            action.accept(view);
+        }
+    }
+
+    public void forEachByIdPrefix(String prefix, Consumer<? super View> action) {
+        byte[] from = prefix.getBytes(StandardCharsets.UTF_8);
+        View view = new View();
+        for (int slot = byId.ceiling(candidate -> compareId(candidate, from));
+             slot != SlotTree.NIL && idStartsWith(slot, from); slot = byId.next(slot)) {
+            view.moveTo(slot);
+            action.accept(view);
+        }
+    }
+
+    public void forEachByRank(int limit, Consumer<? super View> action) {
+        View view = new View();
+        int visited = 0;
+        for (int slot = byRank.first(); slot != SlotTree.NIL && visited < limit; slot = byRank.next(slot)) {
+            view.moveTo(slot);
+            action.accept(view);
+            visited++;
+        }
+    }
+
+    public int locationCount() {
+        return locationCount;
+    }
+
+    public int countAt(int pointId) {
+        return (pointId >= 0 && pointId < postingSizes.length) ? postingSizes[pointId] : 0;
+    }
+
+    public void forEachAt(int pointId, Consumer<? super View> action) {
+        int count = countAt(pointId);
+        if (count == 0) {
+            return;
+        }
+        int[] slots = Arrays.copyOf(postings[pointId], count);
+        View view = new View();
+        for (int slot : slots) {
+            view.moveTo(slot);
+            action.accept(view);
+        }
+    }
+
+    public void forEach(Consumer<? super View> action) {
+        forEachById(action);
+    }
+
+    public View view() {
+        return new View();
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    public long liveBytes() {
+        return liveBytes;
+    }
+
+    public long garbageBytes() {
+        return garbageBytes;
+    }
+
+    public long reservedBytes() {
+        return (long) pages.size() * PAGE_SIZE;
+    }
+
+    public void compact() {
+        List<ByteBuffer> oldPages = pages;
+        pages = new ArrayList<>();
+        position = PAGE_SIZE;
+        for (int slot = byId.first(); slot != SlotTree.NIL; slot = byId.next(slot)) {
+            long address = addresses[slot];
+            ByteBuffer source = oldPages.get(pageOf(address));
+            int offset = offsetOf(address);
+            int length = recordLength(source, offset);
+            long moved = allocate(length);
+            pages.get(pageOf(moved)).put(offsetOf(moved), source, offset, length);
+            addresses[slot] = moved;
+        }
+        garbageBytes = 0;
+        generation++;
+    }
+
+    private int allocateSlot() {
+        if (freeCount > 0) {
+            return freeSlots[--freeCount];
+        }
+        if (nextSlot == addresses.length) {
+            int capacity = addresses.length * 2;
+            addresses = Arrays.copyOf(addresses, capacity);
+            sequences = Arrays.copyOf(sequences, capacity);
+            freeSlots = Arrays.copyOf(freeSlots, capacity);
+            byId.grow(capacity);
+            byRank.grow(capacity);
+        }
+        return nextSlot++;
+    }
+
+    private int slotOf(String routeId) {
+        byte[] id = routeId.getBytes(StandardCharsets.UTF_8);
+        int bucket = bucketOf(id, hash(id));
+        return (bucket < 0) ? SlotTree.NIL : buckets[bucket];
+    }
+
+    private void setPopularity(int slot, int popularity) {
+        byRank.delete(slot);
+        pages.get(pageOf(addresses[slot])).putInt(offsetOf(addresses[slot]) + POPULARITY, popularity);
+        byRank.insert(slot);
+    }
+
+    private void addPosting(int pointId, int slot) {
+        if (pointId >= postingSizes.length) {
+            int capacity = Math.max(pointId + 1, postingSizes.length * 2);
+            postings = Arrays.copyOf(postings, capacity);
+            postingSizes = Arrays.copyOf(postingSizes, capacity);
+        }
+        int[] slots = postings[pointId];
+        int count = postingSizes[pointId];
+        if (count > 0 && slots[count - 1] == slot) {
+            return;
+        }
+        if (slots == null || count == slots.length) {
+            slots = Arrays.copyOf((slots != null) ? slots : NO_SLOTS, Math.max(4, count * 2));
+            postings[pointId] = slots;
+        }
+        slots[count] = slot;
+        postingSizes[pointId] = count + 1;
+        if (count == 0) {
+            locationCount++;
+        }
+    }
+
+    private void removePosting(int pointId, int slot) {
+        int[] slots = postings[pointId];
+        int count = postingSizes[pointId];
+        for (int i = 0; i < count; i++) {
+            if (slots[i] == slot) {
+                slots[i] = slots[--count];
+                postingSizes[pointId] = count;
+                if (count == 0) {
+                    postings[pointId] = null;
+                    locationCount--;
+                }
+                return;
+            }
+        }
+    }
+
+    private int compareIds(int a, int b) {
+        ByteBuffer pageA = pages.get(pageOf(addresses[a]));
+        int offsetA = offsetOf(addresses[a]);
+        ByteBuffer pageB = pages.get(pageOf(addresses[b]));
+        int offsetB = offsetOf(addresses[b]);
+        int lengthA = pageA.getShort(offsetA + ID_LENGTH);
+        int lengthB = pageB.getShort(offsetB + ID_LENGTH);
+        for (int i = 0, n = Math.min(lengthA, lengthB); i < n; i++) {
+            int cmp = Byte.compareUnsigned(pageA.get(offsetA + HEADER + i), pageB.get(offsetB + HEADER + i));
+            if (cmp != 0) {
+                return cmp;
+            }
+        }
+        return Integer.compare(lengthA, lengthB);
+    }
+
+    private int compareId(int slot, byte[] id) {
+        ByteBuffer page = pages.get(pageOf(addresses[slot]));
+        int offset = offsetOf(addresses[slot]);
+        int length = page.getShort(offset + ID_LENGTH);
+        for (int i = 0, n = Math.min(length, id.length); i < n; i++) {
+            int cmp = Byte.compareUnsigned(page.get(offset + HEADER + i), id[i]);
+            if (cmp != 0) {
+                return cmp;
+            }
+        }
+        return Integer.compare(length, id.length);
+    }
+
+    private boolean idStartsWith(int slot, byte[] prefix) {
+        ByteBuffer page = pages.get(pageOf(addresses[slot]));
+        int offset = offsetOf(addresses[slot]);
+        if (page.getShort(offset + ID_LENGTH) < prefix.length) {
+            return false;
+        }
+        for (int i = 0; i < prefix.length; i++) {
+            if (page.get(offset + HEADER + i) != prefix[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private int compareRanks(int a, int b) {
+        ByteBuffer pageA = pages.get(pageOf(addresses[a]));
+        int offsetA = offsetOf(addresses[a]);
+        ByteBuffer pageB = pages.get(pageOf(addresses[b]));
+        int offsetB = offsetOf(addresses[b]);
+        int cmp = Integer.compare(pageB.getInt(offsetB + POPULARITY), pageA.getInt(offsetA + POPULARITY));
+        if (cmp != 0) return cmp;
+        cmp = Double.compare(pageA.getDouble(offsetA + DISTANCE), pageB.getDouble(offsetB + DISTANCE));
+        if (cmp != 0) return cmp;
+        cmp = Integer.compare(pageA.getInt(offsetA + POINT_COUNT), pageB.getInt(offsetB + POINT_COUNT));
+        if (cmp != 0) return cmp;
+        return Long.compare(sequences[a], sequences[b]);
+    }
+
+    private long allocate(int length) {
+        if (position + length > PAGE_SIZE) {
+            if (!pages.isEmpty()) {
+                pages.get(pages.size() - 1).limit(position);
+            }
+            pages.add(ByteBuffer.allocateDirect(PAGE_SIZE).order(ByteOrder.nativeOrder()));
+            position = 0;
+        }
+        long address = ((long) (pages.size() - 1) << PAGE_BITS) | position;
+        position += length;
+        return address;
+    }
+
+    private int bucketOf(byte[] id, int hash) {
+        int mask = buckets.length - 1;
+        for (int bucket = mix(hash) & mask; buckets[bucket] != 0; bucket = (bucket + 1) & mask) {
+            if (hashes[bucket] == hash && idEquals(addresses[buckets[bucket]], id)) {
+                return bucket;
+            }
+        }
+        return -1;
+    }
+
+    private void insertBucket(int slot, int hash) {
+        int mask = buckets.length - 1;
+        int bucket = mix(hash) & mask;
+        while (buckets[bucket] != 0) {
+            bucket = (bucket + 1) & mask;
+        }
+        buckets[bucket] = slot;
+        hashes[bucket] = hash;
+    }
+
+    private void deleteBucket(int bucket) {
+        int mask = buckets.length - 1;
+        int hole = bucket;
+        for (int next = (hole + 1) & mask; buckets[next] != 0; next = (next + 1) & mask) {
+            int home = mix(hashes[next]) & mask;
+            if (((next - home) & mask) >= ((next - hole) & mask)) {
+                buckets[hole] = buckets[next];
+                hashes[hole] = hashes[next];
+                hole = next;
+            }
+        }
+        buckets[hole] = 0;
+        hashes[hole] = 0;
+    }
+
+    private void resize(int capacity) {
+        int[] oldBuckets = buckets;
+        int[] oldHashes = hashes;
+        buckets = new int[capacity];
+        hashes = new int[capacity];
+        for (int bucket = 0; bucket < oldBuckets.length; bucket++) {
+            if (oldBuckets[bucket] != 0) {
+                insertBucket(oldBuckets[bucket], oldHashes[bucket]);
+            }
+        }
+    }
+
+    private boolean idEquals(long address, byte[] id) {
+        ByteBuffer page = pages.get(pageOf(address));
+        int offset = offsetOf(address);
+        if (page.getShort(offset + ID_LENGTH) != id.length) {
+            return false;
+        }
+        for (int i = 0; i < id.length; i++) {
+            if (page.get(offset + HEADER + i) != id[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static int hash(byte[] id) {
+        return Arrays.hashCode(id);
+    }
+
+    private static int mix(int hash) {
+        int h = hash * 0x9E3779B9;
+        return h ^ (h >>> 16);
+    }
+
+    private static int pageOf(long address) {
+        return (int) (address >>> PAGE_BITS);
+    }
+
+    private static int offsetOf(long address) {
+        return (int) address & PAGE_MASK;
+    }
+
+    private static int pointsOffset(int offset, int idLength) {
+        return offset + ((HEADER + idLength + 3) & ~3);
+    }
+
+    private static int recordLength(int idLength, int pointCount) {
+        return (((HEADER + idLength + 3) & ~3) + 4 * pointCount + 7) & ~7;
+    }
+
+    private static int recordLength(ByteBuffer page, int offset) {
+        return recordLength(page.getShort(offset + ID_LENGTH), page.getInt(offset + POINT_COUNT));
+    }
+
+    public final class View {
+        private ByteBuffer page;
+        private int offset;
+        private int generation;
+        private int slot;
+
+        private View() {
+        }
+
+        private void moveTo(int slot) {
+            this.slot = slot;
+            page = pages.get(pageOf(addresses[slot]));
+            offset = offsetOf(addresses[slot]);
+            generation = RouteStore.this.generation;
+        }
+
+        public int getSlot() {
+            page();
+            return slot;
+        }
+
+        private ByteBuffer page() {
+            if (page == null) {
+                throw new IllegalStateException("view is not positioned on a route");
+            }
+            if (generation != RouteStore.this.generation) {
+                throw new IllegalStateException("view was invalidated by compact()");
+            }
+            if ((page.get(offset + FLAGS) & REMOVED) != 0) {
+                throw new IllegalStateException("view points to a removed route");
+            }
+            return page;
+        }
+
+        public String getId() {
+            ByteBuffer page = page();
+            byte[] id = new byte[page.getShort(offset + ID_LENGTH)];
+            page.get(offset + HEADER, id);
+            return new String(id, StandardCharsets.UTF_8);
+        }
+
+        public double getDistance() {
+            return page().getDouble(offset + DISTANCE);
+        }
+
+        public int getPopularity() {
+            return page().getInt(offset + POPULARITY);
+        }
+
+        public void setPopularity(int popularity) {
+            page();
+            RouteStore.this.setPopularity(slot, popularity);
+        }
+
+        public boolean isFavorite() {
+            return (page().get(offset + FLAGS) & FAVORITE) != 0;
+        }
+
+        public void setFavorite(boolean favorite) {
+            ByteBuffer page = page();
+            byte flags = page.get(offset + FLAGS);
+            page.put(offset + FLAGS, (byte) (favorite ? flags | FAVORITE : flags & ~FAVORITE));
+        }
+
+        public int getPointCount() {
+            return page().getInt(offset + POINT_COUNT);
+        }
+
+        public int getPointId(int index) {
+            int pointCount = getPointCount();
+            if (index < 0 || index >= pointCount) {
+                throw new IndexOutOfBoundsException("Index " + index + " out of bounds for length " + pointCount);
+            }
+            return page.getInt(pointsOffset(offset, page.getShort(offset + ID_LENGTH)) + 4 * index);
+        }
+
+        public String getPoint(int index) {
+            return LocationDictionary.global().name(getPointId(index));
+        }
+
+        public int indexOfId(int pointId) {
+            ByteBuffer page = page();
+            int points = pointsOffset(offset, page.getShort(offset + ID_LENGTH));
+            int pointCount = getPointCount();
+            for (int i = 0; i < pointCount; i++) {
+                if (page.getInt(points + 4 * i) == pointId) {
+                    return i;
+                }
+            }
+            return -1;
+        }
+
+        public boolean containsPointId(int pointId) {
+            return indexOfId(pointId) != -1;
+        }
+
+        public Route toRoute() {
+            return copyTo(new Route());
+        }
+
+        public Route copyTo(Route route) {
+            ByteBuffer page = page();
+            int points = pointsOffset(offset, page.getShort(offset + ID_LENGTH));
+            route.clearPoints();
+            for (int i = 0, pointCount = page.getInt(offset + POINT_COUNT); i < pointCount; i++) {
+                route.appendPoint(page.getInt(points + 4 * i));
+            }
+            route.setId(getId());
+            route.setDistance(getDistance());
+            route.setPopularity(getPopularity());
+            route.setFavorite(isFavorite());
+            return route;
+        }
+    }
+}
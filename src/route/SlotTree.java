@@ -0,0 +1,264 @@
+package route;
+
+import java.util.Arrays;
+import java.util.function.IntUnaryOperator;
+
+abstract class SlotTree {
+    static final int NIL = 0;
+
+    private int[] left;
+    private int[] right;
+    private int[] parent;
+    private boolean[] red;
+    private int root = NIL;
+    private int size;
+
+    SlotTree(int capacity) {
+        this.left = new int[capacity];
+        this.right = new int[capacity];
+        this.parent = new int[capacity];
+        this.red = new boolean[capacity];
+    }
+
+    abstract int compare(int a, int b);
+
+    void grow(int capacity) {
+        left = Arrays.copyOf(left, capacity);
+        right = Arrays.copyOf(right, capacity);
+        parent = Arrays.copyOf(parent, capacity);
+        red = Arrays.copyOf(red, capacity);
+    }
+
+    int size() {
+        return size;
+    }
+
+    int first() {
+        return (root == NIL) ? NIL : minimum(root);
+    }
+
+    int next(int slot) {
+        if (right[slot] != NIL) {
+            return minimum(right[slot]);
+        }
+        int child = slot;
+        int up = parent[slot];
+        while (up != NIL && child == right[up]) {
+            child = up;
+            up = parent[up];
+        }
+        return up;
+    }
+
+    int ceiling(IntUnaryOperator compareToKey) {
+        int result = NIL;
+        for (int node = root; node != NIL; ) {
+            if (compareToKey.applyAsInt(node) >= 0) {
+                result = node;
+                node = left[node];
+            } else {
+                node = right[node];
+            }
+        }
+        return result;
+    }
+
+    void insert(int slot) {
+        int up = NIL;
+        int cmp = 0;
+        for (int node = root; node != NIL; node = (cmp < 0) ? left[node] : right[node]) {
+            up = node;
+            cmp = compare(slot, node);
+        }
+        parent[slot] = up;
+        left[slot] = NIL;
+        right[slot] = NIL;
+        red[slot] = true;
+        if (up == NIL) {
+            root = slot;
+        } else if (cmp < 0) {
+            left[up] = slot;
+        } else {
+            right[up] = slot;
+        }
+        size++;
+        fixAfterInsert(slot);
+    }
+
+    void delete(int slot) {
+        int moved = slot;
+        boolean movedRed = red[moved];
+        int child;
+        if (left[slot] == NIL) {
+            child = right[slot];
+            transplant(slot, child);
+        } else if (right[slot] == NIL) {
+            child = left[slot];
+            transplant(slot, child);
+        } else {
+            moved = minimum(right[slot]);
+            movedRed = red[moved];
+            child = right[moved];
+            if (parent[moved] == slot) {
+                parent[child] = moved;
+            } else {
+                transplant(moved, right[moved]);
+                right[moved] = right[slot];
+                parent[right[moved]] = moved;
+            }
+            transplant(slot, moved);
+            left[moved] = left[slot];
+            parent[left[moved]] = moved;
+            red[moved] = red[slot];
+        }
+        if (!movedRed) {
+            fixAfterDelete(child);
+        }
+        left[slot] = NIL;
+        right[slot] = NIL;
+        parent[slot] = NIL;
+        red[slot] = false;
+        parent[NIL] = NIL;
+        size--;
+    }
+
+    private int minimum(int node) {
+        while (left[node] != NIL) {
+            node = left[node];
+        }
+        return node;
+    }
+
+    private void transplant(int target, int replacement) {
+        int up = parent[target];
+        if (up == NIL) {
+            root = replacement;
+        } else if (target == left[up]) {
+            left[up] = replacement;
+        } else {
+            right[up] = replacement;
+        }
+        parent[replacement] = up;
+    }
+
+    private void rotateLeft(int node) {
+        int pivot = right[node];
+        right[node] = left[pivot];
+        if (left[pivot] != NIL) {
+            parent[left[pivot]] = node;
+        }
+        transplant(node, pivot);
+        left[pivot] = node;
+        parent[node] = pivot;
+    }
+
+    private void rotateRight(int node) {
+        int pivot = left[node];
+        left[node] = right[pivot];
+        if (right[pivot] != NIL) {
+            parent[right[pivot]] = node;
+        }
+        transplant(node, pivot);
+        right[pivot] = node;
+        parent[node] = pivot;
+    }
+
+    private void fixAfterInsert(int node) {
+        while (red[parent[node]]) {
+            int up = parent[node];
+            int grand = parent[up];
+            if (up == left[grand]) {
+                int uncle = right[grand];
+                if (red[uncle]) {
+                    red[up] = false;
+                    red[uncle] = false;
+                    red[grand] = true;
+                    node = grand;
+                } else {
+                    if (node == right[up]) {
+                        node = up;
+                        rotateLeft(node);
+                        up = parent[node];
+                    }
+                    red[up] = false;
+                    red[grand] = true;
+                    rotateRight(grand);
+                }
+            } else {
+                int uncle = left[grand];
+                if (red[uncle]) {
+                    red[up] = false;
+                    red[uncle] = false;
+                    red[grand] = true;
+                    node = grand;
+                } else {
+                    if (node == left[up]) {
+                        node = up;
+                        rotateRight(node);
+                        up = parent[node];
+                    }
+                    red[up] = false;
+                    red[grand] = true;
+                    rotateLeft(grand);
+                }
+            }
+        }
+        red[root] = false;
+    }
+
+    private void fixAfterDelete(int node) {
+        while (node != root && !red[node]) {
+            int up = parent[node];
+            if (node == left[up]) {
+                int sibling = right[up];
+                if (red[sibling]) {
+                    red[sibling] = false;
+                    red[up] = true;
+                    rotateLeft(up);
+                    sibling = right[up];
+                }
+                if (!red[left[sibling]] && !red[right[sibling]]) {
+                    red[sibling] = true;
+                    node = up;
+                } else {
+                    if (!red[right[sibling]]) {
+                        red[left[sibling]] = false;
+                        red[sibling] = true;
+                        rotateRight(sibling);
+                        sibling = right[up];
+                    }
+                    red[sibling] = red[up];
+                    red[up] = false;
+                    red[right[sibling]] = false;
+                    rotateLeft(up);
+                    node = root;
+                }
+            } else {
+                int sibling = left[up];
+                if (red[sibling]) {
+                    red[sibling] = false;
+                    red[up] = true;
+                    rotateRight(up);
+                    sibling = left[up];
+                }
+                if (!red[left[sibling]] && !red[right[sibling]]) {
+                    red[sibling] = true;
+                    node = up;
+                } else {
+                    if (!red[left[sibling]]) {
+                        red[right[sibling]] = false;
+                        red[sibling] = true;
+                        rotateLeft(sibling);
+                        sibling = left[up];
+                    }
+                    red[sibling] = red[up];
+                    red[up] = false;
+                    red[left[sibling]] = false;
+                    rotateRight(up);
+                    node = root;
+                }
+            }
+        }
+        red[node] = false;
+    }
+}
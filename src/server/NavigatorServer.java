@@ -0,0 +1,244 @@
+package server;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import navigator.Navigator;
+import route.Route;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.lang.reflect.Method;
+import java.net.InetSocketAddress;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+
+public class NavigatorServer {
+    private static final String THREADS_PROPERTY = "navigator.http.threads";
+    private static final int FALLBACK_THREADS_PER_CORE = 8;
+
+    private interface Endpoint {
+        int handle(Map<String, List<String>> parameters, StringBuilder body);
+    }
+
+    static {
+        if (System.getProperty("sun.net.httpserver.nodelay") == null) {
+            System.setProperty("sun.net.httpserver.nodelay", "true");
+        }
+    }
+
+    private final Navigator navigator;
+    private final HttpServer server;
+    private final ExecutorService executor;
+
+    public NavigatorServer(Navigator navigator, InetSocketAddress address, int backlog) throws IOException {
+        this(navigator, address, backlog, newExecutor());
+    }
+
+    public NavigatorServer(Navigator navigator, InetSocketAddress address, int backlog,
+                           ExecutorService executor) throws IOException {
+        this.navigator = navigator;
+        this.server = HttpServer.create(address, backlog);
+        this.executor = executor;
+        server.setExecutor(executor);
+        context("/routes", Map.of("POST", this::addRoute, "DELETE", this::removeRoute));
+        context("/routes/search", Map.of("GET", this::searchRoutes));
+        context("/routes/favorites", Map.of("GET", this::getFavoriteRoutes));
+        context("/routes/top", Map.of("GET", this::getTopRoutes));
+        context("/routes/choose", Map.of("POST", this::chooseRoute));
+    }
+
+    static ExecutorService newExecutor() {
+        Integer threads = Integer.getInteger(THREADS_PROPERTY);
+        if (threads != null) {
+            if (threads <= 0) {
+                throw new IllegalArgumentException(THREADS_PROPERTY + " must be positive: " + threads);
+            }
+            return newFixedExecutor(threads);
+        }
+        try {
+            Method factory = Executors.class.getMethod("newVirtualThreadPerTaskExecutor");
+            return (ExecutorService) factory.invoke(null);
+        } catch (ReflectiveOperationException e) {
+            int fallback = Runtime.getRuntime().availableProcessors() * FALLBACK_THREADS_PER_CORE;
+            System.err.println("Виртуальные потоки недоступны в Java " + Runtime.version().feature()
+                    + ", используется пул из " + fallback + " потоков (задайте -D" + THREADS_PROPERTY + "=N).");
+            return newFixedExecutor(fallback);
+        }
+    }
+
+    static ExecutorService newFixedExecutor(int threads) {
+        AtomicInteger counter = new AtomicInteger();
+        ThreadFactory factory = task -> {
+            Thread thread = new Thread(task, "navigator-http-" + counter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        };
+        return Executors.newFixedThreadPool(threads, factory);
+    }
+
+    public void start() {
+        server.start();
+    }
+
+    public void stop(int delaySeconds) {
+        server.stop(delaySeconds);
+        executor.shutdown();
+    }
+
+    public int port() {
+        return server.getAddress().getPort();
+    }
+
+    private void context(String path, Map<String, Endpoint> endpoints) {
+        server.createContext(path, exchange -> handle(exchange, endpoints));
+    }
+
+    private void handle(HttpExchange exchange, Map<String, Endpoint> endpoints) throws IOException {
+        try {
+            StringBuilder body = new StringBuilder(512);
+            int status;
+            Endpoint endpoint = endpoints.get(exchange.getRequestMethod());
+            if (!exchange.getRequestURI().getPath().equals(exchange.getHttpContext().getPath())) {
+                status = 404;
+                RouteJson.appendError(body, "not found");
+            } else if (endpoint == null) {
+                status = 405;
+                exchange.getResponseHeaders().set("Allow", String.join(", ", endpoints.keySet()));
+                RouteJson.appendError(body, "method not allowed");
+            } else {
+                try {
+                    status = endpoint.handle(parameters(exchange), body);
+                } catch (IllegalArgumentException e) {
+                    body.setLength(0);
+                    status = 400;
+                    RouteJson.appendError(body, e.getMessage());
+                } catch (RuntimeException e) {
+                    body.setLength(0);
+                    status = 500;
+                    RouteJson.appendError(body, "internal error");
+                    System.err.println("Ошибка обработки запроса " + exchange.getRequestMethod() + " "
+                            + exchange.getRequestURI() + ": " + e);
+                }
+            }
+
+            byte[] bytes = body.toString().getBytes(StandardCharsets.UTF_8);
+            exchange.getResponseHeaders().set("Content-Type", "application/json; charset=utf-8");
+            exchange.sendResponseHeaders(status, bytes.length);
+            try (OutputStream out = exchange.getResponseBody()) {
+                out.write(bytes);
+            }
+        } finally {
+            exchange.close();
+        }
+    }
+
+    private static Map<String, List<String>> parameters(HttpExchange exchange) throws IOException {
+        Map<String, List<String>> parameters = new HashMap<>();
+        parse(exchange.getRequestURI().getRawQuery(), parameters);
+        byte[] form = exchange.getRequestBody().readAllBytes();
+        if (form.length > 0) {
+            parse(new String(form, StandardCharsets.UTF_8), parameters);
+        }
+        return parameters;
+    }
+
+    private static void parse(String query, Map<String, List<String>> parameters) {
+        if (query == null || query.isEmpty()) return;
+        for (String pair : query.split("&")) {
+            if (pair.isEmpty()) continue;
+            int separator = pair.indexOf('=');
+            String name = URLDecoder.decode((separator < 0) ? pair : pair.substring(0, separator), StandardCharsets.UTF_8);
+            String value = (separator < 0) ? "" : URLDecoder.decode(pair.substring(separator + 1), StandardCharsets.UTF_8);
+            parameters.computeIfAbsent(name, key -> new ArrayList<>(1)).add(value);
+        }
+    }
+
+    private static String parameter(Map<String, List<String>> parameters, String name) {
+        List<String> values = parameters.get(name);
+        if (values == null) {
+            throw new IllegalArgumentException("missing parameter: " + name);
+        }
+        return values.get(0);
+    }
+
+    private static int intParameter(Map<String, List<String>> parameters, String name, int defaultValue) {
+        List<String> values = parameters.get(name);
+        return (values == null) ? defaultValue : Integer.parseInt(values.get(0));
+    }
+
+    private int searchRoutes(Map<String, List<String>> parameters, StringBuilder body) {
+        String startPoint = parameter(parameters, "start");
+        String endPoint = parameter(parameters, "end");
+        int offset = intParameter(parameters, "offset", 0);
+        int limit = intParameter(parameters, "limit", Integer.MAX_VALUE);
+        RouteJson.appendRoutes(body, navigator.searchRoutes(startPoint, endPoint, offset, limit));
+        return 200;
+    }
+
+    private int getFavoriteRoutes(Map<String, List<String>> parameters, StringBuilder body) {
+        String destinationPoint = parameter(parameters, "destination");
+        int offset = intParameter(parameters, "offset", 0);
+        int limit = intParameter(parameters, "limit", Integer.MAX_VALUE);
+        RouteJson.appendRoutes(body, navigator.getFavoriteRoutes(destinationPoint, offset, limit));
+        return 200;
+    }
+
+    private int getTopRoutes(Map<String, List<String>> parameters, StringBuilder body) {
+        int k = intParameter(parameters, "k", 3);
+        RouteJson.appendRoutes(body, (k == 3) ? navigator.getTop3Routes() : navigator.getTopKRoutes(k));
+        return 200;
+    }
+
+    private int chooseRoute(Map<String, List<String>> parameters, StringBuilder body) {
+        String routeId = parameter(parameters, "id");
+        Route route = navigator.getRoute(routeId);
+        if (route == null) {
+            RouteJson.appendError(body, "route not found: " + routeId);
+            return 404;
+        }
+        navigator.chooseRoute(routeId);
+        RouteJson.appendRoute(body, route);
+        return 200;
+    }
+
+    private int addRoute(Map<String, List<String>> parameters, StringBuilder body) {
+        List<String> points = parameters.getOrDefault("point", Collections.emptyList());
+        if (points.isEmpty()) {
+            throw new IllegalArgumentException("missing parameter: point");
+        }
+        Route route = new Route(parameter(parameters, "id"),
+                Double.parseDouble(parameter(parameters, "distance")),
+                intParameter(parameters, "popularity", 0),
+                Boolean.parseBoolean(parameters.getOrDefault("favorite", List.of("false")).get(0)),
+                points);
+        boolean existed = navigator.getRoute(route.getId()) != null;
+        navigator.addRoute(route);
+        if (existed || !navigator.contains(route)) {
+            RouteJson.appendError(body, "route already exists: " + route.getId());
+            return 409;
+        }
+        RouteJson.appendRoute(body, route);
+        return 201;
+    }
+
+    private int removeRoute(Map<String, List<String>> parameters, StringBuilder body) {
+        String routeId = parameter(parameters, "id");
+        Route route = navigator.getRoute(routeId);
+        if (route == null) {
+            RouteJson.appendError(body, "route not found: " + routeId);
+            return 404;
+        }
+        navigator.removeRoute(routeId);
+        RouteJson.appendRoute(body, route);
+        return 200;
+    }
+}
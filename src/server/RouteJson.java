@@ -0,0 +1,80 @@
+package server;
+
+import route.Route;
+
+import java.util.List;
+
+final class RouteJson {
+    private RouteJson() {
+    }
+
+    static StringBuilder appendRoutes(StringBuilder builder, Iterable<Route> routes) {
+        builder.append('[');
+        boolean first = true;
+        for (Route route : routes) {
+            if (!first) {
+                builder.append(',');
+            }
+            appendRoute(builder, route);
+            first = false;
+        }
+        return builder.append(']');
+    }
+
+    static StringBuilder appendRoute(StringBuilder builder, Route route) {
+        builder.append("{\"id\":");
+        appendString(builder, route.getId());
+        builder.append(",\"distance\":").append(route.getDistance())
+                .append(",\"popularity\":").append(route.getPopularity())
+                .append(",\"favorite\":").append(route.isFavorite())
+                .append(",\"points\":[");
+        List<String> points = route.getLocationPoints();
+        for (int i = 0; i < points.size(); i++) {
+            if (i > 0) {
+                builder.append(',');
+            }
+            appendString(builder, points.get(i));
+        }
+        return builder.append("]}");
+    }
+
+    static StringBuilder appendError(StringBuilder builder, String message) {
+        builder.append("{\"error\":");
+        appendString(builder, message);
+        return builder.append('}');
+    }
+
+    static StringBuilder appendString(StringBuilder builder, String value) {
+        if (value == null) {
+            return builder.append("null");
+        }
+        builder.append('"');
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            switch (c) {
+                case '"':
+                    builder.append("\\\"");
+                    break;
+                case '\\':
+                    builder.append("\\\\");
+                    break;
+                case '\n':
+                    builder.append("\\n");
+                    break;
+                case '\r':
+                    builder.append("\\r");
+                    break;
+                case '\t':
+                    builder.append("\\t");
+                    break;
+                default:
+                    if (c < 0x20) {
+                        builder.append(String.format("\\u%04x", (int) c));
+                    } else {
+                        builder.append(c);
+                    }
+            }
+        }
+        return builder.append('"');
+    }
+}
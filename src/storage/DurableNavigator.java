@@ -0,0 +1,321 @@
+package storage;
+
+import navigator.Connection;
+import navigator.Navigator;
+import route.Route;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Predicate;
+import java.util.function.Supplier;
+
+public class DurableNavigator implements Navigator, Closeable {
+    private static final String SNAPSHOT_FILE = "routes.snapshot";
+    private static final String LOG_PREFIX = "wal-";
+    private static final String LOG_SUFFIX = ".log";
+
+    private final Navigator navigator;
+    private final Path directory;
+    private final int groupCommitBytes;
+    private final long compactionBytes;
+    private final ReadWriteLock lock;
+    private final ScheduledExecutorService flusher;
+    private volatile WriteAheadLog log;
+    private long generation;
+
+    public DurableNavigator(Navigator navigator, Path directory, long groupCommitMillis,
+                            int groupCommitBytes, long compactionBytes) throws IOException {
+        this.navigator = navigator;
+        this.directory = directory;
+        this.groupCommitBytes = groupCommitBytes;
+        this.compactionBytes = compactionBytes;
+        this.lock = new ReentrantReadWriteLock();
+
+        Files.createDirectories(directory);
+        recover();
+        this.log = new WriteAheadLog(logFile(generation), groupCommitBytes);
+
+        this.flusher = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "navigator-wal-flusher");
+            thread.setDaemon(true);
+            return thread;
+        });
+        flusher.scheduleWithFixedDelay(this::groupCommit, groupCommitMillis, groupCommitMillis, TimeUnit.MILLISECONDS);
+    }
+
+    private void recover() throws IOException {
+        Path snapshotFile = directory.resolve(SNAPSHOT_FILE);
+        if (Files.exists(snapshotFile)) {
+            Snapshot snapshot = Snapshot.open(snapshotFile);
+            navigator.addRoutes(snapshot.routes());
+            generation = snapshot.generation();
+        }
+        for (long logGeneration : logGenerations()) {
+            if (logGeneration < generation) {
+                Files.delete(logFile(logGeneration));
+            } else {
+                WriteAheadLog.replay(logFile(logGeneration), navigator);
+                generation = logGeneration;
+            }
+        }
+    }
+
+    private List<Long> logGenerations() throws IOException {
+        List<Long> generations = new ArrayList<>();
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(directory, LOG_PREFIX + "*" + LOG_SUFFIX)) {
+            for (Path file : files) {
+                String name = file.getFileName().toString();
+                generations.add(Long.parseLong(name.substring(LOG_PREFIX.length(), name.length() - LOG_SUFFIX.length())));
+            }
+        }
+        Collections.sort(generations);
+        return generations;
+    }
+
+    private Path logFile(long logGeneration) {
+        return directory.resolve(LOG_PREFIX + logGeneration + LOG_SUFFIX);
+    }
+
+    public void checkpoint() throws IOException {
+        lock.writeLock().lock();
+        try {
+            log.close();
+            generation++;
+            log = new WriteAheadLog(logFile(generation), groupCommitBytes);
+            Snapshot.write(directory.resolve(SNAPSHOT_FILE), navigator.getRoutes(), generation);
+            for (long logGeneration : logGenerations()) {
+                if (logGeneration < generation) {
+                    Files.delete(logFile(logGeneration));
+                }
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void sync() throws IOException {
+        lock.readLock().lock();
+        try {
+            log.flush();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private void groupCommit() {
+        try {
+            sync();
+            if (log.size() > compactionBytes) {
+                checkpoint();
+            }
+        } catch (IOException | RuntimeException e) {
+            System.err.println("WAL group commit failed: " + e);
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        flusher.shutdown();
+        try {
+            if (!flusher.awaitTermination(30, TimeUnit.SECONDS)) {
+                System.err.println("WAL flusher did not stop within 30 s, closing the log anyway");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        lock.writeLock().lock();
+        try {
+            log.flush();
+            log.close();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public void addRoute(Route route) {
+        lock.writeLock().lock();
+        try {
+            boolean absent = navigator.getRoute(route.getId()) == null;
+            navigator.addRoute(route);
+            if (absent && navigator.getRoute(route.getId()) != null) {
+                log.appendAdd(route);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public void addRoutes(Collection<Route> routes) {
+        lock.writeLock().lock();
+        try {
+            Set<String> absent = new LinkedHashSet<>();
+            for (Route route : routes) {
+                if (navigator.getRoute(route.getId()) == null) {
+                    absent.add(route.getId());
+                }
+            }
+            navigator.addRoutes(routes);
+            for (String routeId : absent) {
+                Route added = navigator.getRoute(routeId);
+                if (added != null) {
+                    log.appendAdd(added);
+                }
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public void removeRoute(String routeId) {
+        lock.writeLock().lock();
+        try {
+            if (navigator.getRoute(routeId) != null) {
+                navigator.removeRoute(routeId);
+                log.appendRemove(routeId);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public void chooseRoute(String routeId) {
+        lock.writeLock().lock();
+        try {
+            if (navigator.getRoute(routeId) != null) {
+                navigator.chooseRoute(routeId);
+                log.appendChoose(routeId);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public void setFavorite(String routeId, boolean favorite) {
+        lock.writeLock().lock();
+        try {
+            if (navigator.getRoute(routeId) != null) {
+                navigator.setFavorite(routeId, favorite);
+                log.appendFavorite(routeId, favorite);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private <T> T read(Supplier<T> query) {
+        lock.readLock().lock();
+        try {
+            return query.get();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private Iterable<Route> readAll(Supplier<Iterable<Route>> query) {
+        return read(() -> {
+            List<Route> result = new ArrayList<>();
+            query.get().forEach(result::add);
+            return result;
+        });
+    }
+
+    @Override
+    public boolean contains(Route route) {
+        return read(() -> navigator.contains(route));
+    }
+
+    @Override
+    public int size() {
+        return read(navigator::size);
+    }
+
+    @Override
+    public Route getRoute(String routeId) {
+        return read(() -> navigator.getRoute(routeId));
+    }
+
+    @Override
+    public Iterable<Route> getRoutes() {
+        return readAll(navigator::getRoutes);
+    }
+
+    @Override
+    public Iterable<Route> getRoutesByIdPrefix(String prefix) {
+        return readAll(() -> navigator.getRoutesByIdPrefix(prefix));
+    }
+
+    @Override
+    public Iterable<Route> getRoutesByIdRange(String fromId, String toId) {
+        return readAll(() -> navigator.getRoutesByIdRange(fromId, toId));
+    }
+
+    @Override
+    public Iterable<Route> findRoutes(Predicate<Route> filter) {
+        return readAll(() -> navigator.findRoutes(filter));
+    }
+
+    @Override
+    public Iterable<Route> searchRoutes(String startPoint, String endPoint) {
+        return readAll(() -> navigator.searchRoutes(startPoint, endPoint));
+    }
+
+    @Override
+    public Iterable<Route> searchRoutes(String startPoint, String endPoint, int offset, int limit) {
+        return readAll(() -> navigator.searchRoutes(startPoint, endPoint, offset, limit));
+    }
+
+    @Override
+    public Iterable<Route> getFavoriteRoutes(String destinationPoint) {
+        return readAll(() -> navigator.getFavoriteRoutes(destinationPoint));
+    }
+
+    @Override
+    public Iterable<Route> getFavoriteRoutes(String destinationPoint, int offset, int limit) {
+        return readAll(() -> navigator.getFavoriteRoutes(destinationPoint, offset, limit));
+    }
+
+    @Override
+    public List<Connection> searchConnections(String startPoint, String endPoint, int maxTransfers) {
+        return read(() -> navigator.searchConnections(startPoint, endPoint, maxTransfers));
+    }
+
+    @Override
+    public Iterable<Route> getTop3Routes() {
+        return readAll(navigator::getTop3Routes);
+    }
+
+    @Override
+    public Iterable<Route> getTopKRoutes(int k) {
+        return readAll(() -> navigator.getTopKRoutes(k));
+    }
+}
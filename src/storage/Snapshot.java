@@ -0,0 +1,257 @@
+package storage;
+
+import route.Route;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.AbstractList;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+public class Snapshot {
+    private static final int MAGIC = 0x4E415653;
+    private static final int VERSION = 1;
+    private static final int HEADER_SIZE = 40;
+    private static final int ROUTE_RECORD_SIZE = 28;
+
+    private final MappedByteBuffer buffer;
+    private final int stringCount;
+    private final int routeCount;
+    private final int stringsOffset;
+    private final int bytesOffset;
+    private final int routesOffset;
+    private final int pointsOffset;
+    private final AtomicReferenceArray<String> strings;
+    private final AtomicReferenceArray<Route> routes;
+
+    private Snapshot(MappedByteBuffer buffer) throws IOException {
+        this.buffer = buffer;
+        if (buffer.limit() < HEADER_SIZE || buffer.getInt(0) != MAGIC) {
+            throw new IOException("Not a route snapshot");
+        }
+        if (buffer.getInt(4) != VERSION) {
+            throw new IOException("Unsupported snapshot version: " + buffer.getInt(4));
+        }
+        this.stringCount = buffer.getInt(8);
+        this.routeCount = buffer.getInt(12);
+        this.stringsOffset = buffer.getInt(16);
+        this.bytesOffset = buffer.getInt(20);
+        this.routesOffset = buffer.getInt(24);
+        this.pointsOffset = buffer.getInt(28);
+        if (stringCount < 0 || routeCount < 0 || stringsOffset != HEADER_SIZE
+                || bytesOffset != stringsOffset + (stringCount + 1L) * Integer.BYTES
+                || routesOffset < bytesOffset
+                || pointsOffset != routesOffset + (long) routeCount * ROUTE_RECORD_SIZE
+                || pointsOffset > buffer.limit()) {
+            throw new IOException("Corrupt snapshot header");
+        }
+        this.strings = new AtomicReferenceArray<>(stringCount);
+        this.routes = new AtomicReferenceArray<>(routeCount);
+    }
+
+    public static Snapshot open(Path file) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            if (channel.size() > Integer.MAX_VALUE) {
+                throw new IOException("Snapshot is larger than 2 GB: " + file);
+            }
+            return new Snapshot(channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size()));
+        }
+    }
+
+    public static void write(Path file, Iterable<Route> source) throws IOException {
+        write(file, source, 0L);
+    }
+
+    public static void write(Path file, Iterable<Route> source, long generation) throws IOException {
+        Map<String, Integer> dictionary = new HashMap<>();
+        List<String> strings = new ArrayList<>();
+        List<Route> routes = new ArrayList<>();
+        long pointCount = 0;
+        for (Route route : source) {
+            if (!routes.isEmpty() && routes.get(routes.size() - 1).getId().compareTo(route.getId()) > 0) {
+                throw new IllegalArgumentException("routes are not sorted by id at " + route.getId());
+            }
+            routes.add(route);
+            intern(route.getId(), dictionary, strings);
+            for (String point : route.getLocationPoints()) {
+                intern(point, dictionary, strings);
+            }
+            pointCount += route.getLocationPoints().size();
+        }
+
+        List<byte[]> encoded = new ArrayList<>(strings.size());
+        long bytesSize = 0;
+        for (String string : strings) {
+            byte[] bytes = string.getBytes(StandardCharsets.UTF_8);
+            encoded.add(bytes);
+            bytesSize += bytes.length;
+        }
+
+        long stringsOffset = HEADER_SIZE;
+        long bytesOffset = stringsOffset + (strings.size() + 1L) * Integer.BYTES;
+        long routesOffset = bytesOffset + bytesSize;
+        long pointsOffset = routesOffset + (long) routes.size() * ROUTE_RECORD_SIZE;
+        long fileSize = pointsOffset + pointCount * Integer.BYTES;
+        if (fileSize > Integer.MAX_VALUE) {
+            throw new IOException("Snapshot would be larger than 2 GB: " + fileSize + " bytes in " + file);
+        }
+
+        ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE);
+        header.putInt(MAGIC).putInt(VERSION).putInt(strings.size()).putInt(routes.size())
+                .putInt((int) stringsOffset).putInt((int) bytesOffset).putInt((int) routesOffset)
+                .putInt((int) pointsOffset).putLong(generation).flip();
+
+        ByteBuffer offsets = ByteBuffer.allocate((strings.size() + 1) * Integer.BYTES);
+        ByteBuffer bytes = ByteBuffer.allocate((int) bytesSize);
+        for (byte[] string : encoded) {
+            offsets.putInt(bytes.position());
+            bytes.put(string);
+        }
+        offsets.putInt(bytes.position()).flip();
+        bytes.flip();
+
+        ByteBuffer table = ByteBuffer.allocate(routes.size() * ROUTE_RECORD_SIZE);
+        ByteBuffer points = ByteBuffer.allocate((int) (pointCount * Integer.BYTES));
+        for (Route route : routes) {
+            table.putInt(dictionary.get(route.getId()))
+                    .putDouble(route.getDistance())
+                    .putInt(route.getPopularity())
+                    .putInt(route.isFavorite() ? 1 : 0)
+                    .putInt(points.position() / Integer.BYTES)
+                    .putInt(route.getLocationPoints().size());
+            for (String point : route.getLocationPoints()) {
+                points.putInt(dictionary.get(point));
+            }
+        }
+        table.flip();
+        points.flip();
+
+        Path temp = file.resolveSibling(file.getFileName() + ".tmp");
+        try (FileChannel channel = FileChannel.open(temp, StandardOpenOption.CREATE,
+                StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            ByteBuffer[] sections = {header, offsets, bytes, table, points};
+            long remaining = fileSize;
+            while (remaining > 0) {
+                remaining -= channel.write(sections);
+            }
+            channel.force(true);
+        }
+        Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        syncDirectory(file.toAbsolutePath().getParent());
+    }
+
+    private static void syncDirectory(Path directory) throws IOException {
+        if (System.getProperty("os.name").startsWith("Windows")) {
+            return;
+        }
+        try (FileChannel channel = FileChannel.open(directory, StandardOpenOption.READ)) {
+            channel.force(true);
+        }
+    }
+
+    private static void intern(String string, Map<String, Integer> dictionary, List<String> strings) {
+        if (!dictionary.containsKey(string)) {
+            dictionary.put(string, strings.size());
+            strings.add(string);
+        }
+    }
+
+    public int size() {
+        return routeCount;
+    }
+
+    public long generation() {
+        return buffer.getLong(32);
+    }
+
+    public String getId(int index) {
+        return string(buffer.getInt(record(index)));
+    }
+
+    public Route getRoute(int index) {
+        int record = record(index);
+        Route route = routes.get(index);
+        if (route == null) {
+            int firstPoint = buffer.getInt(record + 20);
+            int pointCount = buffer.getInt(record + 24);
+            if (firstPoint < 0 || pointCount < 0
+                    || pointsOffset + ((long) firstPoint + pointCount) * Integer.BYTES > buffer.limit()) {
+                throw new IllegalStateException("Corrupt snapshot record " + index);
+            }
+            List<String> points = new ArrayList<>(pointCount);
+            for (int i = 0; i < pointCount; i++) {
+                points.add(string(buffer.getInt(pointsOffset + (firstPoint + i) * Integer.BYTES)));
+            }
+            route = new Route(string(buffer.getInt(record)), buffer.getDouble(record + 4),
+                    buffer.getInt(record + 12), buffer.getInt(record + 16) != 0, points);
+            if (!routes.compareAndSet(index, null, route)) {
+                route = routes.get(index);
+            }
+        }
+        return route;
+    }
+
+    public Route findRoute(String routeId) {
+        int lo = 0;
+        int hi = routeCount - 1;
+        while (lo <= hi) {
+            int mid = (lo + hi) >>> 1;
+            int compareResult = getId(mid).compareTo(routeId);
+            if (compareResult == 0) {
+                return getRoute(mid);
+            } else if (compareResult < 0) {
+                lo = mid + 1;
+            } else {
+                hi = mid - 1;
+            }
+        }
+        return null;
+    }
+
+    public List<Route> routes() {
+        return new AbstractList<>() {
+            @Override
+            public Route get(int index) {
+                return getRoute(index);
+            }
+
+            @Override
+            public int size() {
+                return routeCount;
+            }
+        };
+    }
+
+    private int record(int index) {
+        if (index < 0 || index >= routeCount) {
+            throw new IndexOutOfBoundsException("Route index " + index + " out of bounds for " + routeCount);
+        }
+        return routesOffset + index * ROUTE_RECORD_SIZE;
+    }
+
+    private String string(int index) {
+        String string = strings.get(index);
+        if (string == null) {
+            int start = buffer.getInt(stringsOffset + index * Integer.BYTES);
+            int end = buffer.getInt(stringsOffset + (index + 1) * Integer.BYTES);
+            if (start < 0 || end < start || (long) bytesOffset + end > routesOffset) {
+                throw new IllegalStateException("Corrupt snapshot string " + index);
+            }
+            byte[] bytes = new byte[end - start];
+            buffer.get(bytesOffset + start, bytes);
+            string = new String(bytes, StandardCharsets.UTF_8);
+            strings.set(index, string);
+        }
+        return string;
+    }
+}
@@ -0,0 +1,206 @@
+package storage;
+
+import navigator.Navigator;
+import route.Route;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.zip.CRC32;
+
+public class WriteAheadLog implements Closeable {
+    private static final byte ADD = 1;
+    private static final byte REMOVE = 2;
+    private static final byte CHOOSE = 3;
+    private static final byte FAVORITE = 4;
+    private static final int RECORD_HEADER_SIZE = 8;
+
+    private final FileChannel channel;
+    private final int groupCommitBytes;
+    private final CRC32 crc = new CRC32();
+    private ByteBuffer pending;
+    private long size;
+
+    public WriteAheadLog(Path file, int groupCommitBytes) throws IOException {
+        this.channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.WRITE);
+        this.groupCommitBytes = groupCommitBytes;
+        this.pending = ByteBuffer.allocate(Math.max(groupCommitBytes, 4096) * 2);
+        this.size = channel.size();
+        channel.position(size);
+    }
+
+    public void appendAdd(Route route) throws IOException {
+        byte[] id = encode(route.getId());
+        List<byte[]> points = new ArrayList<>(route.getLocationPoints().size());
+        int length = 1 + Integer.BYTES + id.length + Double.BYTES + Integer.BYTES + 1 + Integer.BYTES;
+        for (String point : route.getLocationPoints()) {
+            byte[] bytes = encode(point);
+            points.add(bytes);
+            length += Integer.BYTES + bytes.length;
+        }
+
+        synchronized (this) {
+            int start = begin(length);
+            pending.put(ADD);
+            putBytes(id);
+            pending.putDouble(route.getDistance());
+            pending.putInt(route.getPopularity());
+            pending.put(route.isFavorite() ? (byte) 1 : (byte) 0);
+            pending.putInt(points.size());
+            for (byte[] point : points) {
+                putBytes(point);
+            }
+            end(start, length);
+        }
+    }
+
+    public void appendRemove(String routeId) throws IOException {
+        appendId(REMOVE, routeId);
+    }
+
+    public void appendChoose(String routeId) throws IOException {
+        appendId(CHOOSE, routeId);
+    }
+
+    public void appendFavorite(String routeId, boolean favorite) throws IOException {
+        byte[] id = encode(routeId);
+        int length = 1 + Integer.BYTES + id.length + 1;
+        synchronized (this) {
+            int start = begin(length);
+            pending.put(FAVORITE);
+            putBytes(id);
+            pending.put(favorite ? (byte) 1 : (byte) 0);
+            end(start, length);
+        }
+    }
+
+    private void appendId(byte type, String routeId) throws IOException {
+        byte[] id = encode(routeId);
+        int length = 1 + Integer.BYTES + id.length;
+        synchronized (this) {
+            int start = begin(length);
+            pending.put(type);
+            putBytes(id);
+            end(start, length);
+        }
+    }
+
+    private int begin(int length) throws IOException {
+        if (pending.remaining() < RECORD_HEADER_SIZE + length) {
+            flush();
+            if (pending.capacity() < RECORD_HEADER_SIZE + length) {
+                pending = ByteBuffer.allocate(RECORD_HEADER_SIZE + length);
+            }
+        }
+        int start = pending.position();
+        pending.position(start + RECORD_HEADER_SIZE);
+        return start;
+    }
+
+    private void end(int start, int length) throws IOException {
+        crc.reset();
+        crc.update(pending.array(), start + RECORD_HEADER_SIZE, length);
+        pending.putInt(start, length);
+        pending.putInt(start + Integer.BYTES, (int) crc.getValue());
+        if (pending.position() >= groupCommitBytes) {
+            flush();
+        }
+    }
+
+    private void putBytes(byte[] bytes) {
+        pending.putInt(bytes.length);
+        pending.put(bytes);
+    }
+
+    public synchronized void flush() throws IOException {
+        if (pending.position() == 0) return;
+        pending.flip();
+        while (pending.hasRemaining()) {
+            size += channel.write(pending);
+        }
+        pending.clear();
+        channel.force(false);
+    }
+
+    public synchronized long size() {
+        return size + pending.position();
+    }
+
+    @Override
+    public synchronized void close() throws IOException {
+        flush();
+        channel.close();
+    }
+
+    public static int replay(Path file, Navigator navigator) throws IOException {
+        int records = 0;
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            ByteBuffer log = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            CRC32 crc = new CRC32();
+            long validSize = 0;
+            while (log.remaining() >= RECORD_HEADER_SIZE) {
+                int length = log.getInt();
+                int checksum = log.getInt();
+                if (length <= 0 || length > log.remaining()) break;
+                ByteBuffer record = log.slice(log.position(), length);
+                crc.reset();
+                crc.update(record.duplicate());
+                if ((int) crc.getValue() != checksum) break;
+                apply(record, navigator);
+                log.position(log.position() + length);
+                validSize = log.position();
+                records++;
+            }
+            if (validSize < channel.size()) {
+                channel.truncate(validSize);
+                channel.force(true);
+            }
+        }
+        return records;
+    }
+
+    private static void apply(ByteBuffer record, Navigator navigator) {
+        byte type = record.get();
+        String routeId = decode(record);
+        switch (type) {
+            case ADD:
+                double distance = record.getDouble();
+                int popularity = record.getInt();
+                boolean favorite = record.get() != 0;
+                int pointCount = record.getInt();
+                List<String> points = new ArrayList<>(pointCount);
+                for (int i = 0; i < pointCount; i++) {
+                    points.add(decode(record));
+                }
+                navigator.addRoute(new Route(routeId, distance, popularity, favorite, points));
+                break;
+            case REMOVE:
+                navigator.removeRoute(routeId);
+                break;
+            case CHOOSE:
+                navigator.chooseRoute(routeId);
+                break;
+            case FAVORITE:
+                navigator.setFavorite(routeId, record.get() != 0);
+                break;
+            default:
+                throw new IllegalStateException("Unknown log record type: " + type);
+        }
+    }
+
+    private static byte[] encode(String string) {
+        return string.getBytes(StandardCharsets.UTF_8);
+    }
+
+    private static String decode(ByteBuffer record) {
+        byte[] bytes = new byte[record.getInt()];
+        record.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,1123 @@
+package treemap;
+
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.ConcurrentModificationException;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Objects;
+import java.util.Spliterator;
+import java.util.function.BiFunction;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+public class ArrayTreeMap<K extends Comparable<K>, V> implements Iterable<Map.Entry<K, V>> {
+    private static final int NIL = -1;
+    private static final int DEFAULT_CAPACITY = 16;
+    private static final int LEFT = 0;
+    private static final int RIGHT = 1;
+    private static final int PARENT = 2;
+    private static final int LINKS = 3;
+
+    private Object[] keys;
+    private Object[] values;
+    private int[] links;
+    private long[] red;
+
+    private int root = NIL;
+    private int size;
+    private int modCount;
+    private int allocated;
+    private int freeList = NIL;
+    private long insertions;
+    private long removals;
+    private long rotations;
+    private long insertRotations;
+
+    public ArrayTreeMap() {
+        this(DEFAULT_CAPACITY);
+    }
+
+    public ArrayTreeMap(int initialCapacity) {
+        if (initialCapacity < 0) {
+            throw new IllegalArgumentException("initialCapacity must not be negative: " + initialCapacity);
+        }
+        allocate(Math.max(1, initialCapacity));
+    }
+
+    private void allocate(int capacity) {
+        keys = new Object[capacity];
+        values = new Object[capacity];
+        links = new int[capacity * LINKS];
+        red = new long[(capacity + 63) >>> 6];
+        root = NIL;
+        allocated = 0;
+        freeList = NIL;
+    }
+
+    private void grow() {
+        int capacity = keys.length + (keys.length >> 1) + 1;
+        keys = Arrays.copyOf(keys, capacity);
+        values = Arrays.copyOf(values, capacity);
+        links = Arrays.copyOf(links, capacity * LINKS);
+        red = Arrays.copyOf(red, (capacity + 63) >>> 6);
+    }
+
+    private int newNode(K key, V value) {
+        int node;
+        if (freeList != NIL) {
+            node = freeList;
+            freeList = right(node);
+        } else {
+            if (allocated == keys.length) {
+                grow();
+            }
+            node = allocated++;
+        }
+        keys[node] = key;
+        values[node] = value;
+        setLeft(node, NIL);
+        setRight(node, NIL);
+        setParent(node, NIL);
+        setRed(node, true);
+        return node;
+    }
+
+    private void freeNode(int node) {
+        keys[node] = null;
+        values[node] = null;
+        setLeft(node, NIL);
+        setParent(node, NIL);
+        setRight(node, freeList);
+        setRed(node, false);
+        freeList = node;
+    }
+
+    private int left(int node) {
+        return links[node * LINKS + LEFT];
+    }
+
+    private int right(int node) {
+        return links[node * LINKS + RIGHT];
+    }
+
+    private int parent(int node) {
+        return links[node * LINKS + PARENT];
+    }
+
+    private void setLeft(int node, int child) {
+        links[node * LINKS + LEFT] = child;
+    }
+
+    private void setRight(int node, int child) {
+        links[node * LINKS + RIGHT] = child;
+    }
+
+    private void setParent(int node, int parent) {
+        links[node * LINKS + PARENT] = parent;
+    }
+
+    @SuppressWarnings("unchecked")
+    private K key(int node) {
+        return (K) keys[node];
+    }
+
+    @SuppressWarnings("unchecked")
+    private V value(int node) {
+        return (V) values[node];
+    }
+
+    public void insert(K key, V value) {
+        int node = newNode(key, value);
+        if (root == NIL) {
+            root = node;
+            setRed(root, false);
+        } else {
+            insertNode(node);
+            fixAfterInsert(node);
+        }
+        size++;
+        insertions++;
+        modCount++;
+    }
+
+    public V putIfAbsent(K key, V value) {
+        int node = root;
+        int parent = NIL;
+        int compareResult = 0;
+        while (node != NIL) {
+            compareResult = key.compareTo(key(node));
+            if (compareResult == 0) {
+                return value(node);
+            }
+            parent = node;
+            node = (compareResult < 0) ? left(node) : right(node);
+        }
+        attach(parent, compareResult, key, value);
+        return null;
+    }
+
+    public V computeIfPresent(K key, BiFunction<? super K, ? super V, ? extends V> function) {
+        int node = binarySearch(key);
+        if (node == NIL) {
+            return null;
+        }
+        V value = function.apply(key(node), value(node));
+        if (value == null) {
+            removeNode(node);
+        } else {
+            values[node] = value;
+        }
+        return value;
+    }
+
+    public V merge(K key, V value, BiFunction<? super V, ? super V, ? extends V> function) {
+        int node = root;
+        int parent = NIL;
+        int compareResult = 0;
+        while (node != NIL) {
+            compareResult = key.compareTo(key(node));
+            if (compareResult == 0) {
+                V merged = function.apply(value(node), value);
+                if (merged == null) {
+                    removeNode(node);
+                } else {
+                    values[node] = merged;
+                }
+                return merged;
+            }
+            parent = node;
+            node = (compareResult < 0) ? left(node) : right(node);
+        }
+        attach(parent, compareResult, key, value);
+        return value;
+    }
+
+    private void attach(int parent, int compareResult, K key, V value) {
+        int node = newNode(key, value);
+        setParent(node, parent);
+        if (parent == NIL) {
+            root = node;
+            setRed(root, false);
+        } else {
+            if (compareResult < 0) {
+                setLeft(parent, node);
+            } else {
+                setRight(parent, node);
+            }
+            fixAfterInsert(node);
+        }
+        size++;
+        insertions++;
+        modCount++;
+    }
+
+    private void insertNode(int node) {
+        K key = key(node);
+        int current = root;
+        int currentParent = NIL;
+        int compareResult = 0;
+
+        while (current != NIL) {
+            currentParent = current;
+            compareResult = key.compareTo(key(current));
+            current = (compareResult < 0) ? left(current) : right(current);
+        }
+
+        setParent(node, currentParent);
+        if (compareResult < 0) {
+            setLeft(currentParent, node);
+        } else {
+            setRight(currentParent, node);
+        }
+    }
+
+    private void fixAfterInsert(int node) {
+        long start = rotations;
+        while (node != root && isRed(parent(node))) {
+            int nodeParent = parent(node);
+            int grandparent = parent(nodeParent);
+            if (nodeParent == left(grandparent)) {
+                int uncle = right(grandparent);
+                if (isRed(uncle)) {
+                    setRed(nodeParent, false);
+                    setRed(uncle, false);
+                    setRed(grandparent, true);
+                    node = grandparent;
+                } else {
+                    if (node == right(nodeParent)) {
+                        node = nodeParent;
+                        rotateLeft(node);
+                    }
+                    setRed(parent(node), false);
+                    setRed(parent(parent(node)), true);
+                    rotateRight(parent(parent(node)));
+                }
+            } else {
+                int uncle = left(grandparent);
+                if (isRed(uncle)) {
+                    setRed(nodeParent, false);
+                    setRed(uncle, false);
+                    setRed(grandparent, true);
+                    node = grandparent;
+                } else {
+                    if (node == left(nodeParent)) {
+                        node = nodeParent;
+                        rotateRight(node);
+                    }
+                    setRed(parent(node), false);
+                    setRed(parent(parent(node)), true);
+                    rotateLeft(parent(parent(node)));
+                }
+            }
+        }
+        setRed(root, false);
+        insertRotations += rotations - start;
+    }
+
+    private void rotateLeft(int node) {
+        rotations++;
+        int n = right(node);
+        setRight(node, left(n));
+        if (left(n) != NIL) {
+            setParent(left(n), node);
+        }
+        setParent(n, parent(node));
+        if (parent(node) == NIL) {
+            root = n;
+        } else if (node == left(parent(node))) {
+            setLeft(parent(node), n);
+        } else {
+            setRight(parent(node), n);
+        }
+        setLeft(n, node);
+        setParent(node, n);
+    }
+
+    private void rotateRight(int node) {
+        rotations++;
+        int n = left(node);
+        setLeft(node, right(n));
+        if (right(n) != NIL) {
+            setParent(right(n), node);
+        }
+        setParent(n, parent(node));
+        if (parent(node) == NIL) {
+            root = n;
+        } else if (node == right(parent(node))) {
+            setRight(parent(node), n);
+        } else {
+            setLeft(parent(node), n);
+        }
+        setRight(n, node);
+        setParent(node, n);
+    }
+
+    public void buildFromSorted(List<? extends K> keys, List<? extends V> values) {
+        if (keys.size() != values.size()) {
+            throw new IllegalArgumentException("keys and values differ in size: " + keys.size() + " != " + values.size());
+        }
+        for (int i = 1; i < keys.size(); i++) {
+            if (keys.get(i - 1).compareTo(keys.get(i)) > 0) {
+                throw new IllegalArgumentException("keys are not sorted at index " + i);
+            }
+        }
+        allocate(Math.max(1, keys.size()));
+        for (int i = 0; i < keys.size(); i++) {
+            this.keys[i] = keys.get(i);
+            this.values[i] = values.get(i);
+        }
+        allocated = keys.size();
+        int redLevel = 31 - Integer.numberOfLeadingZeros(keys.size() + 1);
+        root = buildFromSorted(0, 0, keys.size() - 1, redLevel);
+        if (root != NIL) {
+            setParent(root, NIL);
+        }
+        size = keys.size();
+        modCount++;
+    }
+
+    private int buildFromSorted(int level, int lo, int hi, int redLevel) {
+        if (hi < lo) return NIL;
+
+        int middle = (lo + hi) >>> 1;
+        setRed(middle, level == redLevel);
+
+        setLeft(middle, buildFromSorted(level + 1, lo, middle - 1, redLevel));
+        if (left(middle) != NIL) {
+            setParent(left(middle), middle);
+        }
+        setRight(middle, buildFromSorted(level + 1, middle + 1, hi, redLevel));
+        if (right(middle) != NIL) {
+            setParent(right(middle), middle);
+        }
+        return middle;
+    }
+
+    public V remove(K key) {
+        int node = binarySearch(key);
+        if (node == NIL) {
+            return null;
+        }
+        V value = value(node);
+        removeNode(node);
+        return value;
+    }
+
+    private void removeNode(int node) {
+        deleteNode(node);
+        size--;
+        removals++;
+        modCount++;
+    }
+
+    private void deleteNode(int node) {
+        if (left(node) != NIL && right(node) != NIL) {
+            int successor = successor(node);
+            keys[node] = keys[successor];
+            values[node] = values[successor];
+            node = successor;
+        }
+
+        int replacement = (left(node) != NIL) ? left(node) : right(node);
+
+        if (replacement != NIL) {
+            setParent(replacement, parent(node));
+            if (parent(node) == NIL) {
+                root = replacement;
+            } else if (node == left(parent(node))) {
+                setLeft(parent(node), replacement);
+            } else {
+                setRight(parent(node), replacement);
+            }
+            boolean black = !isRed(node);
+            freeNode(node);
+
+            if (black) {
+                fixAfterRemove(replacement);
+            }
+        } else if (parent(node) == NIL) {
+            root = NIL;
+            freeNode(node);
+        } else {
+            if (!isRed(node)) {
+                fixAfterRemove(node);
+            }
+            if (parent(node) != NIL) {
+                if (node == left(parent(node))) {
+                    setLeft(parent(node), NIL);
+                } else if (node == right(parent(node))) {
+                    setRight(parent(node), NIL);
+                }
+            }
+            freeNode(node);
+        }
+    }
+
+    private void fixAfterRemove(int node) {
+        while (node != root && !isRed(node)) {
+            if (node == leftOf(parentOf(node))) {
+                int sibling = rightOf(parentOf(node));
+                if (isRed(sibling)) {
+                    setRed(sibling, false);
+                    setRed(parentOf(node), true);
+                    rotateLeft(parentOf(node));
+                    sibling = rightOf(parentOf(node));
+                }
+
+                if (!isRed(leftOf(sibling)) && !isRed(rightOf(sibling))) {
+                    setRed(sibling, true);
+                    node = parentOf(node);
+                } else {
+                    if (!isRed(rightOf(sibling))) {
+                        setRed(leftOf(sibling), false);
+                        setRed(sibling, true);
+                        rotateRight(sibling);
+                        sibling = rightOf(parentOf(node));
+                    }
+
+                    setRed(sibling, isRed(parentOf(node)));
+                    setRed(parentOf(node), false);
+                    setRed(rightOf(sibling), false);
+                    rotateLeft(parentOf(node));
+                    node = root;
+                }
+            } else {
+                int sibling = leftOf(parentOf(node));
+                if (isRed(sibling)) {
+                    setRed(sibling, false);
+                    setRed(parentOf(node), true);
+                    rotateRight(parentOf(node));
+                    sibling = leftOf(parentOf(node));
+                }
+                if (!isRed(rightOf(sibling)) && !isRed(leftOf(sibling))) {
+                    setRed(sibling, true);
+                    node = parentOf(node);
+                } else {
+                    if (!isRed(leftOf(sibling))) {
+                        setRed(rightOf(sibling), false);
+                        setRed(sibling, true);
+                        rotateLeft(sibling);
+                        sibling = leftOf(parentOf(node));
+                    }
+                    setRed(sibling, isRed(parentOf(node)));
+                    setRed(parentOf(node), false);
+                    setRed(leftOf(sibling), false);
+                    rotateRight(parentOf(node));
+                    node = root;
+                }
+            }
+        }
+        setRed(node, false);
+    }
+
+    private boolean isRed(int node) {
+        return node != NIL && (red[node >>> 6] & (1L << node)) != 0;
+    }
+
+    private void setRed(int node, boolean isRed) {
+        if (node == NIL) {
+            return;
+        }
+        if (isRed) {
+            red[node >>> 6] |= 1L << node;
+        } else {
+            red[node >>> 6] &= ~(1L << node);
+        }
+    }
+
+    private int parentOf(int node) {
+        return (node == NIL) ? NIL : parent(node);
+    }
+
+    private int leftOf(int node) {
+        return (node == NIL) ? NIL : left(node);
+    }
+
+    private int rightOf(int node) {
+        return (node == NIL) ? NIL : right(node);
+    }
+
+    private int minValue(int node) {
+        while (left(node) != NIL) {
+            node = left(node);
+        }
+        return node;
+    }
+
+    private int maxValue(int node) {
+        while (right(node) != NIL) {
+            node = right(node);
+        }
+        return node;
+    }
+
+    private int successor(int node) {
+        if (right(node) != NIL) {
+            return minValue(right(node));
+        }
+        int child = node;
+        int current = parent(node);
+        while (current != NIL && child == right(current)) {
+            child = current;
+            current = parent(current);
+        }
+        return current;
+    }
+
+    private int predecessor(int node) {
+        if (left(node) != NIL) {
+            return maxValue(left(node));
+        }
+        int child = node;
+        int current = parent(node);
+        while (current != NIL && child == left(current)) {
+            child = current;
+            current = parent(current);
+        }
+        return current;
+    }
+
+    private int preOrderSuccessor(int node) {
+        if (left(node) != NIL) {
+            return left(node);
+        }
+        if (right(node) != NIL) {
+            return right(node);
+        }
+        int child = node;
+        int current = parent(node);
+        while (current != NIL && (child == right(current) || right(current) == NIL)) {
+            child = current;
+            current = parent(current);
+        }
+        return (current != NIL) ? right(current) : NIL;
+    }
+
+    public boolean containsKey(K key) {
+        return binarySearch(key) != NIL;
+    }
+
+    public boolean containsValue(V value) {
+        for (int node = 0; node < allocated; node++) {
+            if (keys[node] != null && Objects.equals(values[node], value)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    public V get(K key) {
+        int node = binarySearch(key);
+        return (node != NIL) ? value(node) : null;
+    }
+
+    private int binarySearch(K key) {
+        int node = root;
+        while (node != NIL) {
+            int compareResult = key.compareTo(key(node));
+            if (compareResult == 0) {
+                return node;
+            }
+            node = (compareResult < 0) ? left(node) : right(node);
+        }
+        return NIL;
+    }
+
+    @Override
+    public Iterator<Map.Entry<K, V>> iterator() {
+        return new EntryIterator(firstNode(), NIL, false);
+    }
+
+    @Override
+    public Spliterator<Map.Entry<K, V>> spliterator() {
+        return new EntrySpliterator(null, null, size, true);
+    }
+
+    public Stream<Map.Entry<K, V>> stream() {
+        return StreamSupport.stream(spliterator(), false);
+    }
+
+    public Stream<Map.Entry<K, V>> parallelStream() {
+        return StreamSupport.stream(spliterator(), true);
+    }
+
+    public Iterator<Map.Entry<K, V>> descendingIterator() {
+        return new EntryIterator(lastNode(), NIL, true);
+    }
+
+    public Iterable<Map.Entry<K, V>> entries() {
+        return this;
+    }
+
+    public TreeView<K> keys() {
+        return new TreeView<>(() -> new KeyIterator(firstNode(), NIL, false),
+                () -> new KeySpliterator(null, null, size, true));
+    }
+
+    public Iterable<K> descendingKeys() {
+        return () -> new KeyIterator(lastNode(), NIL, true);
+    }
+
+    public TreeView<V> values() {
+        return new TreeView<>(() -> new ValueIterator(firstNode(), NIL, false),
+                () -> new ValueSpliterator(null, null, size, true));
+    }
+
+    public Iterable<V> descendingValues() {
+        return () -> new ValueIterator(lastNode(), NIL, true);
+    }
+
+    public Iterable<Map.Entry<K, V>> preOrder() {
+        return PreOrderIterator::new;
+    }
+
+    private int firstNode() {
+        return (root != NIL) ? minValue(root) : NIL;
+    }
+
+    private int lastNode() {
+        return (root != NIL) ? maxValue(root) : NIL;
+    }
+
+    public K firstKey() {
+        return keyOf(firstNode());
+    }
+
+    public K lastKey() {
+        return keyOf(lastNode());
+    }
+
+    public K floorKey(K key) {
+        int node = floorNode(key, true);
+        return (node != NIL) ? key(node) : null;
+    }
+
+    public K lowerKey(K key) {
+        int node = floorNode(key, false);
+        return (node != NIL) ? key(node) : null;
+    }
+
+    public K ceilingKey(K key) {
+        int node = ceilingNode(key, true);
+        return (node != NIL) ? key(node) : null;
+    }
+
+    public K higherKey(K key) {
+        int node = ceilingNode(key, false);
+        return (node != NIL) ? key(node) : null;
+    }
+
+    private K keyOf(int node) {
+        if (node == NIL) {
+            throw new NoSuchElementException();
+        }
+        return key(node);
+    }
+
+    private int ceilingNode(K key, boolean inclusive) {
+        int node = root;
+        int ceiling = NIL;
+        while (node != NIL) {
+            int compareResult = key.compareTo(key(node));
+            if (compareResult < 0 || (inclusive && compareResult == 0)) {
+                ceiling = node;
+                node = left(node);
+            } else {
+                node = right(node);
+            }
+        }
+        return ceiling;
+    }
+
+    private int floorNode(K key, boolean inclusive) {
+        int node = root;
+        int floor = NIL;
+        while (node != NIL) {
+            int compareResult = key.compareTo(key(node));
+            if (compareResult > 0 || (inclusive && compareResult == 0)) {
+                floor = node;
+                node = right(node);
+            } else {
+                node = left(node);
+            }
+        }
+        return floor;
+    }
+
+    public SubMap subMap(K fromKey, K toKey) {
+        if (fromKey != null && toKey != null && fromKey.compareTo(toKey) > 0) {
+            throw new IllegalArgumentException("fromKey > toKey: " + fromKey + " > " + toKey);
+        }
+        return new SubMap(fromKey, toKey);
+    }
+
+    public static <V> ArrayTreeMap<String, V>.SubMap prefix(ArrayTreeMap<String, V> map, String prefix) {
+        return map.subMap(prefix, TreeMap.prefixEnd(prefix));
+    }
+
+    public class SubMap implements Iterable<Map.Entry<K, V>> {
+        private final K fromKey;
+        private final K toKey;
+
+        SubMap(K fromKey, K toKey) {
+            this.fromKey = fromKey;
+            this.toKey = toKey;
+        }
+
+        private int lowest() {
+            int node = (fromKey != null) ? ceilingNode(fromKey, true) : firstNode();
+            return (node != NIL && inRange(key(node))) ? node : NIL;
+        }
+
+        private int highest() {
+            int node = (toKey != null) ? floorNode(toKey, false) : lastNode();
+            return (node != NIL && inRange(key(node))) ? node : NIL;
+        }
+
+        private int fence() {
+            return (toKey != null) ? ceilingNode(toKey, true) : NIL;
+        }
+
+        private int descendingFence() {
+            return (fromKey != null) ? floorNode(fromKey, false) : NIL;
+        }
+
+        private boolean inRange(K key) {
+            return (fromKey == null || key.compareTo(fromKey) >= 0) && (toKey == null || key.compareTo(toKey) < 0);
+        }
+
+        @Override
+        public Iterator<Map.Entry<K, V>> iterator() {
+            return new EntryIterator(lowest(), fence(), false);
+        }
+
+        @Override
+        public Spliterator<Map.Entry<K, V>> spliterator() {
+            return new EntrySpliterator(fromKey, toKey, size, false);
+        }
+
+        public Stream<Map.Entry<K, V>> stream() {
+            return StreamSupport.stream(spliterator(), false);
+        }
+
+        public Stream<Map.Entry<K, V>> parallelStream() {
+            return StreamSupport.stream(spliterator(), true);
+        }
+
+        public TreeView<K> keys() {
+            return new TreeView<>(() -> new KeyIterator(lowest(), fence(), false),
+                    () -> new KeySpliterator(fromKey, toKey, size, false));
+        }
+
+        public TreeView<V> values() {
+            return new TreeView<>(() -> new ValueIterator(lowest(), fence(), false),
+                    () -> new ValueSpliterator(fromKey, toKey, size, false));
+        }
+
+        public Iterable<V> descendingValues() {
+            return () -> new ValueIterator(highest(), descendingFence(), true);
+        }
+
+        public K firstKey() {
+            return keyOf(lowest());
+        }
+
+        public K lastKey() {
+            return keyOf(highest());
+        }
+
+        public boolean containsKey(K key) {
+            return inRange(key) && ArrayTreeMap.this.containsKey(key);
+        }
+
+        public V get(K key) {
+            return inRange(key) ? ArrayTreeMap.this.get(key) : null;
+        }
+
+        public boolean isEmpty() {
+            return lowest() == NIL;
+        }
+
+        public int size() {
+            int count = 0;
+            for (Iterator<K> iterator = keys().iterator(); iterator.hasNext(); iterator.next()) {
+                count++;
+            }
+            return count;
+        }
+    }
+
+    private class Entry implements Map.Entry<K, V> {
+        private final int node;
+        private final int expectedModCount;
+
+        Entry(int node) {
+            this.node = node;
+            this.expectedModCount = modCount;
+        }
+
+        @Override
+        public K getKey() {
+            checkForComodification();
+            return key(node);
+        }
+
+        @Override
+        public V getValue() {
+            checkForComodification();
+            return value(node);
+        }
+
+        @Override
+        public V setValue(V value) {
+            checkForComodification();
+            V old = value(node);
+            values[node] = value;
+            return old;
+        }
+
+        private void checkForComodification() {
+            if (modCount != expectedModCount) {
+                throw new ConcurrentModificationException();
+            }
+        }
+
+        @Override
+        public String toString() {
+            return getKey() + "=" + getValue();
+        }
+    }
+
+    private abstract class TreeIterator<T> implements Iterator<T> {
+        private int next;
+        private final int fence;
+        private final boolean descending;
+        private final int expectedModCount;
+
+        TreeIterator(int first, int fence, boolean descending) {
+            this.next = first;
+            this.fence = fence;
+            this.descending = descending;
+            this.expectedModCount = modCount;
+        }
+
+        @Override
+        public boolean hasNext() {
+            return next != NIL && next != fence;
+        }
+
+        int nextNode() {
+            int node = next;
+            if (node == NIL || node == fence) {
+                throw new NoSuchElementException();
+            }
+            if (modCount != expectedModCount) {
+                throw new ConcurrentModificationException();
+            }
+            next = descending ? predecessor(node) : successor(node);
+            return node;
+        }
+    }
+
+    private class EntryIterator extends TreeIterator<Map.Entry<K, V>> {
+        EntryIterator(int first, int fence, boolean descending) {
+            super(first, fence, descending);
+        }
+
+        @Override
+        public Map.Entry<K, V> next() {
+            return new Entry(nextNode());
+        }
+    }
+
+    private class KeyIterator extends TreeIterator<K> {
+        KeyIterator(int first, int fence, boolean descending) {
+            super(first, fence, descending);
+        }
+
+        @Override
+        public K next() {
+            return key(nextNode());
+        }
+    }
+
+    private class ValueIterator extends TreeIterator<V> {
+        ValueIterator(int first, int fence, boolean descending) {
+            super(first, fence, descending);
+        }
+
+        @Override
+        public V next() {
+            return value(nextNode());
+        }
+    }
+
+    private abstract class TreeSpliterator<T> implements Spliterator<T> {
+        private K fromKey;
+        private final K toKey;
+        private long estimate;
+        private boolean exact;
+        private int next = NIL;
+        private int fence = NIL;
+        private boolean started;
+        private final int expectedModCount;
+
+        TreeSpliterator(K fromKey, K toKey, long estimate, boolean exact) {
+            this.fromKey = fromKey;
+            this.toKey = toKey;
+            this.estimate = estimate;
+            this.exact = exact;
+            this.expectedModCount = modCount;
+        }
+
+        abstract T extract(int node);
+
+        abstract TreeSpliterator<T> split(K fromKey, K toKey, long estimate);
+
+        private void start() {
+            if (!started) {
+                next = (fromKey != null) ? ceilingNode(fromKey, true) : firstNode();
+                fence = (toKey != null) ? ceilingNode(toKey, true) : NIL;
+                started = true;
+            }
+        }
+
+        @Override
+        public Spliterator<T> trySplit() {
+            if (started) {
+                return null;
+            }
+            int node = root;
+            while (node != NIL) {
+                if (fromKey != null && key(node).compareTo(fromKey) <= 0) {
+                    node = right(node);
+                } else if (toKey != null && key(node).compareTo(toKey) >= 0) {
+                    node = left(node);
+                } else {
+                    break;
+                }
+            }
+            if (node == NIL) {
+                return null;
+            }
+            long half = estimate >>> 1;
+            TreeSpliterator<T> prefix = split(fromKey, key(node), half);
+            fromKey = key(node);
+            estimate -= half;
+            exact = false;
+            return prefix;
+        }
+
+        @Override
+        public boolean tryAdvance(Consumer<? super T> action) {
+            start();
+            int node = next;
+            if (node == NIL || node == fence) {
+                return false;
+            }
+            if (modCount != expectedModCount) {
+                throw new ConcurrentModificationException();
+            }
+            next = successor(node);
+            action.accept(extract(node));
+            return true;
+        }
+
+        @Override
+        public void forEachRemaining(Consumer<? super T> action) {
+            start();
+            int node = next;
+            next = fence;
+            while (node != NIL && node != fence) {
+                action.accept(extract(node));
+                node = successor(node);
+            }
+            if (modCount != expectedModCount) {
+                throw new ConcurrentModificationException();
+            }
+        }
+
+        @Override
+        public long estimateSize() {
+            return estimate;
+        }
+
+        @Override
+        public int characteristics() {
+            return ORDERED | (exact ? SIZED : 0);
+        }
+    }
+
+    private class EntrySpliterator extends TreeSpliterator<Map.Entry<K, V>> {
+        EntrySpliterator(K fromKey, K toKey, long estimate, boolean exact) {
+            super(fromKey, toKey, estimate, exact);
+        }
+
+        @Override
+        Map.Entry<K, V> extract(int node) {
+            return new Entry(node);
+        }
+
+        @Override
+        TreeSpliterator<Map.Entry<K, V>> split(K fromKey, K toKey, long estimate) {
+            return new EntrySpliterator(fromKey, toKey, estimate, false);
+        }
+    }
+
+    private class KeySpliterator extends TreeSpliterator<K> {
+        KeySpliterator(K fromKey, K toKey, long estimate, boolean exact) {
+            super(fromKey, toKey, estimate, exact);
+        }
+
+        @Override
+        K extract(int node) {
+            return key(node);
+        }
+
+        @Override
+        TreeSpliterator<K> split(K fromKey, K toKey, long estimate) {
+            return new KeySpliterator(fromKey, toKey, estimate, false);
+        }
+
+        @Override
+        public int characteristics() {
+            return super.characteristics() | SORTED | NONNULL;
+        }
+
+        @Override
+        public Comparator<? super K> getComparator() {
+            return null;
+        }
+    }
+
+    private class ValueSpliterator extends TreeSpliterator<V> {
+        ValueSpliterator(K fromKey, K toKey, long estimate, boolean exact) {
+            super(fromKey, toKey, estimate, exact);
+        }
+
+        @Override
+        V extract(int node) {
+            return value(node);
+        }
+
+        @Override
+        TreeSpliterator<V> split(K fromKey, K toKey, long estimate) {
+            return new ValueSpliterator(fromKey, toKey, estimate, false);
+        }
+    }
+
+    private class PreOrderIterator implements Iterator<Map.Entry<K, V>> {
+        private int next = root;
+        private final int expectedModCount = modCount;
+
+        @Override
+        public boolean hasNext() {
+            return next != NIL;
+        }
+
+        @Override
+        public Map.Entry<K, V> next() {
+            int node = next;
+            if (node == NIL) {
+                throw new NoSuchElementException();
+            }
+            if (modCount != expectedModCount) {
+                throw new ConcurrentModificationException();
+            }
+            next = preOrderSuccessor(node);
+            return new Entry(node);
+        }
+    }
+
+    public int size() {
+        return this.size;
+    }
+
+    public int height() {
+        return height(root);
+    }
+
+    private int height(int node) {
+        return (node == NIL) ? 0 : 1 + Math.max(height(left(node)), height(right(node)));
+    }
+
+    public long insertions() {
+        return insertions;
+    }
+
+    public long removals() {
+        return removals;
+    }
+
+    public long insertRotations() {
+        return insertRotations;
+    }
+
+    public long removeRotations() {
+        return rotations - insertRotations;
+    }
+}
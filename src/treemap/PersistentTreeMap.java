@@ -0,0 +1,428 @@
+package treemap;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.Spliterator;
+import java.util.function.Consumer;
+import java.util.function.Function;
+
+public final class PersistentTreeMap<K extends Comparable<K>, V> {
+    private static final PersistentTreeMap<?, ?> EMPTY = new PersistentTreeMap<>(null, 0);
+
+    private static final class Node<K, V> {
+        final K key;
+        final V value;
+        final Node<K, V> leftChild;
+        final Node<K, V> rightChild;
+        final boolean red;
+        final int height;
+
+        Node(K key, V value, Node<K, V> leftChild, Node<K, V> rightChild, boolean red) {
+            this.key = key;
+            this.value = value;
+            this.leftChild = leftChild;
+            this.rightChild = rightChild;
+            this.red = red;
+            this.height = 1 + Math.max(height(leftChild), height(rightChild));
+        }
+
+        static int height(Node<?, ?> node) {
+            return (node == null) ? 0 : node.height;
+        }
+    }
+
+    private final Node<K, V> root;
+    private final int size;
+
+    private PersistentTreeMap(Node<K, V> root, int size) {
+        this.root = root;
+        this.size = size;
+    }
+
+    @SuppressWarnings("unchecked")
+    public static <K extends Comparable<K>, V> PersistentTreeMap<K, V> empty() {
+        return (PersistentTreeMap<K, V>) EMPTY;
+    }
+
+    public PersistentTreeMap<K, V> insert(K key, V value) {
+        int newSize = containsKey(key) ? size : size + 1;
+        return new PersistentTreeMap<>(blacken(insert(root, key, value)), newSize);
+    }
+
+    private Node<K, V> insert(Node<K, V> node, K key, V value) {
+        if (node == null) {
+            return new Node<>(key, value, null, null, true);
+        }
+        int compareResult = key.compareTo(node.key);
+        if (compareResult < 0) {
+            Node<K, V> left = insert(node.leftChild, key, value);
+            return node.red
+                    ? new Node<>(node.key, node.value, left, node.rightChild, true)
+                    : balance(left, node.key, node.value, node.rightChild);
+        } else if (compareResult > 0) {
+            Node<K, V> right = insert(node.rightChild, key, value);
+            return node.red
+                    ? new Node<>(node.key, node.value, node.leftChild, right, true)
+                    : balance(node.leftChild, node.key, node.value, right);
+        }
+        return new Node<>(key, value, node.leftChild, node.rightChild, node.red);
+    }
+
+    public PersistentTreeMap<K, V> remove(K key) {
+        if (!containsKey(key)) {
+            return this;
+        }
+        Node<K, V> newRoot = blacken(remove(root, key));
+        return (newRoot == null) ? empty() : new PersistentTreeMap<>(newRoot, size - 1);
+    }
+
+    private Node<K, V> remove(Node<K, V> node, K key) {
+        if (node == null) {
+            return null;
+        }
+        int compareResult = key.compareTo(node.key);
+        if (compareResult < 0) {
+            Node<K, V> left = remove(node.leftChild, key);
+            return isBlack(node.leftChild)
+                    ? balanceLeft(left, node.key, node.value, node.rightChild)
+                    : new Node<>(node.key, node.value, left, node.rightChild, true);
+        } else if (compareResult > 0) {
+            Node<K, V> right = remove(node.rightChild, key);
+            return isBlack(node.rightChild)
+                    ? balanceRight(node.leftChild, node.key, node.value, right)
+                    : new Node<>(node.key, node.value, node.leftChild, right, true);
+        }
+        return fuse(node.leftChild, node.rightChild);
+    }
+
+    private Node<K, V> balance(Node<K, V> left, K key, V value, Node<K, V> right) {
+        if (isRed(left) && isRed(right)) {
+            return new Node<>(key, value, blacken(left), blacken(right), true);
+        }
+        if (isRed(left)) {
+            if (isRed(left.leftChild)) {
+                return new Node<>(left.key, left.value,
+                        blacken(left.leftChild),
+                        new Node<>(key, value, left.rightChild, right, false), true);
+            }
+            if (isRed(left.rightChild)) {
+                Node<K, V> middle = left.rightChild;
+                return new Node<>(middle.key, middle.value,
+                        new Node<>(left.key, left.value, left.leftChild, middle.leftChild, false),
+                        new Node<>(key, value, middle.rightChild, right, false), true);
+            }
+        }
+        if (isRed(right)) {
+            if (isRed(right.rightChild)) {
+                return new Node<>(right.key, right.value,
+                        new Node<>(key, value, left, right.leftChild, false),
+                        blacken(right.rightChild), true);
+            }
+            if (isRed(right.leftChild)) {
+                Node<K, V> middle = right.leftChild;
+                return new Node<>(middle.key, middle.value,
+                        new Node<>(key, value, left, middle.leftChild, false),
+                        new Node<>(right.key, right.value, middle.rightChild, right.rightChild, false), true);
+            }
+        }
+        return new Node<>(key, value, left, right, false);
+    }
+
+    private Node<K, V> balanceLeft(Node<K, V> left, K key, V value, Node<K, V> right) {
+        if (isRed(left)) {
+            return new Node<>(key, value, blacken(left), right, true);
+        }
+        if (isBlack(right)) {
+            return balance(left, key, value, redden(right));
+        }
+        Node<K, V> middle = right.leftChild;
+        return new Node<>(middle.key, middle.value,
+                new Node<>(key, value, left, middle.leftChild, false),
+                balance(middle.rightChild, right.key, right.value, redden(right.rightChild)), true);
+    }
+
+    private Node<K, V> balanceRight(Node<K, V> left, K key, V value, Node<K, V> right) {
+        if (isRed(right)) {
+            return new Node<>(key, value, left, blacken(right), true);
+        }
+        if (isBlack(left)) {
+            return balance(redden(left), key, value, right);
+        }
+        Node<K, V> middle = left.rightChild;
+        return new Node<>(middle.key, middle.value,
+                balance(redden(left.leftChild), left.key, left.value, middle.leftChild),
+                new Node<>(key, value, middle.rightChild, right, false), true);
+    }
+
+    private Node<K, V> fuse(Node<K, V> left, Node<K, V> right) {
+        if (left == null) return right;
+        if (right == null) return left;
+        if (isRed(left) && isRed(right)) {
+            Node<K, V> middle = fuse(left.rightChild, right.leftChild);
+            if (isRed(middle)) {
+                return new Node<>(middle.key, middle.value,
+                        new Node<>(left.key, left.value, left.leftChild, middle.leftChild, true),
+                        new Node<>(right.key, right.value, middle.rightChild, right.rightChild, true), true);
+            }
+            return new Node<>(left.key, left.value, left.leftChild,
+                    new Node<>(right.key, right.value, middle, right.rightChild, true), true);
+        }
+        if (isBlack(left) && isBlack(right)) {
+            Node<K, V> middle = fuse(left.rightChild, right.leftChild);
+            if (isRed(middle)) {
+                return new Node<>(middle.key, middle.value,
+                        new Node<>(left.key, left.value, left.leftChild, middle.leftChild, false),
+                        new Node<>(right.key, right.value, middle.rightChild, right.rightChild, false), true);
+            }
+            return balanceLeft(left.leftChild, left.key, left.value,
+                    new Node<>(right.key, right.value, middle, right.rightChild, false));
+        }
+        if (isRed(right)) {
+            return new Node<>(right.key, right.value, fuse(left, right.leftChild), right.rightChild, true);
+        }
+        return new Node<>(left.key, left.value, left.leftChild, fuse(left.rightChild, right), true);
+    }
+
+    private boolean isRed(Node<K, V> node) {
+        return node != null && node.red;
+    }
+
+    private boolean isBlack(Node<K, V> node) {
+        return node != null && !node.red;
+    }
+
+    private Node<K, V> blacken(Node<K, V> node) {
+        return (node == null || !node.red) ? node : new Node<>(node.key, node.value, node.leftChild, node.rightChild, false);
+    }
+
+    private Node<K, V> redden(Node<K, V> node) {
+        return new Node<>(node.key, node.value, node.leftChild, node.rightChild, true);
+    }
+
+    public boolean containsKey(K key) {
+        return binarySearch(key) != null;
+    }
+
+    public V get(K key) {
+        Node<K, V> node = binarySearch(key);
+        return (node != null) ? node.value : null;
+    }
+
+    private Node<K, V> binarySearch(K key) {
+        Node<K, V> compareNode = root;
+        while (compareNode != null) {
+            int compareResult = key.compareTo(compareNode.key);
+            if (compareResult == 0) {
+                return compareNode;
+            } else if (compareResult < 0) {
+                compareNode = compareNode.leftChild;
+            } else {
+                compareNode = compareNode.rightChild;
+            }
+        }
+        return null;
+    }
+
+    public TreeView<K> keys() {
+        return keys(null, null, true);
+    }
+
+    public TreeView<V> values() {
+        return values(null, null, true);
+    }
+
+    private TreeView<K> keys(K fromKey, K toKey, boolean exact) {
+        return new TreeView<>(() -> new SnapshotIterator<>(root, fromKey, toKey) {
+            @Override
+            public K next() {
+                return nextNode().key;
+            }
+        }, () -> new SnapshotSpliterator<>(node -> node.key, fromKey, toKey, size, exact));
+    }
+
+    private TreeView<V> values(K fromKey, K toKey, boolean exact) {
+        return new TreeView<>(() -> new SnapshotIterator<>(root, fromKey, toKey) {
+            @Override
+            public V next() {
+                return nextNode().value;
+            }
+        }, () -> new SnapshotSpliterator<>(node -> node.value, fromKey, toKey, size, exact));
+    }
+
+    public SubMap subMap(K fromKey, K toKey) {
+        if (fromKey != null && toKey != null && fromKey.compareTo(toKey) > 0) {
+            throw new IllegalArgumentException("fromKey > toKey: " + fromKey + " > " + toKey);
+        }
+        return new SubMap(fromKey, toKey);
+    }
+
+    public static <V> PersistentTreeMap<String, V>.SubMap prefix(PersistentTreeMap<String, V> map, String prefix) {
+        return map.subMap(prefix, TreeMap.prefixEnd(prefix));
+    }
+
+    public final class SubMap {
+        private final K fromKey;
+        private final K toKey;
+
+        private SubMap(K fromKey, K toKey) {
+            this.fromKey = fromKey;
+            this.toKey = toKey;
+        }
+
+        public TreeView<K> keys() {
+            return PersistentTreeMap.this.keys(fromKey, toKey, false);
+        }
+
+        public TreeView<V> values() {
+            return PersistentTreeMap.this.values(fromKey, toKey, false);
+        }
+
+        public boolean isEmpty() {
+            return !keys().iterator().hasNext();
+        }
+
+        public int size() {
+            int count = 0;
+            for (Iterator<K> iterator = keys().iterator(); iterator.hasNext(); iterator.next()) {
+                count++;
+            }
+            return count;
+        }
+    }
+
+    private abstract class SnapshotIterator<T> implements Iterator<T> {
+        private final Deque<Node<K, V>> path = new ArrayDeque<>();
+        private final K toKey;
+
+        SnapshotIterator(Node<K, V> root, K fromKey, K toKey) {
+            this.toKey = toKey;
+            Node<K, V> node = root;
+            while (node != null) {
+                if (fromKey == null || node.key.compareTo(fromKey) >= 0) {
+                    path.push(node);
+                    node = node.leftChild;
+                } else {
+                    node = node.rightChild;
+                }
+            }
+        }
+
+        private void pushLeft(Node<K, V> node) {
+            while (node != null) {
+                path.push(node);
+                node = node.leftChild;
+            }
+        }
+
+        @Override
+        public boolean hasNext() {
+            return !path.isEmpty() && (toKey == null || path.peek().key.compareTo(toKey) < 0);
+        }
+
+        Node<K, V> nextNode() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            Node<K, V> node = path.pop();
+            pushLeft(node.rightChild);
+            return node;
+        }
+    }
+
+    private final class SnapshotSpliterator<T> implements Spliterator<T> {
+        private final Function<Node<K, V>, T> extractor;
+        private K fromKey;
+        private final K toKey;
+        private long estimate;
+        private boolean exact;
+        private SnapshotIterator<Node<K, V>> iterator;
+
+        SnapshotSpliterator(Function<Node<K, V>, T> extractor, K fromKey, K toKey, long estimate, boolean exact) {
+            this.extractor = extractor;
+            this.fromKey = fromKey;
+            this.toKey = toKey;
+            this.estimate = estimate;
+            this.exact = exact;
+        }
+
+        private SnapshotIterator<Node<K, V>> iterator() {
+            if (iterator == null) {
+                iterator = new SnapshotIterator<>(root, fromKey, toKey) {
+                    @Override
+                    public Node<K, V> next() {
+                        return nextNode();
+                    }
+                };
+            }
+            return iterator;
+        }
+
+        @Override
+        public Spliterator<T> trySplit() {
+            if (iterator != null) {
+                return null;
+            }
+            Node<K, V> node = root;
+            while (node != null) {
+                if (fromKey != null && node.key.compareTo(fromKey) <= 0) {
+                    node = node.rightChild;
+                } else if (toKey != null && node.key.compareTo(toKey) >= 0) {
+                    node = node.leftChild;
+                } else {
+                    break;
+                }
+            }
+            if (node == null) {
+                return null;
+            }
+            long half = estimate >>> 1;
+            SnapshotSpliterator<T> prefix = new SnapshotSpliterator<>(extractor, fromKey, node.key, half, false);
+            fromKey = node.key;
+            estimate -= half;
+            exact = false;
+            return prefix;
+        }
+
+        @Override
+        public boolean tryAdvance(Consumer<? super T> action) {
+            SnapshotIterator<Node<K, V>> nodes = iterator();
+            if (!nodes.hasNext()) {
+                return false;
+            }
+            action.accept(extractor.apply(nodes.nextNode()));
+            return true;
+        }
+
+        @Override
+        public void forEachRemaining(Consumer<? super T> action) {
+            SnapshotIterator<Node<K, V>> nodes = iterator();
+            while (nodes.hasNext()) {
+                action.accept(extractor.apply(nodes.nextNode()));
+            }
+        }
+
+        @Override
+        public long estimateSize() {
+            return estimate;
+        }
+
+        @Override
+        public int characteristics() {
+            return ORDERED | IMMUTABLE | (exact ? SIZED : 0);
+        }
+    }
+
+    public int size() {
+        return this.size;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    public int height() {
+        return Node.height(root);
+    }
+}
@@ -1,8 +1,16 @@
 package treemap;
 
-import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.ConcurrentModificationException;
 import java.util.Iterator;
 import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.Objects;
+import java.util.Spliterator;
+import java.util.function.BiFunction;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
 
 public class TreeMap<K extends Comparable<K>, V> implements Iterable<TreeMap<K, V>.Node<K, V>> {
     enum Color {RED, BLACK}
@@ -14,17 +22,23 @@ public class TreeMap<K extends Comparable<K>, V> implements Iterable<TreeMap<K,
         public Node<K, V> rightChild;
         public Node<K, V> parent;
         public Color color;
+        int height;
 
         public Node(K key, V value) {
             this.key = key;
             this.value = value;
             this.color = Color.RED;
+            this.height = 1;
         }
     }
 
     private Node<K, V> root;
     private int size;
-
+    private int modCount;
+    private long insertions;
+    private long removals;
+    private long rotations;
+    private long insertRotations;
 
     public void insert(K key, V value) {
         Node<K, V> node = new Node<>(key, value);
@@ -34,9 +48,84 @@ public class TreeMap<K extends Comparable<K>, V> implements Iterable<TreeMap<K,
             size++;
         } else {
             insertNode(node);
+            updateHeights(node.parent);
             fixAfterInsert(node);
             size++;
         }
+        insertions++;
+        modCount++;
+    }
+
+    public V putIfAbsent(K key, V value) {
+        Node<K, V> node = root;
+        Node<K, V> parent = null;
+        int compareResult = 0;
+        while (node != null) {
+            compareResult = key.compareTo(node.key);
+            if (compareResult == 0) {
+                return node.value;
+            }
+            parent = node;
+            node = (compareResult < 0) ? node.leftChild : node.rightChild;
+        }
+        attach(parent, compareResult, key, value);
+        return null;
+    }
+
+    public V computeIfPresent(K key, BiFunction<? super K, ? super V, ? extends V> function) {
+        Node<K, V> node = binarySearch(key);
+        if (node == null) {
+            return null;
+        }
+        V value = function.apply(node.key, node.value);
+        if (value == null) {
+            removeNode(node);
+        } else {
+            node.value = value;
+        }
+        return value;
+    }
+
+    public V merge(K key, V value, BiFunction<? super V, ? super V, ? extends V> function) {
+        Node<K, V> node = root;
+        Node<K, V> parent = null;
+        int compareResult = 0;
+        while (node != null) {
+            compareResult = key.compareTo(node.key);
+            if (compareResult == 0) {
+                V merged = function.apply(node.value, value);
+                if (merged == null) {
+                    removeNode(node);
+                } else {
+                    node.value = merged;
+                }
+                return merged;
+            }
+            parent = node;
+            node = (compareResult < 0) ? node.leftChild : node.rightChild;
+        }
+        attach(parent, compareResult, key, value);
+        return value;
+    }
+
+    private void attach(Node<K, V> parent, int compareResult, K key, V value) {
+        Node<K, V> node = new Node<>(key, value);
+        node.parent = parent;
+        if (parent == null) {
+            root = node;
+            root.color = Color.BLACK;
+        } else {
+            if (compareResult < 0) {
+                parent.leftChild = node;
+            } else {
+                parent.rightChild = node;
+            }
+            updateHeights(parent);
+            fixAfterInsert(node);
+        }
+        size++;
+        insertions++;
+        modCount++;
     }
 
     private void insertNode(Node<K, V> newNode) {
@@ -64,6 +153,7 @@ public class TreeMap<K extends Comparable<K>, V> implements Iterable<TreeMap<K,
     }
 
     private void fixAfterInsert(Node<K, V> node) {
+        long start = rotations;
         while (node.parent != null && node.parent.color == Color.RED) {
             if (node.parent == node.parent.parent.leftChild) {
                 Node<K, V> uncle = node.parent.parent.rightChild;
@@ -100,9 +190,11 @@ public class TreeMap<K extends Comparable<K>, V> implements Iterable<TreeMap<K,
             }
             root.color = Color.BLACK;
         }
+        insertRotations += rotations - start;
     }
 
     private void rotateLeft(Node<K, V> node) {
+        rotations++;
         Node<K, V> n = node.rightChild;
         node.rightChild = n.leftChild;
         if (n.leftChild != null) {
@@ -118,9 +210,11 @@ public class TreeMap<K extends Comparable<K>, V> implements Iterable<TreeMap<K,
         }
         n.leftChild = node;
         node.parent = n;
+        updateHeights(node);
     }
 
     private void rotateRight(Node<K, V> node) {
+        rotations++;
         Node<K, V> n = node.leftChild;
         node.leftChild = n.rightChild;
         if (n.rightChild != null) {
@@ -136,41 +230,142 @@ public class TreeMap<K extends Comparable<K>, V> implements Iterable<TreeMap<K,
         }
         n.rightChild = node;
         node.parent = n;
+        updateHeights(node);
     }
 
-    public void remove(K key) {
+    public void buildFromSorted(List<? extends K> keys, List<? extends V> values) {
+        if (keys.size() != values.size()) {
+            throw new IllegalArgumentException("keys and values differ in size: " + keys.size() + " != " + values.size());
+        }
+        for (int i = 1; i < keys.size(); i++) {
+            if (keys.get(i - 1).compareTo(keys.get(i)) > 0) {
+                throw new IllegalArgumentException("keys are not sorted at index " + i);
+            }
+        }
+        int redLevel = 31 - Integer.numberOfLeadingZeros(keys.size() + 1);
+        root = buildFromSorted(0, 0, keys.size() - 1, redLevel, keys, values);
+        size = keys.size();
+        modCount++;
+    }
+
+    private Node<K, V> buildFromSorted(int level, int lo, int hi, int redLevel,
+                                       List<? extends K> keys, List<? extends V> values) {
+        if (hi < lo) return null;
+
+        int mid = (lo + hi) >>> 1;
+        Node<K, V> middle = new Node<>(keys.get(mid), values.get(mid));
+        middle.color = (level == redLevel) ? Color.RED : Color.BLACK;
+
+        Node<K, V> left = buildFromSorted(level + 1, lo, mid - 1, redLevel, keys, values);
+        if (left != null) {
+            middle.leftChild = left;
+            left.parent = middle;
+        }
+        Node<K, V> right = buildFromSorted(level + 1, mid + 1, hi, redLevel, keys, values);
+        if (right != null) {
+            middle.rightChild = right;
+            right.parent = middle;
+        }
+        middle.height = 1 + Math.max(heightOf(left), heightOf(right));
+        return middle;
+    }
+
+    public V remove(K key) {
         Node<K, V> node = binarySearch(key);
-        if (node != null) {
-            root = removeNode(root, key);
-            size--;
+        if (node == null) {
+            return null;
         }
+        removeNode(node);
+        return node.value;
+    }
+
+    private void removeNode(Node<K, V> node) {
+        deleteNode(node);
+        size--;
+        removals++;
+        modCount++;
     }
 
-    private Node<K, V> removeNode(Node<K, V> node, K key) {
-        if (node == null) return null;
+    private void deleteNode(Node<K, V> node) {
+        if (node.leftChild != null && node.rightChild != null) {
+            swapWithSuccessor(node, minValue(node.rightChild));
+        }
+
+        Node<K, V> replacement = (node.leftChild != null) ? node.leftChild : node.rightChild;
 
-        int compareResult = key.compareTo(node.key);
+        if (replacement != null) {
+            replacement.parent = node.parent;
+            if (node.parent == null) {
+                root = replacement;
+            } else if (node == node.parent.leftChild) {
+                node.parent.leftChild = replacement;
+            } else {
+                node.parent.rightChild = replacement;
+            }
+            node.leftChild = node.rightChild = node.parent = null;
+            updateHeights(replacement.parent);
 
-        if (compareResult < 0) {
-            node.leftChild = removeNode(node.leftChild, key);
-        } else if (compareResult > 0) {
-            node.rightChild = removeNode(node.rightChild, key);
+            if (node.color == Color.BLACK) {
+                fixAfterRemove(replacement);
+            }
+        } else if (node.parent == null) {
+            root = null;
         } else {
-            if (node.leftChild == null) {
-                return node.rightChild;
-            } else if (node.rightChild == null) {
-                return node.leftChild;
+            if (node.color == Color.BLACK) {
+                fixAfterRemove(node);
             }
+            Node<K, V> parent = node.parent;
+            if (parent != null) {
+                if (node == parent.leftChild) {
+                    parent.leftChild = null;
+                } else if (node == parent.rightChild) {
+                    parent.rightChild = null;
+                }
+                node.parent = null;
+                updateHeights(parent);
+            }
+        }
+    }
+
+    private void swapWithSuccessor(Node<K, V> node, Node<K, V> successor) {
+        Node<K, V> parent = node.parent;
+        Node<K, V> left = node.leftChild;
+        Node<K, V> right = node.rightChild;
+        Node<K, V> successorRight = successor.rightChild;
+        Color color = node.color;
 
-            node.key = minValue(node.rightChild).key;
-            node.rightChild = removeNode(node.rightChild, node.key);
+        if (successor == right) {
+            successor.rightChild = node;
+            node.parent = successor;
+        } else {
+            Node<K, V> successorParent = successor.parent;
+            successorParent.leftChild = node;
+            node.parent = successorParent;
+            successor.rightChild = right;
+            right.parent = successor;
+        }
+        node.leftChild = null;
+        node.rightChild = successorRight;
+        if (successorRight != null) {
+            successorRight.parent = node;
         }
 
-        if (node != null) {
-            fixAfterRemove(node);
+        successor.leftChild = left;
+        left.parent = successor;
+        successor.parent = parent;
+        if (parent == null) {
+            root = successor;
+        } else if (node == parent.leftChild) {
+            parent.leftChild = successor;
+        } else {
+            parent.rightChild = successor;
         }
 
-        return node;
+        node.color = successor.color;
+        successor.color = color;
+        int height = node.height;
+        node.height = successor.height;
+        successor.height = height;
     }
 
     private Node<K, V> minValue(Node<K, V> node) {
@@ -181,6 +376,56 @@ public class TreeMap<K extends Comparable<K>, V> implements Iterable<TreeMap<K,
         return current;
     }
 
+    private Node<K, V> maxValue(Node<K, V> node) {
+        Node<K, V> current = node;
+        while (current.rightChild != null) {
+            current = current.rightChild;
+        }
+        return current;
+    }
+
+    private Node<K, V> successor(Node<K, V> node) {
+        if (node.rightChild != null) {
+            return minValue(node.rightChild);
+        }
+        Node<K, V> child = node;
+        Node<K, V> parent = node.parent;
+        while (parent != null && child == parent.rightChild) {
+            child = parent;
+            parent = parent.parent;
+        }
+        return parent;
+    }
+
+    private Node<K, V> predecessor(Node<K, V> node) {
+        if (node.leftChild != null) {
+            return maxValue(node.leftChild);
+        }
+        Node<K, V> child = node;
+        Node<K, V> parent = node.parent;
+        while (parent != null && child == parent.leftChild) {
+            child = parent;
+            parent = parent.parent;
+        }
+        return parent;
+    }
+
+    private Node<K, V> preOrderSuccessor(Node<K, V> node) {
+        if (node.leftChild != null) {
+            return node.leftChild;
+        }
+        if (node.rightChild != null) {
+            return node.rightChild;
+        }
+        Node<K, V> child = node;
+        Node<K, V> parent = node.parent;
+        while (parent != null && (child == parent.rightChild || parent.rightChild == null)) {
+            child = parent;
+            parent = parent.parent;
+        }
+        return (parent != null) ? parent.rightChild : null;
+    }
+
     private void fixAfterRemove(Node<K, V> node) {
         while (node != root && colorOf(node) == Color.BLACK) {
             if (node == leftOf(parentOf(node))) {
@@ -214,7 +459,7 @@ public class TreeMap<K extends Comparable<K>, V> implements Iterable<TreeMap<K,
                 if (colorOf(sibling) == Color.RED) {
                     setColor(sibling, Color.BLACK);
                     setColor(parentOf(node), Color.RED);
-                    rotateLeft(parentOf(node));
+                    rotateRight(parentOf(node));
                     sibling = leftOf(parentOf(node));
                 }
                 if (colorOf(rightOf(sibling)) == Color.BLACK && colorOf(leftOf(sibling)) == Color.BLACK) {
@@ -267,7 +512,7 @@ public class TreeMap<K extends Comparable<K>, V> implements Iterable<TreeMap<K,
 
     public boolean containsValue(V value) {
         for (V v : values()) {
-            if (v.equals(value)) {
+            if (Objects.equals(v, value)) {
                 return true;
             }
         }
@@ -281,49 +526,486 @@ public class TreeMap<K extends Comparable<K>, V> implements Iterable<TreeMap<K,
 
     @Override
     public Iterator<Node<K, V>> iterator() {
-        Iterable<Node<K, V>> list = preOrder();
-        return list.iterator();
+        return new NodeIterator(firstNode(), null, false);
+    }
+
+    @Override
+    public Spliterator<Node<K, V>> spliterator() {
+        return new NodeSpliterator(null, null, size, true);
+    }
+
+    public Stream<Node<K, V>> stream() {
+        return StreamSupport.stream(spliterator(), false);
     }
 
-    public Iterable<K> keys() {
-        List<K> keysList = new ArrayList<>();
-        preOrderKeys(root, keysList);
-        return keysList;
+    public Stream<Node<K, V>> parallelStream() {
+        return StreamSupport.stream(spliterator(), true);
     }
 
-    public Iterable<V> values() {
-        List<V> valuesList = new ArrayList<>();
-        preOrderValues(root, valuesList);
-        return valuesList;
+    public Iterator<Node<K, V>> descendingIterator() {
+        return new NodeIterator(lastNode(), null, true);
+    }
+
+    public Iterable<Node<K, V>> entries() {
+        return this;
+    }
+
+    public TreeView<K> keys() {
+        return new TreeView<>(() -> new KeyIterator(firstNode(), null, false),
+                () -> new KeySpliterator(null, null, size, true));
+    }
+
+    public Iterable<K> descendingKeys() {
+        return () -> new KeyIterator(lastNode(), null, true);
+    }
+
+    public TreeView<V> values() {
+        return new TreeView<>(() -> new ValueIterator(firstNode(), null, false),
+                () -> new ValueSpliterator(null, null, size, true));
+    }
+
+    public Iterable<V> descendingValues() {
+        return () -> new ValueIterator(lastNode(), null, true);
     }
 
     public Iterable<Node<K, V>> preOrder() {
-        List<Node<K, V>> result = new ArrayList<>();
-        preOrder(root, result);
-        return result;
+        return PreOrderIterator::new;
     }
 
-    private void preOrder(Node<K, V> node, List<Node<K, V>> result) {
-        if (node != null) {
-            result.add(node);
-            preOrder(node.leftChild, result);
-            preOrder(node.rightChild, result);
+    private Node<K, V> firstNode() {
+        return (root != null) ? minValue(root) : null;
+    }
+
+    private Node<K, V> lastNode() {
+        return (root != null) ? maxValue(root) : null;
+    }
+
+    public K firstKey() {
+        return keyOf(firstNode());
+    }
+
+    public K lastKey() {
+        return keyOf(lastNode());
+    }
+
+    public K floorKey(K key) {
+        Node<K, V> node = floorNode(key, true);
+        return (node != null) ? node.key : null;
+    }
+
+    public K lowerKey(K key) {
+        Node<K, V> node = floorNode(key, false);
+        return (node != null) ? node.key : null;
+    }
+
+    public K ceilingKey(K key) {
+        Node<K, V> node = ceilingNode(key, true);
+        return (node != null) ? node.key : null;
+    }
+
+    public K higherKey(K key) {
+        Node<K, V> node = ceilingNode(key, false);
+        return (node != null) ? node.key : null;
+    }
+
+    private K keyOf(Node<K, V> node) {
+        if (node == null) {
+            throw new NoSuchElementException();
         }
+        return node.key;
     }
 
-    private void preOrderKeys(Node<K, V> node, List<K> keysList) {
-        if (node != null) {
-            keysList.add(node.key);
-            preOrderKeys(node.leftChild, keysList);
-            preOrderKeys(node.rightChild, keysList);
+    private Node<K, V> ceilingNode(K key, boolean inclusive) {
+        Node<K, V> node = root;
+        Node<K, V> ceiling = null;
+        while (node != null) {
+            int compareResult = key.compareTo(node.key);
+            if (compareResult < 0 || (inclusive && compareResult == 0)) {
+                ceiling = node;
+                node = node.leftChild;
+            } else {
+                node = node.rightChild;
+            }
         }
+        return ceiling;
     }
 
-    private void preOrderValues(Node<K, V> node, List<V> valuesList) {
-        if (node != null) {
-            valuesList.add(node.value);
-            preOrderValues(node.leftChild, valuesList);
-            preOrderValues(node.rightChild, valuesList);
+    private Node<K, V> floorNode(K key, boolean inclusive) {
+        Node<K, V> node = root;
+        Node<K, V> floor = null;
+        while (node != null) {
+            int compareResult = key.compareTo(node.key);
+            if (compareResult > 0 || (inclusive && compareResult == 0)) {
+                floor = node;
+                node = node.rightChild;
+            } else {
+                node = node.leftChild;
+            }
+        }
+        return floor;
+    }
+
+    public SubMap subMap(K fromKey, K toKey) {
+        if (fromKey != null && toKey != null && fromKey.compareTo(toKey) > 0) {
+            throw new IllegalArgumentException("fromKey > toKey: " + fromKey + " > " + toKey);
+        }
+        return new SubMap(fromKey, toKey);
+    }
+
+    public static <V> TreeMap<String, V>.SubMap prefix(TreeMap<String, V> map, String prefix) {
+        return map.subMap(prefix, prefixEnd(prefix));
+    }
+
+    static String prefixEnd(String prefix) {
+        for (int i = prefix.length() - 1; i >= 0; i--) {
+            char last = prefix.charAt(i);
+            if (last != Character.MAX_VALUE) {
+                return prefix.substring(0, i) + (char) (last + 1);
+            }
+        }
+        return null;
+    }
+
+    public class SubMap implements Iterable<Node<K, V>> {
+        private final K fromKey;
+        private final K toKey;
+
+        SubMap(K fromKey, K toKey) {
+            this.fromKey = fromKey;
+            this.toKey = toKey;
+        }
+
+        private Node<K, V> lowest() {
+            Node<K, V> node = (fromKey != null) ? ceilingNode(fromKey, true) : firstNode();
+            return (node != null && inRange(node.key)) ? node : null;
+        }
+
+        private Node<K, V> highest() {
+            Node<K, V> node = (toKey != null) ? floorNode(toKey, false) : lastNode();
+            return (node != null && inRange(node.key)) ? node : null;
+        }
+
+        private Node<K, V> fence() {
+            return (toKey != null) ? ceilingNode(toKey, true) : null;
+        }
+
+        private Node<K, V> descendingFence() {
+            return (fromKey != null) ? floorNode(fromKey, false) : null;
+        }
+
+        private long estimate() {
+            int depth = 0;
+            Node<K, V> node = root;
+            while (node != null && !inRange(node.key)) {
+                node = (fromKey != null && node.key.compareTo(fromKey) < 0) ? node.rightChild : node.leftChild;
+                depth++;
+            }
+            return (node == null) ? 0 : Math.max(1, size >>> Math.min(depth, 31));
+        }
+
+        private boolean inRange(K key) {
+            return (fromKey == null || key.compareTo(fromKey) >= 0) && (toKey == null || key.compareTo(toKey) < 0);
+        }
+
+        @Override
+        public Iterator<Node<K, V>> iterator() {
+            return new NodeIterator(lowest(), fence(), false);
+        }
+
+        @Override
+        public Spliterator<Node<K, V>> spliterator() {
+            return new NodeSpliterator(fromKey, toKey, estimate(), false);
+        }
+
+        public Stream<Node<K, V>> stream() {
+            return StreamSupport.stream(spliterator(), false);
+        }
+
+        public Stream<Node<K, V>> parallelStream() {
+            return StreamSupport.stream(spliterator(), true);
+        }
+
+        public TreeView<K> keys() {
+            return new TreeView<>(() -> new KeyIterator(lowest(), fence(), false),
+                    () -> new KeySpliterator(fromKey, toKey, estimate(), false));
+        }
+
+        public TreeView<V> values() {
+            return new TreeView<>(() -> new ValueIterator(lowest(), fence(), false),
+                    () -> new ValueSpliterator(fromKey, toKey, estimate(), false));
+        }
+
+        public Iterable<V> descendingValues() {
+            return () -> new ValueIterator(highest(), descendingFence(), true);
+        }
+
+        public K firstKey() {
+            return keyOf(lowest());
+        }
+
+        public K lastKey() {
+            return keyOf(highest());
+        }
+
+        public boolean containsKey(K key) {
+            return inRange(key) && TreeMap.this.containsKey(key);
+        }
+
+        public V get(K key) {
+            return inRange(key) ? TreeMap.this.get(key) : null;
+        }
+
+        public boolean isEmpty() {
+            return lowest() == null;
+        }
+
+        public int size() {
+            int count = 0;
+            for (Iterator<Node<K, V>> iterator = iterator(); iterator.hasNext(); iterator.next()) {
+                count++;
+            }
+            return count;
+        }
+    }
+
+    private abstract class TreeIterator<T> implements Iterator<T> {
+        private Node<K, V> next;
+        private final Node<K, V> fence;
+        private final boolean descending;
+        private final int expectedModCount;
+
+        TreeIterator(Node<K, V> first, Node<K, V> fence, boolean descending) {
+            this.next = first;
+            this.fence = fence;
+            this.descending = descending;
+            this.expectedModCount = modCount;
+        }
+
+        @Override
+        public boolean hasNext() {
+            return next != null && next != fence;
+        }
+
+        Node<K, V> nextNode() {
+            Node<K, V> node = next;
+            if (node == null || node == fence) {
+                throw new NoSuchElementException();
+            }
+            if (modCount != expectedModCount) {
+                throw new ConcurrentModificationException();
+            }
+            next = descending ? predecessor(node) : successor(node);
+            return node;
+        }
+    }
+
+    private class NodeIterator extends TreeIterator<Node<K, V>> {
+        NodeIterator(Node<K, V> first, Node<K, V> fence, boolean descending) {
+            super(first, fence, descending);
+        }
+
+        @Override
+        public Node<K, V> next() {
+            return nextNode();
+        }
+    }
+
+    private class KeyIterator extends TreeIterator<K> {
+        KeyIterator(Node<K, V> first, Node<K, V> fence, boolean descending) {
+            super(first, fence, descending);
+        }
+
+        @Override
+        public K next() {
+            return nextNode().key;
+        }
+    }
+
+    private class ValueIterator extends TreeIterator<V> {
+        ValueIterator(Node<K, V> first, Node<K, V> fence, boolean descending) {
+            super(first, fence, descending);
+        }
+
+        @Override
+        public V next() {
+            return nextNode().value;
+        }
+    }
+
+    private abstract class TreeSpliterator<T> implements Spliterator<T> {
+        private K fromKey;
+        private final K toKey;
+        private long estimate;
+        private boolean exact;
+        private Node<K, V> next;
+        private Node<K, V> fence;
+        private boolean started;
+        private final int expectedModCount;
+
+        TreeSpliterator(K fromKey, K toKey, long estimate, boolean exact) {
+            this.fromKey = fromKey;
+            this.toKey = toKey;
+            this.estimate = estimate;
+            this.exact = exact;
+            this.expectedModCount = modCount;
+        }
+
+        abstract T extract(Node<K, V> node);
+
+        abstract TreeSpliterator<T> split(K fromKey, K toKey, long estimate);
+
+        private void start() {
+            if (!started) {
+                next = (fromKey != null) ? ceilingNode(fromKey, true) : firstNode();
+                fence = (toKey != null) ? ceilingNode(toKey, true) : null;
+                started = true;
+            }
+        }
+
+        @Override
+        public Spliterator<T> trySplit() {
+            if (started) {
+                return null;
+            }
+            Node<K, V> node = root;
+            while (node != null) {
+                if (fromKey != null && node.key.compareTo(fromKey) <= 0) {
+                    node = node.rightChild;
+                } else if (toKey != null && node.key.compareTo(toKey) >= 0) {
+                    node = node.leftChild;
+                } else {
+                    break;
+                }
+            }
+            if (node == null) {
+                return null;
+            }
+            long half = estimate >>> 1;
+            TreeSpliterator<T> prefix = split(fromKey, node.key, half);
+            fromKey = node.key;
+            estimate -= half;
+            exact = false;
+            return prefix;
+        }
+
+        @Override
+        public boolean tryAdvance(Consumer<? super T> action) {
+            start();
+            Node<K, V> node = next;
+            if (node == null || node == fence) {
+                return false;
+            }
+            if (modCount != expectedModCount) {
+                throw new ConcurrentModificationException();
+            }
+            next = successor(node);
+            action.accept(extract(node));
+            return true;
+        }
+
+        @Override
+        public void forEachRemaining(Consumer<? super T> action) {
+            start();
+            Node<K, V> node = next;
+            next = fence;
+            while (node != null && node != fence) {
+                action.accept(extract(node));
+                node = successor(node);
+            }
+            if (modCount != expectedModCount) {
+                throw new ConcurrentModificationException();
+            }
+        }
+
+        @Override
+        public long estimateSize() {
+            return estimate;
+        }
+
+        @Override
+        public int characteristics() {
+            return ORDERED | (exact ? SIZED : 0);
+        }
+    }
+
+    private class NodeSpliterator extends TreeSpliterator<Node<K, V>> {
+        NodeSpliterator(K fromKey, K toKey, long estimate, boolean exact) {
+            super(fromKey, toKey, estimate, exact);
+        }
+
+        @Override
+        Node<K, V> extract(Node<K, V> node) {
+            return node;
+        }
+
+        @Override
+        TreeSpliterator<Node<K, V>> split(K fromKey, K toKey, long estimate) {
+            return new NodeSpliterator(fromKey, toKey, estimate, false);
+        }
+    }
+
+    private class KeySpliterator extends TreeSpliterator<K> {
+        KeySpliterator(K fromKey, K toKey, long estimate, boolean exact) {
+            super(fromKey, toKey, estimate, exact);
+        }
+
+        @Override
+        K extract(Node<K, V> node) {
+            return node.key;
+        }
+
+        @Override
+        TreeSpliterator<K> split(K fromKey, K toKey, long estimate) {
+            return new KeySpliterator(fromKey, toKey, estimate, false);
+        }
+
+        @Override
+        public int characteristics() {
+            return super.characteristics() | SORTED | NONNULL;
+        }
+
+        @Override
+        public Comparator<? super K> getComparator() {
+            return null;
+        }
+    }
+
+    private class ValueSpliterator extends TreeSpliterator<V> {
+        ValueSpliterator(K fromKey, K toKey, long estimate, boolean exact) {
+            super(fromKey, toKey, estimate, exact);
+        }
+
+        @Override
+        V extract(Node<K, V> node) {
+            return node.value;
+        }
+
+        @Override
+        TreeSpliterator<V> split(K fromKey, K toKey, long estimate) {
+            return new ValueSpliterator(fromKey, toKey, estimate, false);
+        }
+    }
+
+    private class PreOrderIterator implements Iterator<Node<K, V>> {
+        private Node<K, V> next = root;
+        private final int expectedModCount = modCount;
+
+        @Override
+        public boolean hasNext() {
+            return next != null;
+        }
+
+        @Override
+        public Node<K, V> next() {
+            Node<K, V> node = next;
+            if (node == null) {
+                throw new NoSuchElementException();
+            }
+            if (modCount != expectedModCount) {
+                throw new ConcurrentModificationException();
+            }
+            next = preOrderSuccessor(node);
+            return node;
         }
     }
 
@@ -345,4 +1027,34 @@ public class TreeMap<K extends Comparable<K>, V> implements Iterable<TreeMap<K,
     public int size() {
         return this.size;
     }
+
+    public int height() {
+        return heightOf(root);
+    }
+
+    private int heightOf(Node<K, V> node) {
+        return (node == null) ? 0 : node.height;
+    }
+
+    private void updateHeights(Node<K, V> node) {
+        for (; node != null; node = node.parent) {
+            node.height = 1 + Math.max(heightOf(node.leftChild), heightOf(node.rightChild));
+        }
+    }
+
+    public long insertions() {
+        return insertions;
+    }
+
+    public long removals() {
+        return removals;
+    }
+
+    public long insertRotations() {
+        return insertRotations;
+    }
+
+    public long removeRotations() {
+        return rotations - insertRotations;
+    }
 }
\ No newline at end of file
@@ -0,0 +1,35 @@
+package treemap;
+
+import java.util.Iterator;
+import java.util.Spliterator;
+import java.util.function.Supplier;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+public final class TreeView<T> implements Iterable<T> {
+    private final Supplier<Iterator<T>> iterators;
+    private final Supplier<Spliterator<T>> spliterators;
+
+    TreeView(Supplier<Iterator<T>> iterators, Supplier<Spliterator<T>> spliterators) {
+        this.iterators = iterators;
+        this.spliterators = spliterators;
+    }
+
+    @Override
+    public Iterator<T> iterator() {
+        return iterators.get();
+    }
+
+    @Override
+    public Spliterator<T> spliterator() {
+        return spliterators.get();
+    }
+
+    public Stream<T> stream() {
+        return StreamSupport.stream(spliterator(), false);
+    }
+
+    public Stream<T> parallelStream() {
+        return StreamSupport.stream(spliterator(), true);
+    }
+}
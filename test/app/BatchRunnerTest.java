@@ -0,0 +1,87 @@
+package app;
+
+import navigator.NavigatorImpl;
+import org.junit.jupiter.api.Test;
+
+import java.io.BufferedReader;
+import java.io.ByteArrayOutputStream;
+import java.io.PrintStream;
+import java.io.StringReader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class BatchRunnerTest {
+    private static final String COMMANDS = String.join("\n",
+            "add\tbatch-1\t10\t0\tfalse\tbatch-a\tbatch-b",
+            "add\tbatch-2\tnot-a-number\t0\tfalse\tbatch-a\tbatch-b",
+            "frobnicate\tbatch-1",
+            "add\tbatch-3\t5\t0\tfalse\tbatch-a\tbatch-b",
+            "search\tbatch-a\tbatch-b");
+
+    private final ByteArrayOutputStream output = new ByteArrayOutputStream();
+    private final ByteArrayOutputStream errors = new ByteArrayOutputStream();
+
+    private long run(boolean batchAdds) throws Exception {
+        NavigatorImpl navigator = new NavigatorImpl();
+        navigator.setQuiet(true);
+        BatchRunner runner = new BatchRunner(navigator,
+                new PrintStream(output, true, StandardCharsets.UTF_8),
+                new PrintStream(errors, true, StandardCharsets.UTF_8), batchAdds);
+        long commands = runner.run(new BufferedReader(new StringReader(COMMANDS)));
+        assertEquals(2, runner.errors());
+        return commands;
+    }
+
+    @Test
+    void malformedLinesAreReportedAndSkipped() throws Exception {
+        assertEquals(3, run(true));
+
+        String out = output.toString(StandardCharsets.UTF_8);
+        assertTrue(out.contains("batch-1") && out.contains("batch-3"), out);
+        String err = errors.toString(StandardCharsets.UTF_8);
+        assertTrue(err.contains("line 2:"), err);
+        assertTrue(err.contains("line 3: unknown command 'frobnicate'"), err);
+    }
+
+    @Test
+    void unbatchedAddsProduceTheSameResults() throws Exception {
+        assertEquals(3, run(false));
+
+        String out = output.toString(StandardCharsets.UTF_8);
+        assertTrue(out.contains("batch-1") && out.contains("batch-3"), out);
+    }
+
+    private static String runTies(boolean batchAdds) throws Exception {
+        List<String> lines = new ArrayList<>();
+        for (int i = 19; i >= 0; i--) {
+            lines.add("add\ttie-" + (char) ('a' + (i * 7) % 20) + "\t10\t1\tfalse\ttie-x\ttie-y");
+        }
+        lines.add("add\ttie-a\t3\t9\tfalse\ttie-x\ttie-y");
+        lines.add("top");
+        lines.add("search\ttie-x\ttie-y");
+        lines.add("add\ttie-z\t1\t5\tfalse\ttie-x\ttie-y");
+        lines.add("add\ttie-w\t1\t5\tfalse\ttie-y\ttie-x");
+        lines.add("top");
+
+        NavigatorImpl navigator = new NavigatorImpl();
+        navigator.setQuiet(true);
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        BatchRunner runner = new BatchRunner(navigator, new PrintStream(out, true, StandardCharsets.UTF_8),
+                new PrintStream(new ByteArrayOutputStream(), true, StandardCharsets.UTF_8), batchAdds);
+        runner.run(new BufferedReader(new StringReader(String.join("\n", lines))));
+        return out.toString(StandardCharsets.UTF_8);
+    }
+
+    @Test
+    void batchingKeepsFileOrderForRankingTies() throws Exception {
+        String batched = runTies(true);
+        assertEquals(runTies(false), batched);
+        assertTrue(batched.startsWith("Топ-3 маршрута:\nRoute {id='tie-n'"), batched);
+        assertTrue(batched.contains("Топ-3 маршрута:\nRoute {id='tie-z'"), batched);
+        assertTrue(!batched.contains("distance=3.0"), batched);
+    }
+}
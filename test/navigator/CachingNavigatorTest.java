@@ -0,0 +1,140 @@
+package navigator;
+
+import org.junit.jupiter.api.Test;
+import route.Route;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class CachingNavigatorTest {
+    private static final class HookedNavigator extends NavigatorImpl {
+        Runnable hook;
+
+        @Override
+        public Iterable<Route> searchRoutes(String startPoint, String endPoint) {
+            Iterable<Route> result = super.searchRoutes(startPoint, endPoint);
+            Runnable pending = hook;
+            hook = null;
+            if (pending != null) {
+                pending.run();
+            }
+            return result;
+        }
+    }
+
+    private static Route route(String id, int popularity, String... points) {
+        return new Route(id, 10, popularity, false, List.of(points));
+    }
+
+    private static List<String> ids(Iterable<Route> routes) {
+        List<String> ids = new ArrayList<>();
+        routes.forEach(route -> ids.add(route.getId()));
+        return ids;
+    }
+
+    private static HookedNavigator inner() {
+        HookedNavigator navigator = new HookedNavigator();
+        navigator.setQuiet(true);
+        navigator.addRoute(route("cache-1", 3, "cache-a", "cache-b"));
+        navigator.addRoute(route("cache-2", 2, "cache-a", "cache-b"));
+        navigator.addRoute(route("cache-3", 1, "cache-a", "cache-b"));
+        navigator.addRoute(route("cache-x", 0, "cache-x", "cache-y"));
+        return navigator;
+    }
+
+    @Test
+    void invalidatesOnlyQueriesTheChangedRouteAnswers() {
+        HookedNavigator inner = inner();
+        CachingNavigator navigator = new CachingNavigator(inner, 16);
+
+        assertEquals(List.of("cache-1", "cache-2", "cache-3"), ids(navigator.searchRoutes("cache-a", "cache-b")));
+        assertEquals(List.of("cache-x"), ids(navigator.searchRoutes("cache-x", "cache-y")));
+        assertEquals(2, navigator.missCount());
+
+        navigator.addRoute(route("cache-4", 5, "cache-a", "cache-b"));
+        assertEquals(1, navigator.invalidationCount());
+        assertEquals(List.of("cache-x"), ids(navigator.searchRoutes("cache-x", "cache-y")));
+        assertEquals(1, navigator.hitCount());
+        assertEquals(ids(inner.searchRoutes("cache-a", "cache-b")), ids(navigator.searchRoutes("cache-a", "cache-b")));
+        assertEquals(3, navigator.missCount());
+
+        navigator.removeRoute("cache-1");
+        assertEquals(2, navigator.invalidationCount());
+        assertEquals(List.of("cache-4", "cache-2", "cache-3"), ids(navigator.searchRoutes("cache-a", "cache-b")));
+    }
+
+    @Test
+    void votesAndFavoritesRerankCachedResults() {
+        HookedNavigator inner = inner();
+        CachingNavigator navigator = new CachingNavigator(inner, 16);
+        navigator.searchRoutes("cache-a", "cache-b");
+        navigator.getFavoriteRoutes("cache-b");
+
+        for (int i = 0; i < 3; i++) {
+            navigator.chooseRoute("cache-3");
+        }
+        assertEquals(List.of("cache-3", "cache-1", "cache-2"), ids(navigator.searchRoutes("cache-a", "cache-b")));
+        assertEquals(ids(inner.searchRoutes("cache-a", "cache-b")), ids(navigator.searchRoutes("cache-a", "cache-b")));
+
+        navigator.setFavorite("cache-2", true);
+        navigator.setFavorite("cache-1", true);
+        assertEquals(ids(inner.getFavoriteRoutes("cache-b")), ids(navigator.getFavoriteRoutes("cache-b")));
+        assertEquals(List.of("cache-1", "cache-2", "cache-3"), ids(navigator.searchRoutes("cache-a", "cache-b")));
+
+        navigator.setFavorite("cache-2", false);
+        assertEquals(List.of("cache-1"), ids(navigator.getFavoriteRoutes("cache-b")));
+        assertEquals(ids(inner.searchRoutes("cache-a", "cache-b")), ids(navigator.searchRoutes("cache-a", "cache-b")));
+
+        assertEquals(2, navigator.missCount());
+        assertEquals(0, navigator.invalidationCount());
+        assertTrue(navigator.rerankCount() >= 4, "reranks: " + navigator.rerankCount());
+    }
+
+    @Test
+    void evictsTheLeastRecentlyUsedQuery() {
+        CachingNavigator navigator = new CachingNavigator(inner(), 2);
+        navigator.searchRoutes("cache-a", "cache-b");
+        navigator.searchRoutes("cache-x", "cache-y");
+        navigator.searchRoutes("cache-a", "cache-b");
+        navigator.getFavoriteRoutes("cache-b");
+
+        assertEquals(1, navigator.evictionCount());
+        assertEquals(2, navigator.cachedQueries());
+        assertEquals(1, navigator.hitCount());
+
+        navigator.searchRoutes("cache-a", "cache-b");
+        assertEquals(2, navigator.hitCount());
+        navigator.searchRoutes("cache-x", "cache-y");
+        assertEquals(4, navigator.missCount());
+
+        navigator.chooseRoute("cache-x");
+        assertEquals(2, navigator.cachedQueries());
+    }
+
+    @Test
+    void voteDuringMissOnlyDropsTheQueryItTouches() {
+        HookedNavigator inner = inner();
+        CachingNavigator navigator = new CachingNavigator(inner, 16);
+
+        inner.hook = () -> navigator.chooseRoute("cache-x");
+        navigator.searchRoutes("cache-a", "cache-b");
+        navigator.searchRoutes("cache-a", "cache-b");
+        assertEquals(1, navigator.hitCount());
+
+        navigator.addRoute(route("cache-5", 0, "cache-a", "cache-b"));
+        inner.hook = () -> {
+            for (int i = 0; i < 10; i++) {
+                navigator.chooseRoute("cache-5");
+            }
+        };
+        assertEquals(List.of("cache-1", "cache-2", "cache-3", "cache-5"),
+                ids(navigator.searchRoutes("cache-a", "cache-b")));
+        assertEquals(List.of("cache-5", "cache-1", "cache-2", "cache-3"),
+                ids(navigator.searchRoutes("cache-a", "cache-b")));
+        assertEquals(1, navigator.hitCount());
+        assertEquals(3, navigator.missCount());
+    }
+}
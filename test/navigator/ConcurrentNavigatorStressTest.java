@@ -0,0 +1,224 @@
+package navigator;
+
+import org.junit.jupiter.api.Test;
+import route.Route;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.CyclicBarrier;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ConcurrentNavigatorStressTest {
+    private static final int VOTERS = 8;
+    private static final int VOTES_PER_THREAD = 20_000;
+    private static final int HOT_ROUTES = 16;
+
+    private static Route route(String id, int popularity, String... points) {
+        return new Route(id, 10, popularity, false, List.of(points));
+    }
+
+    private static ConcurrentNavigator navigatorWithHotRoutes() {
+        ConcurrentNavigator navigator = new ConcurrentNavigator();
+        navigator.setQuiet(true);
+        List<Route> routes = new ArrayList<>();
+        for (int i = 0; i < HOT_ROUTES; i++) {
+            routes.add(route("hot-" + i, 0, "stress-a", "stress-b" + i, "stress-c"));
+        }
+        navigator.addRoutes(routes);
+        return navigator;
+    }
+
+    @Test
+    void votesAreLinearizableUnderConcurrentWrites() throws Exception {
+        ConcurrentNavigator navigator = navigatorWithHotRoutes();
+        NavigatorMetrics metrics = new NavigatorMetrics();
+        navigator.registerGauges(metrics);
+
+        AtomicBoolean running = new AtomicBoolean(true);
+        AtomicReference<Throwable> failure = new AtomicReference<>();
+        CyclicBarrier start = new CyclicBarrier(VOTERS + 1);
+        CountDownLatch votersDone = new CountDownLatch(VOTERS);
+        List<Thread> threads = new ArrayList<>();
+
+        for (int t = 0; t < VOTERS; t++) {
+            int seed = t;
+            threads.add(new Thread(() -> {
+                Random random = new Random(seed);
+                int[] ownVotes = new int[HOT_ROUTES];
+                int[] lastSeen = new int[HOT_ROUTES];
+                try {
+                    start.await();
+                    for (int i = 0; i < VOTES_PER_THREAD; i++) {
+                        int index = random.nextInt(HOT_ROUTES);
+                        String id = "hot-" + index;
+                        navigator.chooseRoute(id);
+                        ownVotes[index]++;
+                        int popularity = navigator.getRoute(id).getPopularity();
+                        assertTrue(popularity >= ownVotes[index],
+                                "vote not visible after chooseRoute returned: " + popularity + " < " + ownVotes[index]);
+                        assertTrue(popularity >= lastSeen[index], "popularity went backwards");
+                        lastSeen[index] = popularity;
+                    }
+                } catch (Throwable e) {
+                    failure.compareAndSet(null, e);
+                } finally {
+                    votersDone.countDown();
+                }
+            }));
+        }
+
+        Thread writer = new Thread(() -> {
+            Random random = new Random(99);
+            int next = 0;
+            try {
+                start.await();
+                while (running.get()) {
+                    String id = "churn-" + next++;
+                    navigator.addRoute(route(id, random.nextInt(5), "stress-a", "stress-x", "stress-c"));
+                    navigator.setFavorite("hot-" + random.nextInt(HOT_ROUTES), random.nextBoolean());
+                    for (Route route : navigator.searchRoutes("stress-a", "stress-c")) {
+                        assertTrue(route.containsPoint("stress-a") && route.containsPoint("stress-c"));
+                    }
+                    metrics.getGauges();
+                    navigator.removeRoute(id);
+                }
+            } catch (Throwable e) {
+                failure.compareAndSet(null, e);
+            }
+        });
+
+        threads.forEach(Thread::start);
+        writer.start();
+        votersDone.await();
+        running.set(false);
+        writer.join();
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        if (failure.get() != null) {
+            throw new AssertionError(failure.get());
+        }
+
+        int total = 0;
+        for (int i = 0; i < HOT_ROUTES; i++) {
+            total += navigator.getRoute("hot-" + i).getPopularity();
+        }
+        assertEquals(VOTERS * VOTES_PER_THREAD, total);
+
+        List<Route> top = new ArrayList<>();
+        navigator.getTopKRoutes(HOT_ROUTES).forEach(top::add);
+        assertEquals(HOT_ROUTES, top.size());
+        for (int i = 1; i < top.size(); i++) {
+            assertTrue(top.get(i - 1).getPopularity() >= top.get(i).getPopularity(), "top-K out of order: " + top);
+        }
+    }
+
+    @Test
+    void votesCastWhileTheWriterLockIsHeldAreNotStranded() throws Exception {
+        ConcurrentNavigator navigator = navigatorWithHotRoutes();
+        NavigatorMetrics metrics = new NavigatorMetrics();
+        navigator.registerGauges(metrics);
+
+        AtomicBoolean running = new AtomicBoolean(true);
+        Thread lockHolder = new Thread(() -> {
+            while (running.get()) {
+                navigator.setFavorite("hot-0", true);
+                navigator.setFavorite("hot-0", false);
+                metrics.getGauges();
+            }
+        });
+        lockHolder.start();
+        try {
+            for (int i = 1; i <= 1000; i++) {
+                navigator.chooseRoute("hot-1");
+                assertEquals(i, navigator.getRoute("hot-1").getPopularity());
+            }
+        } finally {
+            running.set(false);
+            lockHolder.join();
+        }
+        assertEquals("hot-1", navigator.getTop3Routes().iterator().next().getId());
+    }
+
+    @Test
+    void votesDoNotWaitForTheWriterLock() throws Exception {
+        ConcurrentNavigator navigator = navigatorWithHotRoutes();
+        navigator.addRoute(route("cold", VOTES_PER_THREAD, "stress-a", "stress-c"));
+
+        AtomicReference<Throwable> failure = new AtomicReference<>();
+        CyclicBarrier start = new CyclicBarrier(VOTERS + 1);
+        CountDownLatch votersDone = new CountDownLatch(VOTERS);
+        for (int t = 0; t < VOTERS; t++) {
+            int seed = t;
+            Thread voter = new Thread(() -> {
+                Random random = new Random(seed);
+                int[] ownVotes = new int[HOT_ROUTES];
+                try {
+                    start.await();
+                    for (int i = 0; i < VOTES_PER_THREAD; i++) {
+                        int index = (i % 2 == 0) ? 0 : random.nextInt(HOT_ROUTES);
+                        String id = "hot-" + index;
+                        navigator.chooseRoute(id);
+                        ownVotes[index]++;
+                        int popularity = navigator.getRoute(id).getPopularity();
+                        assertTrue(popularity >= ownVotes[index],
+                                "vote not visible after chooseRoute returned: " + popularity + " < " + ownVotes[index]);
+                    }
+                } catch (Throwable e) {
+                    failure.compareAndSet(null, e);
+                } finally {
+                    votersDone.countDown();
+                }
+            });
+            voter.setDaemon(true);
+            voter.start();
+        }
+
+        long votes = (long) VOTERS * VOTES_PER_THREAD;
+        long elapsed;
+        navigator.writerLock().lock();
+        try {
+            start.await();
+            long started = System.nanoTime();
+            assertTrue(votersDone.await(60, TimeUnit.SECONDS), "votes blocked on the writer lock");
+            elapsed = System.nanoTime() - started;
+            if (failure.get() != null) {
+                throw new AssertionError(failure.get());
+            }
+
+            assertEquals("hot-0", navigator.getTop3Routes().iterator().next().getId());
+            int total = 0;
+            for (Route route : navigator.getTopKRoutes(HOT_ROUTES + 1)) {
+                if (!route.getId().equals("cold")) {
+                    total += route.getPopularity();
+                }
+            }
+            assertEquals(votes, total);
+            for (Route route : navigator.searchRoutes("stress-a", "stress-c")) {
+                assertEquals(navigator.getRoute(route.getId()).getPopularity(), route.getPopularity());
+            }
+        } finally {
+            navigator.writerLock().unlock();
+        }
+
+        double votesPerSecond = votes * 1e9 / elapsed;
+        assertTrue(votesPerSecond >= 50_000, "vote throughput too low: " + (long) votesPerSecond + " votes/s");
+
+        navigator.setFavorite("cold", true);
+        int folded = 0;
+        for (Route route : navigator.snapshot().values()) {
+            if (!route.getId().equals("cold")) {
+                folded += route.getPopularity();
+            }
+        }
+        assertEquals(votes, folded);
+        assertEquals("cold", navigator.getFavoriteRoutes("stress-c").iterator().next().getId());
+    }
+}
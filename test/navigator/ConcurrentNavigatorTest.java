@@ -0,0 +1,49 @@
+package navigator;
+
+import org.junit.jupiter.api.Test;
+import route.Route;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ConcurrentNavigatorTest {
+    private static ConcurrentNavigator navigator(Route... routes) {
+        ConcurrentNavigator navigator = new ConcurrentNavigator();
+        navigator.setQuiet(true);
+        navigator.addRoutes(List.of(routes));
+        return navigator;
+    }
+
+    @Test
+    void publishedRoutesAreNotMutatedByLaterWrites() {
+        Route added = new Route("snap-1", 10, 0, false, List.of("snap-a", "snap-b"));
+        ConcurrentNavigator navigator = navigator(added);
+        Route before = navigator.getRoute("snap-1");
+        Route searched = navigator.searchRoutes("snap-a", "snap-b").iterator().next();
+
+        navigator.chooseRoute("snap-1");
+        navigator.chooseRoute("snap-1");
+        navigator.setFavorite("snap-1", true);
+
+        assertEquals(0, before.getPopularity());
+        assertFalse(before.isFavorite());
+        assertEquals(0, searched.getPopularity());
+        Route after = navigator.getRoute("snap-1");
+        assertEquals(2, after.getPopularity());
+        assertTrue(after.isFavorite());
+        assertEquals(2, navigator.getTopKRoutes(1).iterator().next().getPopularity());
+        assertTrue(navigator.getFavoriteRoutes("snap-b").iterator().next().isFavorite());
+    }
+
+    @Test
+    void mutatingTheAddedRouteDoesNotLeakIntoTheSnapshot() {
+        Route added = new Route("snap-2", 10, 0, false, List.of("snap-c", "snap-d"));
+        ConcurrentNavigator navigator = navigator(added);
+        added.setPopularity(99);
+
+        assertEquals(0, navigator.getRoute("snap-2").getPopularity());
+    }
+}
@@ -0,0 +1,161 @@
+package navigator;
+
+import org.junit.jupiter.api.Test;
+import route.LocationDictionary;
+import route.Route;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ConnectionSearchTest {
+    private static NavigatorImpl navigator(Route... routes) {
+        NavigatorImpl navigator = new NavigatorImpl();
+        navigator.setQuiet(true);
+        for (Route route : routes) {
+            navigator.addRoute(route);
+        }
+        return navigator;
+    }
+
+    private static Route route(String id, double distance, String... points) {
+        return new Route(id, distance, 0, false, List.of(points));
+    }
+
+    private static List<String> legs(Connection connection) {
+        List<String> legs = new ArrayList<>();
+        for (Connection.Leg leg : connection.getLegs()) {
+            legs.add(leg.getRoute().getId() + ":" + leg.getFrom() + "->" + leg.getTo());
+        }
+        return legs;
+    }
+
+    private static List<String> stops(LocationGraph graph, String location) {
+        List<String> stops = new ArrayList<>();
+        graph.forEachStop(LocationDictionary.global().find(location),
+                (route, position) -> stops.add(route.getId() + "@" + position));
+        stops.sort(null);
+        return stops;
+    }
+
+    @Test
+    void returnsNothingWithoutAConnection() {
+        NavigatorImpl navigator = navigator(
+                route("none-1", 10, "none-a", "none-b"),
+                route("none-2", 10, "none-c", "none-d"));
+
+        assertEquals(List.of(), navigator.searchConnections("none-a", "none-d", 5));
+        assertEquals(List.of(), navigator.searchConnections("none-b", "none-a", 5));
+        assertEquals(List.of(), navigator.searchConnections("none-a", "none-a", 5));
+        assertEquals(List.of(), navigator.searchConnections("none-a", "none-unknown", 5));
+        assertEquals(List.of(), navigator.searchConnections(null, "none-b", 5));
+    }
+
+    @Test
+    void findsADirectRouteWithoutTransfers() {
+        NavigatorImpl navigator = navigator(route("direct-1", 10, "direct-a", "direct-b", "direct-c"));
+
+        List<Connection> connections = navigator.searchConnections("direct-a", "direct-c", 0);
+        assertEquals(1, connections.size());
+        assertEquals(0, connections.get(0).getTransfers());
+        assertEquals(10, connections.get(0).getDistance(), 1e-9);
+        assertEquals(List.of("direct-1:direct-a->direct-c"), legs(connections.get(0)));
+
+        Connection partial = navigator.searchConnections("direct-b", "direct-c", 0).get(0);
+        assertEquals(5, partial.getDistance(), 1e-9);
+        assertEquals(List.of("direct-1:direct-b->direct-c"), legs(partial));
+    }
+
+    @Test
+    void transfersWhenNoSingleRouteConnects() {
+        NavigatorImpl navigator = navigator(
+                route("transfer-1", 4, "transfer-a", "transfer-b"),
+                route("transfer-2", 6, "transfer-b", "transfer-c"));
+
+        assertEquals(List.of(), navigator.searchConnections("transfer-a", "transfer-c", 0));
+        List<Connection> connections = navigator.searchConnections("transfer-a", "transfer-c", 1);
+        assertEquals(1, connections.size());
+        assertEquals(1, connections.get(0).getTransfers());
+        assertEquals(10, connections.get(0).getDistance(), 1e-9);
+        assertEquals(List.of("transfer-1:transfer-a->transfer-b", "transfer-2:transfer-b->transfer-c"),
+                legs(connections.get(0)));
+        assertEquals(4, connections.get(0).getLegs().get(0).getDistance(), 1e-9);
+    }
+
+    @Test
+    void maxTransfersBoundsTheSearch() {
+        NavigatorImpl navigator = navigator(
+                route("bound-1", 1, "bound-a", "bound-b"),
+                route("bound-2", 1, "bound-b", "bound-c"),
+                route("bound-3", 1, "bound-c", "bound-d"),
+                route("bound-4", 1, "bound-d", "bound-e"),
+                route("bound-slow", 100, "bound-a", "bound-x", "bound-e"));
+
+        List<Connection> direct = navigator.searchConnections("bound-a", "bound-e", 2);
+        assertEquals(1, direct.size());
+        assertEquals(List.of("bound-slow:bound-a->bound-e"), legs(direct.get(0)));
+
+        List<Connection> front = navigator.searchConnections("bound-a", "bound-e", 3);
+        assertEquals(2, front.size());
+        assertEquals(3, front.get(0).getTransfers());
+        assertEquals(4, front.get(0).getDistance(), 1e-9);
+        assertEquals(0, front.get(1).getTransfers());
+        assertEquals(100, front.get(1).getDistance(), 1e-9);
+        assertEquals(front.size(), navigator.searchConnections("bound-a", "bound-e", 10).size());
+
+        assertThrows(IllegalArgumentException.class, () -> navigator.searchConnections("bound-a", "bound-e", -1));
+    }
+
+    @Test
+    void equalDistancePrefersFewerTransfers() {
+        NavigatorImpl navigator = navigator(
+                route("tie-leg-1", 5, "tie-leg-a", "tie-leg-b"),
+                route("tie-leg-2", 5, "tie-leg-b", "tie-leg-c"),
+                route("tie-leg-direct", 10, "tie-leg-a", "tie-leg-m", "tie-leg-c"));
+
+        List<Connection> connections = navigator.searchConnections("tie-leg-a", "tie-leg-c", 3);
+        assertEquals(1, connections.size());
+        assertEquals(0, connections.get(0).getTransfers());
+        assertEquals(List.of("tie-leg-direct:tie-leg-a->tie-leg-c"), legs(connections.get(0)));
+    }
+
+    @Test
+    void removeRouteUpdatesTheGraphIncrementally() {
+        NavigatorImpl navigator = navigator(
+                route("graph-1", 4, "graph-a", "graph-b"),
+                route("graph-2", 6, "graph-b", "graph-c"));
+        assertEquals(1, navigator.searchConnections("graph-a", "graph-c", 1).size());
+
+        navigator.removeRoute("graph-2");
+        assertEquals(List.of(), navigator.searchConnections("graph-a", "graph-c", 1));
+
+        navigator.addRoute(route("graph-3", 2, "graph-b", "graph-c"));
+        Connection connection = navigator.searchConnections("graph-a", "graph-c", 1).get(0);
+        assertEquals(List.of("graph-1:graph-a->graph-b", "graph-3:graph-b->graph-c"), legs(connection));
+        assertEquals(6, connection.getDistance(), 1e-9);
+    }
+
+    @Test
+    void locationGraphTracksEveryStopPosition() {
+        LocationGraph graph = new LocationGraph();
+        Route loop = route("stops-loop", 9, "stops-a", "stops-b", "stops-a", "stops-c");
+        Route line = route("stops-line", 3, "stops-b", "stops-a");
+        graph.add(loop);
+        graph.add(line);
+
+        assertEquals(List.of("stops-line@1", "stops-loop@0", "stops-loop@2"), stops(graph, "stops-a"));
+        assertEquals(List.of("stops-line@0", "stops-loop@1"), stops(graph, "stops-b"));
+
+        graph.remove(loop);
+        assertEquals(List.of("stops-line@1"), stops(graph, "stops-a"));
+        assertEquals(List.of(), stops(graph, "stops-c"));
+
+        graph.remove(line);
+        graph.remove(line);
+        assertTrue(stops(graph, "stops-a").isEmpty());
+        assertEquals(List.of(), stops(graph, "stops-unknown"));
+    }
+}
@@ -0,0 +1,112 @@
+package navigator;
+
+import org.junit.jupiter.api.Test;
+import route.Route;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class LocationIndexTest {
+    private static List<String> ids(Iterable<Route> routes) {
+        List<String> ids = new ArrayList<>();
+        routes.forEach(route -> ids.add(route.getId()));
+        return ids;
+    }
+
+    private static List<String> expectedSearch(Iterable<Route> routes, String startPoint, String endPoint) {
+        List<Route> result = new ArrayList<>();
+        for (Route route : routes) {
+            List<String> points = route.getLocationPoints();
+            int start = points.indexOf(startPoint);
+            if (start != -1 && start <= points.indexOf(endPoint)) {
+                result.add(route);
+            }
+        }
+        result.sort(Comparator.comparing((Route route) -> !route.isFavorite())
+                .thenComparingInt(route -> route.getLocationPoints().indexOf(endPoint)
+                        - route.getLocationPoints().indexOf(startPoint))
+                .thenComparing(Comparator.comparingInt(Route::getPopularity).reversed())
+                .thenComparing(Route::getId));
+        return ids(result);
+    }
+
+    private static List<String> expectedFavorites(Iterable<Route> routes, String destinationPoint) {
+        List<Route> result = new ArrayList<>();
+        for (Route route : routes) {
+            List<String> points = route.getLocationPoints();
+            if (route.isFavorite() && !points.get(0).equals(destinationPoint) && points.contains(destinationPoint)) {
+                result.add(route);
+            }
+        }
+        result.sort(Comparator.comparingDouble(Route::getDistance).reversed()
+                .thenComparing(Comparator.comparingInt(Route::getPopularity).reversed())
+                .thenComparing(Route::getId));
+        return ids(result);
+    }
+
+    private static Route randomRoute(Random random) {
+        List<String> points = new ArrayList<>();
+        for (int i = 1 + random.nextInt(4); i > 0; i--) {
+            points.add("index-" + random.nextInt(8));
+        }
+        return new Route("index-r" + random.nextInt(80), random.nextInt(5), random.nextInt(4),
+                random.nextBoolean(), points);
+    }
+
+    @Test
+    void searchesMatchAFullScan() {
+        NavigatorImpl navigator = new NavigatorImpl();
+        navigator.setQuiet(true);
+        Random random = new Random(11);
+
+        for (int step = 0; step < 2000; step++) {
+            int op = random.nextInt(10);
+            String routeId = "index-r" + random.nextInt(80);
+            if (op < 5) {
+                navigator.addRoute(randomRoute(random));
+            } else if (op < 7) {
+                navigator.removeRoute(routeId);
+            } else if (op < 8) {
+                navigator.setFavorite(routeId, random.nextBoolean());
+            } else {
+                navigator.chooseRoute(routeId);
+            }
+
+            if (step % 20 == 0) {
+                String start = "index-" + random.nextInt(9);
+                String end = "index-" + random.nextInt(9);
+                List<String> search = expectedSearch(navigator.getRoutes(), start, end);
+                assertEquals(search, ids(navigator.searchRoutes(start, end)), start + " -> " + end);
+                assertEquals(search.subList(Math.min(1, search.size()), Math.min(3, search.size())),
+                        ids(navigator.searchRoutes(start, end, 1, 2)));
+                assertEquals(expectedFavorites(navigator.getRoutes(), end), ids(navigator.getFavoriteRoutes(end)), end);
+            }
+        }
+    }
+
+    @Test
+    void postingsFollowAddAndRemove() {
+        LocationIndex index = new LocationIndex();
+        Route loop = new Route("posting-1", 1, 0, false, List.of("posting-a", "posting-b", "posting-a"));
+        Route other = new Route("posting-2", 1, 0, false, List.of("posting-b", "posting-c"));
+        index.add(loop);
+        index.add(other);
+
+        assertEquals(Set.of(loop), index.routesThrough("posting-a"));
+        assertEquals(Set.of(loop, other), index.routesThrough("posting-b"));
+        assertEquals(3, index.size());
+
+        index.remove(loop);
+        assertTrue(index.routesThrough("posting-a").isEmpty());
+        assertEquals(Set.of(other), index.routesThrough("posting-b"));
+        assertEquals(2, index.size());
+        assertTrue(index.routesThrough("posting-unknown").isEmpty());
+        assertTrue(index.routesThrough((String) null).isEmpty());
+    }
+}
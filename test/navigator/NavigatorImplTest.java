@@ -0,0 +1,153 @@
+package navigator;
+
+import org.junit.jupiter.api.Test;
+import route.LocationDictionary;
+import route.Route;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.function.Predicate;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class NavigatorImplTest {
+    private static List<String> ids(Iterable<Route> routes) {
+        List<String> ids = new ArrayList<>();
+        routes.forEach(route -> ids.add(route.getId()));
+        return ids;
+    }
+
+    @Test
+    void parallelFindRoutesMatchesASequentialScan() {
+        NavigatorImpl navigator = new NavigatorImpl();
+        navigator.setQuiet(true);
+        int count = NavigatorImpl.PARALLEL_SCAN_THRESHOLD * 2;
+        for (int i = 0; i < count; i++) {
+            int id = (i * 7919) % count;
+            navigator.addRoute(new Route(String.format("find-%06d", id), id % 97, id % 13, false,
+                    List.of("find-" + (id % 31), "find-" + (id % 17))));
+        }
+
+        Predicate<Route> filter = route -> route.getDistance() < 20 && route.getPopularity() > 3;
+        List<String> expected = new ArrayList<>();
+        for (Route route : navigator.getRoutes()) {
+            if (filter.test(route)) {
+                expected.add(route.getId());
+            }
+        }
+        assertEquals(expected, ids(navigator.findRoutes(filter)));
+        assertEquals(count, ids(navigator.findRoutes(route -> true)).size());
+        assertEquals(List.of(), ids(navigator.findRoutes(route -> false)));
+    }
+
+    private static Route randomRoute(Random random) {
+        List<String> points = new ArrayList<>();
+        for (int i = 1 + random.nextInt(4); i > 0; i--) {
+            points.add("batch-" + random.nextInt(6));
+        }
+        return new Route(String.format("batch-%05d", random.nextInt(3000)), random.nextInt(4), random.nextInt(4),
+                random.nextBoolean(), points);
+    }
+
+    @Test
+    void addRoutesMatchesSequentialAddRoute() {
+        Random random = new Random(17);
+        for (int prefill : new int[]{0, 1, 40, 1500}) {
+            NavigatorImpl batched = new NavigatorImpl();
+            NavigatorImpl sequential = new NavigatorImpl();
+            batched.setQuiet(true);
+            sequential.setQuiet(true);
+            for (int i = 0; i < prefill; i++) {
+                Route route = randomRoute(random);
+                batched.addRoute(route);
+                sequential.addRoute(new Route(route));
+            }
+
+            for (int round = 0; round < 20; round++) {
+                List<Route> batch = new ArrayList<>();
+                for (int i = random.nextInt(round % 2 == 0 ? 8 : 400); i >= 0; i--) {
+                    Route route = randomRoute(random);
+                    batch.add(route);
+                    if (random.nextInt(5) == 0) {
+                        batch.add(new Route(route));
+                    }
+                }
+                if (sequential.size() > 0 && random.nextBoolean()) {
+                    batch.add(new Route(sequential.getRoutes().iterator().next()));
+                }
+                for (Route route : batch) {
+                    sequential.addRoute(new Route(route));
+                }
+                batched.addRoutes(batch);
+
+                String chosen = String.format("batch-%05d", random.nextInt(3000));
+                batched.chooseRoute(chosen);
+                sequential.chooseRoute(chosen);
+
+                assertEquals(sequential.size(), batched.size());
+                assertEquals(copies(sequential.getRoutes()), copies(batched.getRoutes()));
+                assertEquals(copies(sequential.getTopKRoutes(10)), copies(batched.getTopKRoutes(10)));
+                for (Route route : batch) {
+                    assertEquals(sequential.contains(route), batched.contains(route));
+                }
+                for (int start = 0; start < 6; start++) {
+                    String from = "batch-" + start;
+                    String to = "batch-" + random.nextInt(6);
+                    assertEquals(ids(sequential.searchRoutes(from, to)), ids(batched.searchRoutes(from, to)));
+                    assertEquals(ids(sequential.getFavoriteRoutes(from)), ids(batched.getFavoriteRoutes(from)));
+                }
+            }
+        }
+    }
+
+    private static List<Route> copies(Iterable<Route> routes) {
+        List<Route> copies = new ArrayList<>();
+        routes.forEach(route -> copies.add(new Route(route)));
+        return copies;
+    }
+
+    @Test
+    void nullLocationsMatchNothing() {
+        List<Navigator> navigators = List.of(new NavigatorImpl(), new ConcurrentNavigator(), new StoreNavigator(),
+                new ShardedNavigator(2, Runnable::run), new CachingNavigator(new NavigatorImpl(), 16));
+        for (Navigator navigator : navigators) {
+            navigator.addRoute(new Route("null-1", 5, 0, true, List.of("null-a", "null-b")));
+
+            String name = navigator.getClass().getSimpleName();
+            assertEquals(List.of(), ids(navigator.searchRoutes(null, "null-b")), name);
+            assertEquals(List.of(), ids(navigator.searchRoutes("null-a", null)), name);
+            assertEquals(List.of(), ids(navigator.getFavoriteRoutes(null)), name);
+            assertEquals(List.of("null-1"), ids(navigator.getFavoriteRoutes("null-b")), name);
+        }
+    }
+
+    @Test
+    void locationsGaugeCountsOnlyThisNavigatorsLocations() {
+        NavigatorImpl other = new NavigatorImpl();
+        other.setQuiet(true);
+        other.addRoute(new Route("gauge-other", 5, 0, false, List.of("gauge-x", "gauge-y", "gauge-z")));
+
+        NavigatorImpl impl = new NavigatorImpl();
+        impl.setQuiet(true);
+        StoreNavigator store = new StoreNavigator();
+        NavigatorMetrics implMetrics = new NavigatorMetrics();
+        NavigatorMetrics storeMetrics = new NavigatorMetrics();
+        impl.registerGauges(implMetrics);
+        store.registerGauges(storeMetrics);
+
+        for (Navigator navigator : List.of(impl, store)) {
+            navigator.addRoute(new Route("gauge-1", 5, 0, false, List.of("gauge-a", "gauge-b")));
+            navigator.addRoute(new Route("gauge-2", 5, 0, false, List.of("gauge-b", "gauge-c", "gauge-b")));
+        }
+        assertEquals(3L, implMetrics.getGauges().get("locations"));
+        assertEquals(3L, storeMetrics.getGauges().get("locations"));
+
+        impl.removeRoute("gauge-2");
+        store.removeRoute("gauge-2");
+        assertEquals(2L, implMetrics.getGauges().get("locations"));
+        assertEquals(2L, storeMetrics.getGauges().get("locations"));
+        assertTrue(LocationDictionary.global().size() >= 6);
+    }
+}
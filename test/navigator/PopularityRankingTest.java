@@ -0,0 +1,102 @@
+package navigator;
+
+import org.junit.jupiter.api.Test;
+import route.Route;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class PopularityRankingTest {
+    private static List<String> ids(Iterable<Route> routes) {
+        List<String> ids = new ArrayList<>();
+        routes.forEach(route -> ids.add(route.getId()));
+        return ids;
+    }
+
+    private static List<String> expectedTop(NavigatorImpl navigator, Map<String, Integer> order, int k) {
+        List<Route> routes = new ArrayList<>();
+        navigator.getRoutes().forEach(routes::add);
+        routes.sort(Comparator.comparing(Route::getPopularity).reversed()
+                .thenComparingDouble(Route::getDistance)
+                .thenComparingInt(route -> route.getLocationPoints().size())
+                .thenComparingInt(route -> order.get(route.getId())));
+        return ids(routes.subList(0, Math.min(k, routes.size())));
+    }
+
+    @Test
+    void topKMatchesAFullSortWithInsertionOrderTies() {
+        NavigatorImpl navigator = new NavigatorImpl();
+        navigator.setQuiet(true);
+        Map<String, Integer> order = new LinkedHashMap<>();
+        Random random = new Random(5);
+        int sequence = 0;
+
+        for (int step = 0; step < 3000; step++) {
+            String routeId = "rank-r" + random.nextInt(50);
+            int op = random.nextInt(10);
+            if (op < 4) {
+                List<String> points = new ArrayList<>();
+                for (int i = 1 + random.nextInt(3); i > 0; i--) {
+                    points.add("rank-" + random.nextInt(5));
+                }
+                navigator.addRoute(new Route(routeId, 1 + random.nextInt(2), random.nextInt(3), false, points));
+                if (!order.containsKey(routeId) && navigator.getRoute(routeId) != null) {
+                    order.put(routeId, sequence++);
+                }
+            } else if (op < 6) {
+                navigator.removeRoute(routeId);
+                order.remove(routeId);
+            } else if (op < 7) {
+                navigator.setFavorite(routeId, random.nextBoolean());
+            } else {
+                navigator.chooseRoute(routeId);
+            }
+
+            if (step % 30 == 0) {
+                for (int k : new int[]{0, 1, 3, 10, 100}) {
+                    assertEquals(expectedTop(navigator, order, k), ids(navigator.getTopKRoutes(k)),
+                            "k=" + k + " at step " + step);
+                }
+                assertEquals(ids(navigator.getTopKRoutes(3)), ids(navigator.getTop3Routes()));
+            }
+        }
+    }
+
+    @Test
+    void rankingFollowsUpdatesAndRemovals() {
+        PopularityRanking ranking = new PopularityRanking();
+        Route slow = new Route("ranking-slow", 20, 1, false, List.of("ranking-a", "ranking-b"));
+        Route fast = new Route("ranking-fast", 10, 1, false, List.of("ranking-a", "ranking-b"));
+        Route twin = new Route("ranking-twin", 10, 1, false, List.of("ranking-a", "ranking-b"));
+        ranking.add(slow);
+        ranking.add(fast);
+        ranking.add(twin);
+        assertEquals(List.of("ranking-fast", "ranking-twin", "ranking-slow"), ids(ranking.top(5)));
+
+        slow.setPopularity(2);
+        ranking.update(slow);
+        assertEquals(List.of("ranking-slow", "ranking-fast"), ids(ranking.top(2)));
+
+        fast.setPopularity(2);
+        ranking.update(fast);
+        assertEquals(List.of("ranking-fast", "ranking-slow", "ranking-twin"), ids(ranking.top(3)));
+
+        ranking.remove(fast);
+        ranking.remove(fast);
+        ranking.update(fast);
+        assertEquals(List.of("ranking-slow", "ranking-twin"), ids(ranking.top(3)));
+        assertEquals(List.of(), ids(ranking.top(0)));
+    }
+
+    @Test
+    void negativeKIsRejected() {
+        assertThrows(IllegalArgumentException.class, () -> new NavigatorImpl().getTopKRoutes(-1));
+    }
+}
@@ -0,0 +1,59 @@
+package navigator;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class PopularityWindowTest {
+    @Test
+    void slidingWindowRollsBucketsOver() {
+        PopularityWindow.Counter counter = PopularityWindow.sliding(1000, 4).newCounter();
+        assertEquals(0, counter.score(0));
+        assertEquals(Long.MAX_VALUE, counter.expiresAt(0));
+
+        counter.record(0, 1);
+        counter.record(100, 2);
+        counter.record(250, 5);
+        assertEquals(3, counter.score(249));
+        assertEquals(8, counter.score(999));
+        assertEquals(1000, counter.expiresAt(260));
+
+        assertEquals(5, counter.score(1000));
+        assertEquals(0, counter.score(1250));
+
+        counter.record(1000, 7);
+        assertEquals(12, counter.score(1000));
+        assertEquals(1250, counter.expiresAt(1000));
+        assertEquals(7, counter.score(1250));
+        assertEquals(2000, counter.expiresAt(1250));
+        assertEquals(counter.score(1100), counter.rank(1100));
+    }
+
+    @Test
+    void decayingWindowHalvesEveryHalfLife() {
+        PopularityWindow window = PopularityWindow.decaying(1000);
+        PopularityWindow.Counter old = window.newCounter();
+        PopularityWindow.Counter recent = window.newCounter();
+
+        old.record(0, 4);
+        assertEquals(4, old.score(0), 1e-9);
+        assertEquals(2, old.score(1000), 1e-9);
+        assertEquals(1, old.score(2000), 1e-9);
+        assertEquals(Long.MAX_VALUE, old.expiresAt(2000));
+
+        recent.record(2000, 1);
+        assertEquals(old.rank(2000), recent.rank(2000), 1e-9);
+        recent.record(2000, 1);
+        assertTrue(recent.rank(5000) > old.rank(5000));
+        assertEquals(2 * old.score(5000), recent.score(5000), 1e-9);
+    }
+
+    @Test
+    void rejectsInvalidParameters() {
+        assertThrows(IllegalArgumentException.class, () -> PopularityWindow.sliding(1000, 0));
+        assertThrows(IllegalArgumentException.class, () -> PopularityWindow.sliding(3, 4));
+        assertThrows(IllegalArgumentException.class, () -> PopularityWindow.decaying(0));
+    }
+}
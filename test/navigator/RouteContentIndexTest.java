@@ -0,0 +1,113 @@
+package navigator;
+
+import org.junit.jupiter.api.Test;
+import route.Route;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class RouteContentIndexTest {
+    private static Route randomRoute(Random random) {
+        List<String> points = new ArrayList<>();
+        for (int i = 1 + random.nextInt(3); i > 0; i--) {
+            points.add("content-" + random.nextInt(4));
+        }
+        return new Route("content-r" + random.nextInt(30), random.nextInt(3), random.nextInt(3),
+                random.nextBoolean(), points);
+    }
+
+    private static boolean scan(Navigator navigator, Route probe) {
+        for (Route route : navigator.getRoutes()) {
+            if (route.equals(probe)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    @Test
+    void containsMatchesAFullScan() {
+        NavigatorImpl navigator = new NavigatorImpl();
+        navigator.setQuiet(true);
+        Random random = new Random(9);
+
+        for (int step = 0; step < 3000; step++) {
+            String routeId = "content-r" + random.nextInt(30);
+            int op = random.nextInt(10);
+            if (op < 4) {
+                Route route = randomRoute(random);
+                int size = navigator.size();
+                boolean duplicate = scan(navigator, route) || navigator.getRoute(route.getId()) != null;
+                navigator.addRoute(route);
+                assertEquals(duplicate ? size : size + 1, navigator.size());
+            } else if (op < 6) {
+                int size = navigator.size();
+                boolean present = navigator.getRoute(routeId) != null;
+                navigator.removeRoute(routeId);
+                assertEquals(present ? size - 1 : size, navigator.size());
+            } else if (op < 7) {
+                navigator.setFavorite(routeId, random.nextBoolean());
+            } else {
+                navigator.chooseRoute(routeId);
+            }
+
+            Route probe = randomRoute(random);
+            assertEquals(scan(navigator, probe), navigator.contains(probe), probe.toString());
+            Route current = navigator.getRoute(routeId);
+            if (current != null) {
+                assertTrue(navigator.contains(new Route(current)));
+            }
+        }
+        assertFalse(navigator.contains(null));
+    }
+
+    @Test
+    void votesAndFavoritesRehashStoredRoutes() {
+        NavigatorImpl navigator = new NavigatorImpl();
+        navigator.setQuiet(true);
+        Route route = new Route("rehash-1", 5, 0, false, List.of("rehash-a", "rehash-b"));
+        navigator.addRoute(route);
+        Route before = new Route(route);
+
+        navigator.chooseRoute("rehash-1");
+        navigator.setFavorite("rehash-1", true);
+        assertFalse(navigator.contains(before));
+        assertTrue(navigator.contains(new Route("rehash-1", 5, 1, true, List.of("rehash-a", "rehash-b"))));
+
+        navigator.addRoute(before);
+        assertEquals(1, navigator.size());
+        navigator.removeRoute("rehash-1");
+        assertFalse(navigator.contains(route));
+        assertEquals(0, navigator.size());
+    }
+
+    @Test
+    void indexTracksInstancesNotEqualCopies() {
+        RouteContentIndex index = new RouteContentIndex();
+        Route route = new Route("identity-1", 5, 0, false, List.of("identity-a", "identity-b"));
+        Route copy = new Route(route);
+        index.add(route);
+        assertTrue(index.contains(copy));
+
+        index.remove(copy);
+        assertTrue(index.contains(route));
+
+        route.setPopularity(7);
+        assertFalse(route.equals(copy));
+        assertEquals(new Route("identity-1", 5, 7, false, List.of("identity-a", "identity-b")).hashCode(),
+                route.hashCode());
+        index.update(route);
+        assertTrue(index.contains(new Route(route)));
+        assertFalse(index.contains(copy));
+
+        index.remove(route);
+        assertFalse(index.contains(route));
+        index.update(route);
+        assertFalse(index.contains(route));
+    }
+}
@@ -0,0 +1,71 @@
+package navigator;
+
+import org.junit.jupiter.api.Test;
+import route.Route;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class SearchRoutesTest {
+    private static final Route FORWARD = new Route("search-forward", 10, 0, false,
+            List.of("search-a", "search-x", "search-b"));
+    private static final Route SHORT = new Route("search-short", 10, 5, false,
+            List.of("search-a", "search-b"));
+    private static final Route REVERSED = new Route("search-reversed", 10, 9, true,
+            List.of("search-b", "search-a"));
+
+    private static List<String> ids(Iterable<Route> routes) {
+        List<String> ids = new ArrayList<>();
+        routes.forEach(route -> ids.add(route.getId()));
+        return ids;
+    }
+
+    private static void assertSearchSkipsReversedRoutes(Navigator navigator) {
+        navigator.addRoute(new Route(FORWARD));
+        navigator.addRoute(new Route(SHORT));
+        assertEquals(List.of("search-short", "search-forward"), ids(navigator.searchRoutes("search-a", "search-b")));
+
+        navigator.addRoute(new Route(REVERSED));
+
+        assertEquals(List.of("search-short", "search-forward"), ids(navigator.searchRoutes("search-a", "search-b")));
+        assertEquals(List.of("search-short"), ids(navigator.searchRoutes("search-a", "search-b", 0, 1)));
+        assertEquals(List.of("search-reversed"), ids(navigator.searchRoutes("search-b", "search-a")));
+    }
+
+    @Test
+    void navigatorImplSkipsReversedRoutes() {
+        NavigatorImpl navigator = new NavigatorImpl();
+        navigator.setQuiet(true);
+        assertSearchSkipsReversedRoutes(navigator);
+    }
+
+    @Test
+    void concurrentNavigatorSkipsReversedRoutes() {
+        ConcurrentNavigator navigator = new ConcurrentNavigator();
+        navigator.setQuiet(true);
+        assertSearchSkipsReversedRoutes(navigator);
+    }
+
+    @Test
+    void cachingNavigatorSkipsReversedRoutes() {
+        NavigatorImpl navigator = new NavigatorImpl();
+        navigator.setQuiet(true);
+        assertSearchSkipsReversedRoutes(new CachingNavigator(navigator, 16));
+    }
+
+    @Test
+    void shardedNavigatorSkipsReversedRoutes() {
+        ShardedNavigator navigator = new ShardedNavigator(2, Runnable::run);
+        navigator.setQuiet(true);
+        assertSearchSkipsReversedRoutes(navigator);
+    }
+
+    @Test
+    void storeNavigatorSkipsReversedRoutes() {
+        StoreNavigator navigator = new StoreNavigator();
+        navigator.setQuiet(true);
+        assertSearchSkipsReversedRoutes(navigator);
+    }
+}
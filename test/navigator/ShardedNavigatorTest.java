@@ -0,0 +1,79 @@
+package navigator;
+
+import org.junit.jupiter.api.Test;
+import route.Route;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class ShardedNavigatorTest {
+    private static List<String> ids(Iterable<Route> routes) {
+        List<String> ids = new ArrayList<>();
+        routes.forEach(route -> ids.add(route.getId()));
+        return ids;
+    }
+
+    private static Route randomRoute(Random random) {
+        List<String> points = new ArrayList<>();
+        int count = 2 + random.nextInt(2);
+        for (int i = 0; i < count; i++) {
+            points.add("shard-" + random.nextInt(6));
+        }
+        return new Route("shard-r" + random.nextInt(60), 1 + random.nextInt(2), random.nextInt(3),
+                random.nextBoolean(), points);
+    }
+
+    @Test
+    void topKMatchesNavigatorImplIncludingTies() {
+        ForkJoinPool pool = new ForkJoinPool(4);
+        try {
+            NavigatorImpl expected = new NavigatorImpl();
+            expected.setQuiet(true);
+            ShardedNavigator navigator = new ShardedNavigator(4, pool);
+            navigator.setQuiet(true);
+            Random random = new Random(7);
+
+            for (int step = 0; step < 3000; step++) {
+                int op = random.nextInt(10);
+                if (op < 4) {
+                    Route route = randomRoute(random);
+                    expected.addRoute(new Route(route));
+                    navigator.addRoute(new Route(route));
+                } else if (op < 5) {
+                    List<Route> batch = new ArrayList<>();
+                    List<Route> copy = new ArrayList<>();
+                    for (int i = random.nextInt(12); i > 0; i--) {
+                        Route route = randomRoute(random);
+                        batch.add(route);
+                        copy.add(new Route(route));
+                    }
+                    expected.addRoutes(batch);
+                    navigator.addRoutes(copy);
+                } else if (op < 7) {
+                    String routeId = "shard-r" + random.nextInt(60);
+                    expected.removeRoute(routeId);
+                    navigator.removeRoute(routeId);
+                } else {
+                    String routeId = "shard-r" + random.nextInt(60);
+                    expected.chooseRoute(routeId);
+                    navigator.chooseRoute(routeId);
+                }
+
+                if (step % 25 == 0) {
+                    for (int k : new int[]{0, 1, 3, 7, 80}) {
+                        assertEquals(ids(expected.getTopKRoutes(k)), ids(navigator.getTopKRoutes(k)),
+                                "k=" + k + " at step " + step);
+                    }
+                }
+            }
+            assertEquals(ids(expected.getTop3Routes()), ids(navigator.getTop3Routes()));
+            assertEquals(expected.size(), navigator.size());
+        } finally {
+            pool.shutdown();
+        }
+    }
+}
@@ -0,0 +1,81 @@
+package navigator;
+
+import org.junit.jupiter.api.Test;
+import route.Route;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class StoreNavigatorTest {
+    private static List<Route> list(Iterable<Route> routes) {
+        List<Route> result = new ArrayList<>();
+        routes.forEach(result::add);
+        return result;
+    }
+
+    @Test
+    void matchesNavigatorImplUnderRandomOperations() {
+        NavigatorImpl expected = new NavigatorImpl();
+        expected.setQuiet(true);
+        StoreNavigator actual = new StoreNavigator();
+        actual.setQuiet(true);
+        Random random = new Random(7);
+
+        for (int i = 0; i < 5_000; i++) {
+            String id = "store-nav-" + random.nextInt(200);
+            switch (random.nextInt(4)) {
+                case 0:
+                    List<String> points = new ArrayList<>();
+                    for (int p = 0, n = 2 + random.nextInt(4); p < n; p++) {
+                        points.add("store-loc-" + random.nextInt(12));
+                    }
+                    Route route = new Route(id, 1 + random.nextInt(50), random.nextInt(5), random.nextBoolean(), points);
+                    if (expected.getRoute(id) == null) {
+                        expected.addRoute(new Route(route));
+                        actual.addRoute(new Route(route));
+                    }
+                    break;
+                case 1:
+                    expected.removeRoute(id);
+                    actual.removeRoute(id);
+                    break;
+                case 2:
+                    expected.chooseRoute(id);
+                    actual.chooseRoute(id);
+                    break;
+                default:
+                    boolean favorite = random.nextBoolean();
+                    expected.setFavorite(id, favorite);
+                    actual.setFavorite(id, favorite);
+                    break;
+            }
+        }
+
+        assertEquals(expected.size(), actual.size());
+        assertEquals(list(expected.getRoutes()), list(actual.getRoutes()));
+        assertEquals(list(expected.getRoutesByIdPrefix("store-nav-1")), list(actual.getRoutesByIdPrefix("store-nav-1")));
+        for (int a = 0; a < 12; a++) {
+            for (int b = 0; b < 12; b++) {
+                assertEquals(list(expected.searchRoutes("store-loc-" + a, "store-loc-" + b)),
+                        list(actual.searchRoutes("store-loc-" + a, "store-loc-" + b)));
+            }
+            assertEquals(list(expected.getFavoriteRoutes("store-loc-" + a)),
+                    list(actual.getFavoriteRoutes("store-loc-" + a)));
+        }
+        assertEquals(list(expected.getRoutesByIdRange("store-nav-120", "store-nav-150")),
+                list(actual.getRoutesByIdRange("store-nav-120", "store-nav-150")));
+        assertEquals(list(expected.findRoutes(route -> route.getPopularity() > 2 && route.isFavorite())),
+                list(actual.findRoutes(route -> route.getPopularity() > 2 && route.isFavorite())));
+        assertEquals(list(expected.getTopKRoutes(expected.size())), list(actual.getTopKRoutes(expected.size())));
+        assertEquals(list(expected.getTop3Routes()), list(actual.getTop3Routes()));
+        for (int a = 0; a < 12; a += 3) {
+            for (int b = 1; b < 12; b += 4) {
+                assertEquals(expected.searchConnections("store-loc-" + a, "store-loc-" + b, 2).toString(),
+                        actual.searchConnections("store-loc-" + a, "store-loc-" + b, 2).toString());
+            }
+        }
+    }
+}
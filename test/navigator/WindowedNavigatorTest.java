@@ -0,0 +1,113 @@
+package navigator;
+
+import org.junit.jupiter.api.Test;
+import route.Route;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class WindowedNavigatorTest {
+    private final AtomicLong now = new AtomicLong();
+
+    private static List<String> ids(Iterable<Route> routes) {
+        List<String> ids = new ArrayList<>();
+        routes.forEach(route -> ids.add(route.getId()));
+        return ids;
+    }
+
+    private WindowedNavigator navigator(PopularityWindow window, String... routeIds) {
+        NavigatorImpl inner = new NavigatorImpl();
+        inner.setQuiet(true);
+        for (String routeId : routeIds) {
+            inner.addRoute(new Route(routeId, 10, 0, false, List.of(routeId + "-from", routeId + "-to")));
+        }
+        return new WindowedNavigator(inner, window, now::get);
+    }
+
+    private static void vote(WindowedNavigator navigator, String routeId, int votes) {
+        for (int i = 0; i < votes; i++) {
+            navigator.chooseRoute(routeId);
+        }
+    }
+
+    @Test
+    void expiredBucketsRescoreTheRanking() {
+        WindowedNavigator navigator = navigator(PopularityWindow.sliding(1000, 4), "win-a", "win-b", "win-c");
+        vote(navigator, "win-a", 3);
+        now.set(500);
+        vote(navigator, "win-b", 1);
+        assertEquals(List.of("win-a", "win-b", "win-c"), ids(navigator.getTopKRoutes(3)));
+
+        now.set(999);
+        assertEquals(List.of("win-a", "win-b"), ids(navigator.getTopKRoutes(2)));
+        long rescores = navigator.rescoreCount();
+
+        now.set(1000);
+        assertEquals(List.of("win-b", "win-a", "win-c"), ids(navigator.getTopKRoutes(3)));
+        assertEquals(rescores + 1, navigator.rescoreCount());
+        assertEquals(0, navigator.windowedPopularity("win-a"));
+
+        now.set(1500);
+        assertEquals(List.of("win-a", "win-b", "win-c"), ids(navigator.getTopKRoutes(3)));
+        assertEquals(rescores + 2, navigator.rescoreCount());
+        assertEquals(List.of("win-a", "win-b", "win-c"), ids(navigator.getTopKRoutes(3)));
+        assertEquals(rescores + 2, navigator.rescoreCount());
+    }
+
+    @Test
+    void decayingWindowFavoursRecentVotes() {
+        WindowedNavigator navigator = navigator(PopularityWindow.decaying(1000), "decay-a", "decay-b", "decay-c");
+        vote(navigator, "decay-a", 4);
+        assertEquals(List.of("decay-a", "decay-b", "decay-c"), ids(navigator.getTopKRoutes(3)));
+
+        now.set(2000);
+        vote(navigator, "decay-b", 3);
+        assertEquals(List.of("decay-b", "decay-a", "decay-c"), ids(navigator.getTopKRoutes(3)));
+        assertEquals(1, navigator.windowedPopularity("decay-a"), 1e-9);
+        assertEquals(3, navigator.windowedPopularity("decay-b"), 1e-9);
+
+        now.set(10_000);
+        vote(navigator, "decay-c", 1);
+        assertEquals(List.of("decay-c", "decay-b", "decay-a"), ids(navigator.getTopKRoutes(3)));
+    }
+
+    @Test
+    void pendingVotesAreFlushedInBatches() {
+        String[] routeIds = new String[1100];
+        for (int i = 0; i < routeIds.length; i++) {
+            routeIds[i] = String.format("flush-%04d", i);
+        }
+        WindowedNavigator navigator = navigator(PopularityWindow.sliding(1000, 4), routeIds);
+
+        vote(navigator, routeIds[0], 10);
+        assertEquals(0, navigator.rescoreCount());
+        assertEquals(List.of(routeIds[0]), ids(navigator.getTopKRoutes(1)));
+        assertEquals(1, navigator.rescoreCount());
+
+        for (int i = 1; i < routeIds.length; i++) {
+            navigator.chooseRoute(routeIds[i]);
+        }
+        assertTrue(navigator.rescoreCount() >= 1 + 1023, "rescores: " + navigator.rescoreCount());
+        assertTrue(navigator.rescoreCount() < routeIds.length, "rescores: " + navigator.rescoreCount());
+
+        assertEquals(List.of(routeIds[0], routeIds[1]), ids(navigator.getTopKRoutes(2)));
+        assertEquals(routeIds.length, navigator.rescoreCount());
+    }
+
+    @Test
+    void removedRoutesLeaveTheRanking() {
+        WindowedNavigator navigator = navigator(PopularityWindow.sliding(1000, 4), "gone-a", "gone-b");
+        vote(navigator, "gone-a", 2);
+        navigator.removeRoute("gone-a");
+
+        assertEquals(List.of("gone-b"), ids(navigator.getTopKRoutes(3)));
+        assertEquals(0, navigator.windowedPopularity("gone-a"));
+
+        navigator.addRoute(new Route("gone-a", 10, 0, false, List.of("gone-a-from", "gone-a-to")));
+        assertEquals(List.of("gone-b", "gone-a"), ids(navigator.getTopKRoutes(3)));
+    }
+}
@@ -0,0 +1,86 @@
+package route;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class RouteStoreTest {
+    private static Route route(String id) {
+        return new Route(id, 10, 1, false, List.of("store-a", "store-b"));
+    }
+
+    @Test
+    void viewsAreInvalidatedByCompact() {
+        RouteStore store = new RouteStore();
+        store.put(route("store-1"));
+        store.put(route("store-2"));
+        RouteStore.View view = store.view();
+        assertTrue(store.find("store-2", view));
+        store.remove("store-1");
+
+        store.compact();
+
+        assertThrows(IllegalStateException.class, view::getPopularity);
+        assertTrue(store.find("store-2", view));
+        assertEquals("store-2", view.getId());
+    }
+
+    @Test
+    void viewsOfRemovedRoutesAreRejected() {
+        RouteStore store = new RouteStore();
+        store.put(route("store-3"));
+        RouteStore.View view = store.view();
+        assertThrows(IllegalStateException.class, view::getId);
+        assertTrue(store.find("store-3", view));
+
+        store.remove("store-3");
+
+        assertThrows(IllegalStateException.class, view::getId);
+    }
+
+    @Test
+    void indexesStayOrderedAcrossRemovalsAndCompaction() {
+        RouteStore store = new RouteStore();
+        for (int i = 0; i < 40; i++) {
+            store.put(new Route("order-" + (char) ('a' + i % 26) + i, 10 + i % 3, i % 4, false,
+                    List.of("order-x", "order-y" + i % 5)));
+        }
+        for (int i = 0; i < 40; i += 3) {
+            store.remove("order-" + (char) ('a' + i % 26) + i);
+        }
+        store.put(new Route("order-late", 1, 3, false, List.of("order-x")));
+        store.compact();
+        store.addPopularity("order-a0", 0);
+        store.addPopularity("order-b1", 2);
+
+        List<String> ids = new ArrayList<>();
+        store.forEachById(view -> ids.add(view.getId()));
+        List<String> sorted = new ArrayList<>(ids);
+        sorted.sort(null);
+        assertEquals(sorted, ids);
+        assertEquals(store.size(), ids.size());
+
+        List<String> prefixed = new ArrayList<>();
+        store.forEachByIdPrefix("order-c", view -> prefixed.add(view.getId()));
+        assertEquals(List.of("order-c2", "order-c28"), prefixed);
+
+        List<int[]> ranks = new ArrayList<>();
+        store.forEachByRank(store.size(), view -> ranks.add(new int[]{view.getPopularity(), (int) view.getDistance()}));
+        assertEquals(store.size(), ranks.size());
+        assertEquals(3, ranks.get(0)[0]);
+        for (int i = 1; i < ranks.size(); i++) {
+            int[] previous = ranks.get(i - 1);
+            int[] current = ranks.get(i);
+            assertTrue(previous[0] > current[0] || (previous[0] == current[0] && previous[1] <= current[1]));
+        }
+
+        int through = LocationDictionary.global().find("order-x");
+        assertEquals(store.size(), store.countAt(through));
+        assertEquals(0, store.countAt(LocationDictionary.global().find("order-y0") + 100_000));
+    }
+}
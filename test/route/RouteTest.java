@@ -0,0 +1,39 @@
+package route;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class RouteTest {
+    @Test
+    void setLocationPointsAcceptsItsOwnView() {
+        Route route = new Route("route-1", 10, 0, false, List.of("route-a", "route-b", "route-c"));
+        route.setLocationPoints(route.getLocationPoints());
+
+        assertEquals(List.of("route-a", "route-b", "route-c"), route.getLocationPoints());
+        assertEquals(1, route.indexOf("route-b"));
+    }
+
+    @Test
+    void locationPointsViewIsReadOnly() {
+        Route route = new Route("route-2", 10, 0, false, List.of("route-a"));
+
+        assertThrows(UnsupportedOperationException.class, () -> route.getLocationPoints().add("route-b"));
+    }
+
+    @Test
+    void pointSizeOfAReversedPairIsZero() {
+        Route route = new Route("route-3", 10, 0, false, List.of("route-a", "route-b", "route-c"));
+
+        assertEquals(2, route.getPointSize("route-a", "route-c"));
+        assertEquals(0, route.getPointSize("route-c", "route-a"));
+        assertTrue(route.visitsInOrder("route-a", "route-c"));
+        assertFalse(route.visitsInOrder("route-c", "route-a"));
+        assertFalse(route.visitsInOrder("route-a", "route-missing"));
+    }
+}
@@ -0,0 +1,59 @@
+package server;
+
+import navigator.NavigatorImpl;
+import org.junit.jupiter.api.Test;
+import route.Route;
+
+import java.net.HttpURLConnection;
+import java.net.InetSocketAddress;
+import java.net.URL;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.ThreadPoolExecutor;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+
+class NavigatorServerTest {
+    private static int status(NavigatorServer server, String path) throws Exception {
+        URL url = new URL("http://localhost:" + server.port() + path);
+        HttpURLConnection connection = (HttpURLConnection) url.openConnection();
+        try {
+            return connection.getResponseCode();
+        } finally {
+            connection.disconnect();
+        }
+    }
+
+    @Test
+    void unexpectedRuntimeExceptionsMapTo500() throws Exception {
+        NavigatorImpl navigator = new NavigatorImpl() {
+            @Override
+            public Iterable<Route> searchRoutes(String startPoint, String endPoint, int offset, int limit) {
+                throw new IllegalStateException("broken index");
+            }
+        };
+        navigator.setQuiet(true);
+        NavigatorServer server = new NavigatorServer(navigator, new InetSocketAddress("localhost", 0), 0,
+                NavigatorServer.newFixedExecutor(2));
+        server.start();
+        try {
+            assertEquals(500, status(server, "/routes/search?start=a&end=b"));
+            assertEquals(400, status(server, "/routes/search?start=a"));
+            assertEquals(200, status(server, "/routes/top"));
+        } finally {
+            server.stop(0);
+        }
+    }
+
+    @Test
+    void threadCountCanBeConfigured() {
+        System.setProperty("navigator.http.threads", "3");
+        try {
+            ExecutorService executor = NavigatorServer.newExecutor();
+            assertEquals(3, assertInstanceOf(ThreadPoolExecutor.class, executor).getMaximumPoolSize());
+            executor.shutdown();
+        } finally {
+            System.clearProperty("navigator.http.threads");
+        }
+    }
+}
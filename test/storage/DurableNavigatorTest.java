@@ -0,0 +1,165 @@
+package storage;
+
+import navigator.NavigatorImpl;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import route.Route;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CyclicBarrier;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class DurableNavigatorTest {
+    private static final int WRITERS = 4;
+    private static final int VOTES_PER_THREAD = 5_000;
+
+    @TempDir
+    Path directory;
+
+    private DurableNavigator open() throws Exception {
+        NavigatorImpl navigator = new NavigatorImpl();
+        navigator.setQuiet(true);
+        return new DurableNavigator(navigator, directory, 10, 4096, Long.MAX_VALUE);
+    }
+
+    @Test
+    void concurrentMutationsAreAppliedInLogOrder() throws Exception {
+        int total = WRITERS * VOTES_PER_THREAD;
+        try (DurableNavigator navigator = open()) {
+            navigator.addRoute(new Route("durable-1", 10, 0, false, List.of("durable-a", "durable-b")));
+            CyclicBarrier start = new CyclicBarrier(WRITERS);
+            List<Thread> writers = new ArrayList<>();
+            for (int t = 0; t < WRITERS; t++) {
+                boolean favorite = t % 2 == 0;
+                Thread writer = new Thread(() -> {
+                    try {
+                        start.await();
+                    } catch (Exception e) {
+                        throw new IllegalStateException(e);
+                    }
+                    for (int i = 0; i < VOTES_PER_THREAD; i++) {
+                        navigator.chooseRoute("durable-1");
+                        navigator.setFavorite("durable-1", favorite);
+                        navigator.getRoutes().forEach(Route::getPopularity);
+                    }
+                });
+                writers.add(writer);
+                writer.start();
+            }
+            for (Thread writer : writers) {
+                writer.join();
+            }
+            navigator.setFavorite("durable-1", true);
+            assertEquals(total, navigator.getRoute("durable-1").getPopularity());
+        }
+
+        try (DurableNavigator recovered = open()) {
+            Route route = recovered.getRoute("durable-1");
+            assertEquals(total, route.getPopularity());
+            assertEquals(true, route.isFavorite());
+        }
+    }
+
+    @Test
+    void closeFlushesWritesTheFlusherHasNotCommitted() throws Exception {
+        NavigatorImpl inner = new NavigatorImpl();
+        inner.setQuiet(true);
+        try (DurableNavigator navigator = new DurableNavigator(inner, directory, 3_600_000, 1 << 20, Long.MAX_VALUE)) {
+            navigator.addRoute(new Route("durable-close", 10, 0, false, List.of("durable-a", "durable-b")));
+            navigator.chooseRoute("durable-close");
+        }
+
+        try (DurableNavigator recovered = open()) {
+            assertEquals(1, recovered.getRoute("durable-close").getPopularity());
+        }
+    }
+
+    @Test
+    void failedMutationsAreNotLogged() throws Exception {
+        NavigatorImpl inner = new NavigatorImpl() {
+            @Override
+            public void addRoute(Route route) {
+                if (route.getId().startsWith("durable-bad")) {
+                    throw new IllegalArgumentException("rejected: " + route.getId());
+                }
+                super.addRoute(route);
+            }
+        };
+        inner.setQuiet(true);
+        try (DurableNavigator navigator = new DurableNavigator(inner, directory, 10, 4096, Long.MAX_VALUE)) {
+            assertThrows(IllegalArgumentException.class, () -> navigator.addRoute(
+                    new Route("durable-bad", 10, 0, false, List.of("durable-a", "durable-b"))));
+            navigator.removeRoute("durable-missing");
+            navigator.chooseRoute("durable-missing");
+            navigator.setFavorite("durable-missing", true);
+            navigator.addRoute(new Route("durable-good", 10, 0, false, List.of("durable-a", "durable-b")));
+            navigator.addRoute(new Route("durable-good", 99, 0, false, List.of("durable-a", "durable-b")));
+        }
+
+        try (DurableNavigator recovered = open()) {
+            assertNull(recovered.getRoute("durable-bad"));
+            assertEquals(1, recovered.size());
+            assertEquals(10, recovered.getRoute("durable-good").getDistance());
+        }
+    }
+
+    @Test
+    void groupCommitKeepsRunningAfterARuntimeFailure() throws Exception {
+        AtomicBoolean unsorted = new AtomicBoolean(true);
+        AtomicInteger checkpoints = new AtomicInteger();
+        NavigatorImpl inner = new NavigatorImpl() {
+            @Override
+            public Iterable<Route> getRoutes() {
+                checkpoints.incrementAndGet();
+                List<Route> routes = new ArrayList<>();
+                super.getRoutes().forEach(routes::add);
+                if (unsorted.get()) {
+                    Collections.reverse(routes);
+                }
+                return routes;
+            }
+        };
+        inner.setQuiet(true);
+        try (DurableNavigator navigator = new DurableNavigator(inner, directory, 5, 4096, 0)) {
+            navigator.addRoute(new Route("durable-x", 10, 0, false, List.of("durable-a", "durable-b")));
+            navigator.addRoute(new Route("durable-y", 10, 0, false, List.of("durable-a", "durable-b")));
+            awaitAtLeast(checkpoints, 1);
+            unsorted.set(false);
+            int failed = checkpoints.get();
+            navigator.chooseRoute("durable-y");
+            awaitAtLeast(checkpoints, failed + 1);
+            awaitSnapshot();
+        }
+
+        try (DurableNavigator recovered = open()) {
+            assertEquals(1, recovered.getRoute("durable-y").getPopularity());
+            assertEquals(2, recovered.size());
+        }
+    }
+
+    private void awaitSnapshot() throws InterruptedException {
+        long deadline = System.nanoTime() + 10_000_000_000L;
+        while (!Files.exists(directory.resolve("routes.snapshot"))) {
+            assertTrue(System.nanoTime() < deadline, "checkpoint never succeeded");
+            Thread.sleep(5);
+        }
+    }
+
+    private static void awaitAtLeast(AtomicInteger counter, int expected) throws InterruptedException {
+        long deadline = System.nanoTime() + 10_000_000_000L;
+        while (counter.get() < expected) {
+            assertTrue(System.nanoTime() < deadline, "group commit stopped running");
+            Thread.sleep(5);
+        }
+    }
+}
@@ -0,0 +1,106 @@
+package storage;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import route.Route;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CyclicBarrier;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class SnapshotTest {
+    @TempDir
+    Path directory;
+
+    private static List<Route> routes() {
+        List<Route> routes = new ArrayList<>();
+        routes.add(new Route("snap-1", 12.5, 3, true, List.of("snap-a", "snap-b", "snap-a")));
+        routes.add(new Route("snap-2", 0, 0, false, List.of()));
+        routes.add(new Route("snap-3", 7, Integer.MAX_VALUE, false, List.of("Площадь Ленина", "snap-b")));
+        return routes;
+    }
+
+    @Test
+    void roundTripsRoutesAndGeneration() throws IOException {
+        Path file = directory.resolve("routes.snapshot");
+        Snapshot.write(file, routes(), 42);
+
+        Snapshot snapshot = Snapshot.open(file);
+        assertEquals(3, snapshot.size());
+        assertEquals(42, snapshot.generation());
+        assertEquals(routes(), new ArrayList<>(snapshot.routes()));
+        assertEquals(routes().get(2), snapshot.findRoute("snap-3"));
+        assertNull(snapshot.findRoute("snap-0"));
+        assertEquals("snap-2", snapshot.getId(1));
+        assertTrue(Files.notExists(directory.resolve("routes.snapshot.tmp")));
+
+        Snapshot.write(file, List.of(), 43);
+        Snapshot empty = Snapshot.open(file);
+        assertEquals(0, empty.size());
+        assertEquals(43, empty.generation());
+        assertNull(empty.findRoute("snap-1"));
+    }
+
+    @Test
+    void rejectsUnsortedInputAndCorruptFiles() throws IOException {
+        Path file = directory.resolve("routes.snapshot");
+        List<Route> unsorted = routes();
+        unsorted.add(unsorted.remove(0));
+        assertThrows(IllegalArgumentException.class, () -> Snapshot.write(file, unsorted));
+        assertTrue(Files.notExists(file));
+
+        Files.write(file, new byte[8]);
+        assertThrows(IOException.class, () -> Snapshot.open(file));
+
+        Snapshot.write(file, routes());
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.WRITE)) {
+            channel.write(ByteBuffer.allocate(4).putInt(0, Integer.MAX_VALUE), 28);
+        }
+        assertThrows(IOException.class, () -> Snapshot.open(file));
+    }
+
+    @Test
+    void concurrentReadersShareOneDecodedRoute() throws Exception {
+        Path file = directory.resolve("routes.snapshot");
+        Snapshot.write(file, routes());
+        Snapshot snapshot = Snapshot.open(file);
+
+        int readers = 4;
+        CyclicBarrier start = new CyclicBarrier(readers);
+        AtomicReferenceArray<Route> seen = new AtomicReferenceArray<>(readers);
+        List<Thread> threads = new ArrayList<>();
+        for (int t = 0; t < readers; t++) {
+            int index = t;
+            Thread thread = new Thread(() -> {
+                try {
+                    start.await();
+                } catch (Exception e) {
+                    throw new IllegalStateException(e);
+                }
+                seen.set(index, snapshot.getRoute(0));
+            });
+            threads.add(thread);
+            thread.start();
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        for (int t = 0; t < readers; t++) {
+            assertSame(snapshot.getRoute(0), seen.get(t));
+        }
+        assertEquals(routes().get(0), snapshot.getRoute(0));
+    }
+}
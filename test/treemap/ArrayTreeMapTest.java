@@ -0,0 +1,86 @@
+package treemap;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ArrayTreeMapTest {
+    @Test
+    void containsValueAcceptsNull() {
+        ArrayTreeMap<String, String> map = new ArrayTreeMap<>();
+        map.insert("a", "1");
+
+        assertFalse(map.containsValue(null));
+        map.insert("b", null);
+        assertTrue(map.containsValue(null));
+    }
+
+    @Test
+    void matchesJavaUtilTreeMapUnderRandomOperations() {
+        ArrayTreeMap<Integer, Integer> map = new ArrayTreeMap<>(4);
+        java.util.TreeMap<Integer, Integer> expected = new java.util.TreeMap<>();
+        Random random = new Random(42);
+
+        for (int i = 0; i < 20_000; i++) {
+            int key = random.nextInt(512);
+            int value = random.nextInt(100);
+            switch (random.nextInt(4)) {
+                case 0:
+                    assertEquals(expected.putIfAbsent(key, value), map.putIfAbsent(key, value));
+                    break;
+                case 1:
+                    assertEquals(expected.remove(key), map.remove(key));
+                    break;
+                case 2:
+                    assertEquals(expected.merge(key, value, (a, b) -> (a + b) % 7 == 0 ? null : a + b),
+                            map.merge(key, value, (a, b) -> (a + b) % 7 == 0 ? null : a + b));
+                    break;
+                default:
+                    assertEquals(expected.computeIfPresent(key, (k, v) -> v > 50 ? null : v + 1),
+                            map.computeIfPresent(key, (k, v) -> v > 50 ? null : v + 1));
+                    break;
+            }
+            assertEquals(expected.size(), map.size());
+        }
+
+        assertEquals(new ArrayList<>(expected.keySet()), map.keys().stream().collect(Collectors.toList()));
+        assertEquals(new ArrayList<>(expected.values()), map.values().parallelStream().collect(Collectors.toList()));
+        List<Integer> entryKeys = map.stream().map(Map.Entry::getKey).collect(Collectors.toList());
+        assertEquals(new ArrayList<>(expected.keySet()), entryKeys);
+        assertEquals(new ArrayList<>(expected.subMap(100, 200).keySet()),
+                map.subMap(100, 200).keys().parallelStream().collect(Collectors.toList()));
+    }
+
+    @Test
+    void prefixSelectsKeysStartingWithThePrefix() {
+        ArrayTreeMap<String, String> map = new ArrayTreeMap<>();
+        for (String key : List.of("a", "ab", "abc", "ac", "ab\uffff")) {
+            map.insert(key, key);
+        }
+
+        assertEquals(List.of("ab", "abc", "ab\uffff"),
+                ArrayTreeMap.prefix(map, "ab").keys().stream().collect(Collectors.toList()));
+        assertEquals(5, ArrayTreeMap.prefix(map, "").size());
+    }
+
+    @Test
+    void removeReturnsThePreviousValue() {
+        ArrayTreeMap<String, String> map = new ArrayTreeMap<>();
+        map.insert("a", "1");
+        map.insert("b", "2");
+        map.insert("c", "3");
+
+        assertEquals("2", map.remove("b"));
+        assertNull(map.remove("b"));
+        assertEquals(List.of("a", "c"), map.keys().stream().collect(Collectors.toList()));
+    }
+}
@@ -0,0 +1,44 @@
+package treemap;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class PersistentTreeMapTest {
+    @Test
+    void heightIsTrackedAcrossInsertsAndRemoves() {
+        PersistentTreeMap<Integer, Integer> map = PersistentTreeMap.empty();
+        assertEquals(0, map.height());
+
+        for (int i = 0; i < 1024; i++) {
+            map = map.insert(i, i);
+        }
+        PersistentTreeMap<Integer, Integer> full = map;
+        for (int i = 0; i < 1024; i += 2) {
+            map = map.remove(i);
+        }
+
+        assertBalanced(full);
+        assertBalanced(map);
+        assertEquals(1, PersistentTreeMap.<Integer, Integer>empty().insert(1, 1).height());
+    }
+
+    @Test
+    void prefixSelectsKeysStartingWithThePrefix() {
+        PersistentTreeMap<String, Integer> map = PersistentTreeMap.empty();
+        for (String key : new String[]{"a", "ab", "abc", "ac", "ab\uffff"}) {
+            map = map.insert(key, key.length());
+        }
+
+        assertEquals(3, PersistentTreeMap.prefix(map, "ab").size());
+        assertEquals(5, PersistentTreeMap.prefix(map, "").size());
+        assertEquals(0, PersistentTreeMap.prefix(map, "b").size());
+    }
+
+    private static void assertBalanced(PersistentTreeMap<Integer, Integer> map) {
+        double bound = 2 * Math.log(map.size() + 1) / Math.log(2);
+        assertTrue(map.height() >= Math.ceil(Math.log(map.size() + 1) / Math.log(2)), "height " + map.height());
+        assertTrue(map.height() <= bound, "height " + map.height());
+    }
+}
@@ -0,0 +1,411 @@
+package treemap;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.ConcurrentModificationException;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.Random;
+import java.util.Spliterator;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class TreeMapTest {
+    @Test
+    void prefixSelectsKeysStartingWithThePrefix() {
+        TreeMap<String, Integer> map = new TreeMap<>();
+        for (String key : List.of("a", "ab", "abc", "abd", "ac", "b", "ab\uffff", "ab\uffff\uffff")) {
+            map.insert(key, key.length());
+        }
+
+        assertEquals(List.of("ab", "abc", "abd", "ab\uffff", "ab\uffff\uffff"),
+                TreeMap.prefix(map, "ab").keys().stream().collect(Collectors.toList()));
+        assertEquals(List.of("ab\uffff", "ab\uffff\uffff"),
+                TreeMap.prefix(map, "ab\uffff").keys().stream().collect(Collectors.toList()));
+        assertEquals(map.size(), TreeMap.prefix(map, "").size());
+        assertEquals(0, TreeMap.prefix(map, "z").size());
+    }
+
+    @Test
+    void removeKeepsTheTreeBalanced() {
+        TreeMap<Integer, Integer> map = new TreeMap<>();
+        for (int i = 0; i < 256; i++) {
+            map.insert(i, i);
+        }
+        assertRedBlack(map);
+
+        for (int i = 0; i < 256; i += 3) {
+            assertEquals(i, map.remove(i));
+            assertRedBlack(map);
+        }
+        assertNull(map.remove(0));
+        assertNull(map.remove(1000));
+        assertRedBlack(map);
+
+        for (int i = 255; i >= 0; i--) {
+            map.remove(i);
+            assertRedBlack(map);
+        }
+        assertEquals(0, map.size());
+        assertEquals(0, map.height());
+        assertFalse(map.iterator().hasNext());
+    }
+
+    @Test
+    void putIfAbsentInsertsOnlyMissingKeys() {
+        TreeMap<Integer, String> map = new TreeMap<>();
+        for (int i = 0; i < 128; i++) {
+            assertNull(map.putIfAbsent(i, "v" + i));
+            assertRedBlack(map);
+        }
+        for (int i = 0; i < 128; i++) {
+            assertEquals("v" + i, map.putIfAbsent(i, "other"));
+        }
+        assertEquals(128, map.size());
+        assertEquals(128, map.insertions());
+        assertEquals("v5", map.get(5));
+        assertRedBlack(map);
+    }
+
+    @Test
+    void mergeInsertsCombinesAndRemovesOnNull() {
+        TreeMap<Integer, Integer> map = new TreeMap<>();
+        for (int i = 0; i < 128; i++) {
+            assertEquals(1, map.merge(i, 1, Integer::sum));
+        }
+        assertRedBlack(map);
+        for (int i = 0; i < 128; i += 2) {
+            assertEquals(2, map.merge(i, 1, Integer::sum));
+        }
+        assertEquals(128, map.size());
+        assertRedBlack(map);
+
+        for (int i = 0; i < 128; i++) {
+            int key = i;
+            assertEquals((key % 2 == 0) ? null : 1, map.merge(key, 0, (a, b) -> (a == 2) ? null : a));
+            assertRedBlack(map);
+        }
+        assertEquals(64, map.size());
+        assertEquals(64, map.removals());
+        assertFalse(map.containsKey(0));
+        assertTrue(map.containsKey(1));
+    }
+
+    @Test
+    void computeIfPresentUpdatesOrRemovesExistingKeys() {
+        TreeMap<Integer, Integer> map = new TreeMap<>();
+        for (int i = 0; i < 128; i++) {
+            map.insert(i, i);
+        }
+
+        assertNull(map.computeIfPresent(500, (k, v) -> v + 1));
+        assertEquals(128, map.size());
+        for (int i = 0; i < 128; i++) {
+            Integer result = map.computeIfPresent(i, (k, v) -> (k % 4 == 0) ? null : v * 10);
+            assertEquals((i % 4 == 0) ? null : i * 10, result);
+            assertRedBlack(map);
+        }
+        assertEquals(96, map.size());
+        assertEquals(10, map.get(1));
+        assertNull(map.get(4));
+    }
+
+    @Test
+    void mutationsAfterBuildFromSortedKeepInvariants() {
+        TreeMap<Integer, Integer> map = new TreeMap<>();
+        List<Integer> keys = IntStream.range(0, 1000).boxed().collect(Collectors.toList());
+        map.buildFromSorted(keys, keys);
+        assertRedBlack(map);
+
+        for (int i = 0; i < 1000; i += 7) {
+            map.remove(i);
+        }
+        for (int i = 1000; i < 1100; i++) {
+            map.putIfAbsent(i, i);
+        }
+        assertRedBlack(map);
+    }
+
+    @Test
+    void buildFromSortedBalancesEverySize() {
+        List<Integer> sizes = new ArrayList<>();
+        IntStream.rangeClosed(0, 70).forEach(sizes::add);
+        sizes.addAll(List.of(127, 128, 1000, 1023, 1024));
+        for (int size : sizes) {
+            TreeMap<Integer, String> map = new TreeMap<>();
+            map.putIfAbsent(-1, "old");
+            List<Integer> keys = IntStream.range(0, size).map(i -> i * 2).boxed().collect(Collectors.toList());
+            List<String> values = keys.stream().map(key -> "v" + key).collect(Collectors.toList());
+            map.buildFromSorted(keys, values);
+
+            assertRedBlack(map);
+            assertEquals(size, map.size());
+            assertEquals(keys, collect(map.keys()));
+            assertEquals(values, collect(map.values()));
+            assertNull(map.get(-1));
+            assertTrue(map.height() <= 2 * (32 - Integer.numberOfLeadingZeros(size + 1)), "height of " + size);
+            if (size > 0) {
+                assertEquals("v" + (size - 1) * 2, map.get((size - 1) * 2));
+                assertNull(map.get(1));
+            }
+        }
+    }
+
+    @Test
+    void buildFromSortedRejectsBadInputAndKeepsTheMap() {
+        TreeMap<Integer, Integer> map = new TreeMap<>();
+        map.putIfAbsent(1, 1);
+        map.putIfAbsent(2, 2);
+
+        assertThrows(IllegalArgumentException.class, () -> map.buildFromSorted(List.of(1, 3, 2), List.of(1, 3, 2)));
+        assertThrows(IllegalArgumentException.class, () -> map.buildFromSorted(List.of(1, 2), List.of(1)));
+        assertEquals(List.of(1, 2), collect(map.keys()));
+        assertRedBlack(map);
+    }
+
+    @Test
+    void matchesJavaUtilTreeMapUnderRandomOperations() {
+        TreeMap<Integer, Integer> map = new TreeMap<>();
+        java.util.TreeMap<Integer, Integer> expected = new java.util.TreeMap<>();
+        Random random = new Random(42);
+
+        for (int i = 0; i < 20_000; i++) {
+            int key = random.nextInt(512);
+            int value = random.nextInt(100);
+            switch (random.nextInt(4)) {
+                case 0:
+                    assertEquals(expected.putIfAbsent(key, value), map.putIfAbsent(key, value));
+                    break;
+                case 1:
+                    assertEquals(expected.remove(key), map.remove(key));
+                    break;
+                case 2:
+                    assertEquals(expected.merge(key, value, (a, b) -> (a + b) % 7 == 0 ? null : a + b),
+                            map.merge(key, value, (a, b) -> (a + b) % 7 == 0 ? null : a + b));
+                    break;
+                default:
+                    assertEquals(expected.computeIfPresent(key, (k, v) -> v > 50 ? null : v + 1),
+                            map.computeIfPresent(key, (k, v) -> v > 50 ? null : v + 1));
+                    break;
+            }
+            assertEquals(expected.size(), map.size());
+            if (i % 500 == 0) {
+                assertRedBlack(map);
+            }
+        }
+
+        assertRedBlack(map);
+        assertEquals(new ArrayList<>(expected.keySet()), map.keys().stream().collect(Collectors.toList()));
+        assertEquals(new ArrayList<>(expected.values()), map.values().stream().collect(Collectors.toList()));
+        assertEquals(expected.firstKey(), map.firstKey());
+        assertEquals(expected.lastKey(), map.lastKey());
+        for (int key = -1; key <= 512; key++) {
+            assertEquals(expected.get(key), map.get(key));
+            assertEquals(expected.ceilingKey(key), map.ceilingKey(key));
+            assertEquals(expected.floorKey(key), map.floorKey(key));
+        }
+        assertEquals(new ArrayList<>(expected.subMap(100, 200).keySet()),
+                map.subMap(100, 200).keys().stream().collect(Collectors.toList()));
+    }
+
+    @Test
+    void iteratorsWalkInOrderInBothDirections() {
+        TreeMap<Integer, String> map = new TreeMap<>();
+        java.util.TreeMap<Integer, String> expected = new java.util.TreeMap<>();
+        Random random = new Random(3);
+        for (int i = 0; i < 500; i++) {
+            int key = random.nextInt(2000);
+            map.putIfAbsent(key, "v" + key);
+            expected.putIfAbsent(key, "v" + key);
+        }
+
+        List<Integer> keys = new ArrayList<>(expected.keySet());
+        List<String> values = new ArrayList<>(expected.values());
+        assertEquals(keys, collect(map.keys()));
+        assertEquals(values, collect(map.values()));
+        List<Integer> entryKeys = new ArrayList<>();
+        for (TreeMap<Integer, String>.Node<Integer, String> node : map.entries()) {
+            entryKeys.add(node.key);
+        }
+        assertEquals(keys, entryKeys);
+
+        Collections.reverse(keys);
+        Collections.reverse(values);
+        assertEquals(keys, collect(map.descendingKeys()));
+        assertEquals(values, collect(map.descendingValues()));
+        List<Integer> descendingEntries = new ArrayList<>();
+        map.descendingIterator().forEachRemaining(node -> descendingEntries.add(node.key));
+        assertEquals(keys, descendingEntries);
+
+        assertEquals(new ArrayList<>(expected.subMap(500, true, 1500, false).descendingMap().values()),
+                collect(map.subMap(500, 1500).descendingValues()));
+        assertTrue(map.containsValue("v" + expected.lastKey()));
+        assertFalse(map.containsValue("missing"));
+        assertFalse(map.containsValue(null));
+    }
+
+    @Test
+    void preOrderVisitsEveryNodeAfterItsParent() {
+        TreeMap<Integer, Integer> map = new TreeMap<>();
+        for (int i = 0; i < 300; i++) {
+            map.insert((i * 37) % 300, i);
+        }
+
+        HashSet<Integer> visited = new HashSet<>();
+        boolean first = true;
+        for (TreeMap<Integer, Integer>.Node<Integer, Integer> node : map.preOrder()) {
+            if (first) {
+                assertNull(node.parent);
+                first = false;
+            } else {
+                assertTrue(visited.contains(node.parent.key), "parent of " + node.key);
+            }
+            assertTrue(visited.add(node.key));
+        }
+        assertEquals(map.size(), visited.size());
+    }
+
+    @Test
+    void iteratorsAreLazyAndFailFast() {
+        TreeMap<Integer, Integer> map = new TreeMap<>();
+        for (int i = 0; i < 100_000; i++) {
+            map.insert(i, i);
+        }
+        Iterator<Integer> keys = map.keys().iterator();
+        assertEquals(0, keys.next());
+        assertEquals(1, keys.next());
+        assertEquals(100_000, collect(map.values()).size());
+
+        map.merge(2, 5, Integer::sum);
+        assertEquals(2, keys.next());
+        map.remove(50);
+        assertThrows(ConcurrentModificationException.class, keys::next);
+
+        List<Iterator<?>> iterators = List.of(map.iterator(), map.values().iterator(), map.descendingIterator(),
+                map.descendingKeys().iterator(), map.preOrder().iterator(), map.subMap(10, 20).iterator());
+        map.insert(-1, -1);
+        for (Iterator<?> iterator : iterators) {
+            assertThrows(ConcurrentModificationException.class, iterator::next);
+        }
+
+        TreeMap<Integer, Integer> empty = new TreeMap<>();
+        assertFalse(empty.iterator().hasNext());
+        assertThrows(NoSuchElementException.class, () -> empty.keys().iterator().next());
+        assertThrows(NoSuchElementException.class, () -> empty.preOrder().iterator().next());
+        Iterator<Integer> single = map.subMap(7, 8).keys().iterator();
+        assertEquals(7, single.next());
+        assertFalse(single.hasNext());
+        assertThrows(NoSuchElementException.class, single::next);
+    }
+
+    private static <T> List<T> collect(Iterable<T> iterable) {
+        List<T> result = new ArrayList<>();
+        iterable.forEach(result::add);
+        return result;
+    }
+
+    @Test
+    void subMapSpliteratorEstimatesTheRangeInsteadOfTheWholeMap() {
+        TreeMap<Integer, Integer> map = new TreeMap<>();
+        List<Integer> keys = IntStream.range(0, 4096).boxed().collect(Collectors.toList());
+        map.buildFromSorted(keys, keys);
+
+        Spliterator<Integer> whole = map.values().spliterator();
+        assertTrue(whole.hasCharacteristics(Spliterator.SIZED));
+        assertEquals(4096, whole.estimateSize());
+
+        Spliterator<Integer> narrow = map.subMap(100, 110).keys().spliterator();
+        assertFalse(narrow.hasCharacteristics(Spliterator.SIZED));
+        assertTrue(narrow.estimateSize() >= 1 && narrow.estimateSize() <= 256, "estimate " + narrow.estimateSize());
+        assertTrue(map.subMap(0, 2048).values().spliterator().estimateSize() <= 4096);
+        assertEquals(0, map.subMap(5000, 6000).keys().spliterator().estimateSize());
+        assertEquals(0, TreeMap.prefix(new TreeMap<String, Integer>(), "a").keys().spliterator().estimateSize());
+    }
+
+    @Test
+    void subMapSpliteratorSplitsIntoOrderedDisjointParts() {
+        TreeMap<Integer, Integer> map = new TreeMap<>();
+        for (int i = 0; i < 5000; i++) {
+            map.insert((i * 7919) % 5000, i);
+        }
+        List<Integer> expected = IntStream.range(1234, 3456).boxed().collect(Collectors.toList());
+
+        List<Integer> split = new ArrayList<>();
+        collect(map.subMap(1234, 3456).keys().spliterator(), split);
+        assertEquals(expected, split);
+        assertEquals(expected, map.subMap(1234, 3456).keys().parallelStream().collect(Collectors.toList()));
+        assertEquals(expected, map.subMap(1234, 3456).parallelStream().map(node -> node.key).collect(Collectors.toList()));
+        assertEquals(map.subMap(1234, 3456).values().stream().collect(Collectors.toList()),
+                map.subMap(1234, 3456).values().parallelStream().collect(Collectors.toList()));
+    }
+
+    private static <T> void collect(Spliterator<T> spliterator, List<T> out) {
+        Spliterator<T> prefix = spliterator.trySplit();
+        if (prefix == null) {
+            spliterator.forEachRemaining(out::add);
+            return;
+        }
+        assertTrue(prefix.estimateSize() <= spliterator.estimateSize() + 1);
+        collect(prefix, out);
+        collect(spliterator, out);
+    }
+
+    private static <K extends Comparable<K>, V> void assertRedBlack(TreeMap<K, V> map) {
+        Iterator<TreeMap<K, V>.Node<K, V>> preOrder = map.preOrder().iterator();
+        if (!preOrder.hasNext()) {
+            assertEquals(0, map.size());
+            return;
+        }
+        TreeMap<K, V>.Node<K, V> root = preOrder.next();
+        assertNull(root.parent);
+        assertEquals(TreeMap.Color.BLACK, root.color, "root must be black");
+        int[] count = new int[1];
+        blackHeight(root, null, null, count);
+        assertEquals(map.size(), count[0], "size");
+        assertEquals(height(root), map.height(), "height");
+    }
+
+    private static <K extends Comparable<K>, V> int height(TreeMap<K, V>.Node<K, V> node) {
+        if (node == null) {
+            return 0;
+        }
+        int height = 1 + Math.max(height(node.leftChild), height(node.rightChild));
+        assertEquals(height, node.height, "height at " + node.key);
+        return height;
+    }
+
+    private static <K extends Comparable<K>, V> int blackHeight(TreeMap<K, V>.Node<K, V> node, K low, K high, int[] count) {
+        if (node == null) {
+            return 1;
+        }
+        count[0]++;
+        assertTrue(low == null || low.compareTo(node.key) < 0, "order at " + node.key);
+        assertTrue(high == null || node.key.compareTo(high) < 0, "order at " + node.key);
+        assertChild(node, node.leftChild);
+        assertChild(node, node.rightChild);
+        int left = blackHeight(node.leftChild, low, node.key, count);
+        int right = blackHeight(node.rightChild, node.key, high, count);
+        assertEquals(left, right, "black height at " + node.key);
+        return left + ((node.color == TreeMap.Color.BLACK) ? 1 : 0);
+    }
+
+    private static <K extends Comparable<K>, V> void assertChild(TreeMap<K, V>.Node<K, V> node, TreeMap<K, V>.Node<K, V> child) {
+        if (child == null) {
+            return;
+        }
+        assertSame(node, child.parent, "parent link at " + child.key);
+        assertFalse(node.color == TreeMap.Color.RED && child.color == TreeMap.Color.RED,
+                "red node " + node.key + " has a red child " + child.key);
+    }
+}